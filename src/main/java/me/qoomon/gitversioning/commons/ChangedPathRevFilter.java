@@ -0,0 +1,84 @@
+package me.qoomon.gitversioning.commons;
+
+import org.eclipse.jgit.internal.storage.commitgraph.ChangedPathFilter;
+import org.eclipse.jgit.internal.storage.commitgraph.CommitGraph;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.revwalk.TreeRevFilter;
+import org.eclipse.jgit.revwalk.filter.RevFilter;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.PathFilter;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+
+import java.io.IOException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Includes commits changing a path, like <code>git log -- PATH</code>, by a {@link TreeRevFilter}.
+ * <p>
+ * Commit-graph changed-path Bloom filters are checked first, commits with one parent
+ * that definitely do not change the path are skipped without a tree diff.
+ * JGit checks Bloom filters itself only for path filters without {@link TreeFilter#ANY_DIFF},
+ * that would include every commit containing the path.
+ * If the commit-graph can not be used, commits are checked by tree diffs only.
+ */
+final class ChangedPathRevFilter extends RevFilter {
+
+    private final RevWalk walk;
+    private final String path;
+    private final byte[] pathBytes;
+    private final TreeRevFilter treeRevFilter;
+    // null if commit-graph is not present or can not be used
+    private CommitGraph commitGraph;
+
+    /**
+     * @param commitGraph commit-graph of walked commits or null
+     * @param path        path relative to work tree root, must not be empty
+     */
+    ChangedPathRevFilter(RevWalk walk, CommitGraph commitGraph, String path) {
+        PathFilter pathFilter = PathFilter.create(path);
+        this.walk = walk;
+        this.commitGraph = commitGraph;
+        this.path = path;
+        this.pathBytes = pathFilter.getPath().getBytes(UTF_8);
+        this.treeRevFilter = new TreeRevFilter(walk, AndTreeFilter.create(pathFilter, TreeFilter.ANY_DIFF));
+    }
+
+    @Override
+    public boolean include(RevWalk walker, RevCommit commit) throws IOException {
+        if (commitGraph != null && commit.getParentCount() == 1 && !maybeChanged(commit)) {
+            return false;
+        }
+        return treeRevFilter.include(walker, commit);
+    }
+
+    /**
+     * @return false if commit-graph Bloom filter of <code>commit</code> definitely does not contain path
+     */
+    private boolean maybeChanged(RevCommit commit) {
+        try {
+            int position = commitGraph.findGraphPosition(commit);
+            if (position < 0) {
+                return true;
+            }
+            // null if commit-graph has no Bloom filter for commit e.g. too many changes
+            ChangedPathFilter changedPathFilter = commitGraph.getChangedPathFilter(position);
+            return changedPathFilter == null || changedPathFilter.maybeContains(pathBytes);
+        } catch (RuntimeException | LinkageError e) {
+            // internal JGit API, e.g. corrupt commit-graph or changed JGit version, use tree diffs only
+            commitGraph = null;
+            return true;
+        }
+    }
+
+    @Override
+    public boolean requiresCommitBody() {
+        return false;
+    }
+
+    @Override
+    public RevFilter clone() {
+        return new ChangedPathRevFilter(walk, commitGraph, path);
+    }
+}
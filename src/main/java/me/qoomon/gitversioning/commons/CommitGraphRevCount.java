@@ -0,0 +1,279 @@
+package me.qoomon.gitversioning.commons;
+
+import org.eclipse.jgit.internal.storage.commitgraph.CommitGraph;
+import org.eclipse.jgit.internal.storage.commitgraph.CommitGraphLoader;
+import org.eclipse.jgit.internal.storage.file.FileSnapshot;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectIdOwnerMap;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.util.RawParseUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.eclipse.jgit.lib.ConfigConstants.CONFIG_COMMIT_GRAPH;
+import static org.eclipse.jgit.lib.ConfigConstants.CONFIG_CORE_SECTION;
+import static org.eclipse.jgit.lib.Constants.OBJ_COMMIT;
+
+/**
+ * Counts commits by commit-graph generation numbers, like <code>git rev-list --count base..head</code>.
+ * <p>
+ * Commits are walked by graph position in generation order, children before parents,
+ * the walk stops as soon as all pending commits are reachable from <code>base</code>.
+ * Commits newer than the commit-graph file are parsed from their raw objects.
+ * <p>
+ * Instances map commits to nodes and provide generation and parents of nodes, for other generation ordered walks.
+ */
+final class CommitGraphRevCount {
+
+    private static final byte HEAD = 1;
+    private static final byte BASE = 2;
+    private static final byte[] PARENT = "parent ".getBytes(US_ASCII);
+
+    // loaded commit-graph files, see loadCommitGraph(File)
+    private static final Map<File, LoadedCommitGraph> commitGraphCache = new ConcurrentHashMap<>();
+
+    private final CommitGraph graph;
+    private final ObjectReader reader;
+    private final int graphCommitCount;
+
+    // commits not contained in commit-graph, node index is graphCommitCount + list index
+    private final ObjectIdOwnerMap<ExtraCommit> extraCommitMap = new ObjectIdOwnerMap<>();
+    private final List<ExtraCommit> extraCommits = new ArrayList<>();
+
+    CommitGraphRevCount(CommitGraph graph, ObjectReader reader) {
+        this.graph = graph;
+        this.reader = reader;
+        this.graphCommitCount = (int) graph.getCommitCnt();
+    }
+
+    /**
+     * @return commit-graph of <code>repository</code> or null if there is none or if it can not be used
+     */
+    static CommitGraph commitGraph(Repository repository, ObjectReader reader) {
+        if (GitUtil.isShallowRepository(repository)) {
+            // commit-graph parents are not cut at shallow commits
+            return null;
+        }
+        try {
+            final CommitGraph commitGraph = reader.getCommitGraph().orElse(null);
+            if (commitGraph != null) {
+                return commitGraph;
+            }
+            // jgit reads commit-graph only if enabled explicitly, git reads it unless disabled
+            if (!repository.getConfig().getBoolean(CONFIG_CORE_SECTION, CONFIG_COMMIT_GRAPH, true)) {
+                return null;
+            }
+            final File commitGraphFile = new File(repository.getDirectory(), "objects/info/commit-graph");
+            if (!commitGraphFile.isFile()) {
+                return null;
+            }
+            return loadCommitGraph(commitGraphFile);
+        } catch (IOException e) {
+            // e.g. CommitGraphFormatException, callers fall back to walks without commit-graph
+            return null;
+        }
+    }
+
+    /**
+     * Loads each commit-graph file once, until it is modified.
+     */
+    private static CommitGraph loadCommitGraph(File commitGraphFile) throws IOException {
+        final File cacheKey = commitGraphFile.getAbsoluteFile();
+        final LoadedCommitGraph loadedCommitGraph = commitGraphCache.get(cacheKey);
+        if (loadedCommitGraph != null && !loadedCommitGraph.snapshot.isModified(commitGraphFile)) {
+            return loadedCommitGraph.commitGraph;
+        }
+        final FileSnapshot snapshot = FileSnapshot.save(commitGraphFile);
+        final CommitGraph commitGraph = CommitGraphLoader.open(commitGraphFile);
+        commitGraphCache.put(cacheKey, new LoadedCommitGraph(snapshot, commitGraph));
+        return commitGraph;
+    }
+
+    /**
+     * Releases loaded commit-graph files, see {@link GitRepositoryPool#closeAll()}.
+     */
+    static void clearCommitGraphCache() {
+        commitGraphCache.clear();
+    }
+
+    /**
+     * @param base null to count all commits reachable from <code>head</code>
+     * @return number of commits reachable from <code>head</code> but not from <code>base</code>
+     * or -1 if commit-graph has no generation numbers
+     */
+    static int count(CommitGraph graph, ObjectReader reader, ObjectId head, ObjectId base) throws IOException {
+        return new CommitGraphRevCount(graph, reader).count(head, base);
+    }
+
+    private int count(ObjectId head, ObjectId base) throws IOException {
+        final int headNode = resolve(head);
+        final int baseNode = base != null ? resolve(base) : -1;
+        if (headNode < 0 || (base != null && baseNode < 0)) {
+            return -1;
+        }
+
+        final byte[] flags = new byte[graphCommitCount + extraCommits.size()];
+        final PriorityQueue<Long> queue = new PriorityQueue<>();
+        int pendingHeadOnly = 0;
+        flags[headNode] = HEAD;
+        queue.add(queueKey(headNode));
+        pendingHeadOnly++;
+        if (baseNode >= 0) {
+            if (flags[baseNode] == HEAD) {
+                pendingHeadOnly--;
+            } else {
+                queue.add(queueKey(baseNode));
+            }
+            flags[baseNode] |= BASE;
+        }
+
+        int count = 0;
+        while (pendingHeadOnly > 0) {
+            final int node = (int) (queue.poll() & 0xFFFFFFFFL);
+            final byte nodeFlags = flags[node];
+            if (nodeFlags == HEAD) {
+                pendingHeadOnly--;
+                count++;
+            }
+            for (int parent : parents(node)) {
+                final byte parentFlags = flags[parent];
+                final byte newParentFlags = (byte) (parentFlags | nodeFlags);
+                if (parentFlags == 0) {
+                    queue.add(queueKey(parent));
+                    if (newParentFlags == HEAD) {
+                        pendingHeadOnly++;
+                    }
+                } else if (parentFlags == HEAD && newParentFlags != HEAD) {
+                    pendingHeadOnly--;
+                }
+                flags[parent] = newParentFlags;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return priority queue key of <code>node</code>, highest generation first,
+     * generation and node are packed into one key to compare keys only
+     */
+    long queueKey(int node) {
+        return ((long) (Integer.MAX_VALUE - generation(node)) << 32) | node;
+    }
+
+    int generation(int node) {
+        return node < graphCommitCount
+                ? graph.getCommitData(node).getGeneration()
+                : extraCommits.get(node - graphCommitCount).generation;
+    }
+
+    int[] parents(int node) {
+        return node < graphCommitCount
+                ? graph.getCommitData(node).getParents()
+                : extraCommits.get(node - graphCommitCount).parents;
+    }
+
+    /**
+     * @return node of <code>commit</code> or -1 if commit-graph has no generation numbers
+     */
+    int resolve(ObjectId commit) throws IOException {
+        final int position = graph.findGraphPosition(commit);
+        if (position >= 0) {
+            return graph.getCommitData(position).getGeneration() > 0 ? position : -1;
+        }
+        final ExtraCommit knownExtraCommit = extraCommitMap.get(commit);
+        if (knownExtraCommit != null) {
+            return knownExtraCommit.node;
+        }
+
+        // resolve parents first, commits newer than commit-graph are usually just a few
+        final Deque<ExtraCommit> stack = new ArrayDeque<>();
+        stack.push(parse(commit));
+        while (!stack.isEmpty()) {
+            final ExtraCommit extraCommit = stack.peek();
+            if (extraCommit.node >= 0) {
+                // resolved already, pushed again as parent of another commit
+                stack.pop();
+                continue;
+            }
+            boolean parentsResolved = true;
+            int generation = 0;
+            for (int i = 0; i < extraCommit.parentIds.length; i++) {
+                final ObjectId parentId = extraCommit.parentIds[i];
+                final int parentPosition = graph.findGraphPosition(parentId);
+                if (parentPosition >= 0) {
+                    extraCommit.parents[i] = parentPosition;
+                    generation = Math.max(generation, graph.getCommitData(parentPosition).getGeneration());
+                    continue;
+                }
+                final ExtraCommit parentExtraCommit = extraCommitMap.get(parentId);
+                if (parentExtraCommit != null && parentExtraCommit.node >= 0) {
+                    extraCommit.parents[i] = parentExtraCommit.node;
+                    generation = Math.max(generation, parentExtraCommit.generation);
+                } else {
+                    // push unresolved parents on top, even if they are pushed already
+                    stack.push(parentExtraCommit != null ? parentExtraCommit : parse(parentId));
+                    parentsResolved = false;
+                }
+            }
+            if (parentsResolved) {
+                stack.pop();
+                extraCommit.generation = generation + 1;
+                extraCommit.node = graphCommitCount + extraCommits.size();
+                extraCommits.add(extraCommit);
+            }
+        }
+        return extraCommitMap.get(commit).node;
+    }
+
+    private ExtraCommit parse(ObjectId commit) throws IOException {
+        final byte[] raw = reader.open(commit, OBJ_COMMIT).getCachedBytes();
+        // skip "tree <id>\n"
+        final int position = 46;
+        int parentCount = 0;
+        while (RawParseUtils.match(raw, position + parentCount * 48, PARENT) >= 0) {
+            parentCount++;
+        }
+        final ObjectId[] parentIds = new ObjectId[parentCount];
+        for (int i = 0; i < parentCount; i++) {
+            parentIds[i] = ObjectId.fromString(raw, position + i * 48 + 7);
+        }
+        final ExtraCommit extraCommit = new ExtraCommit(commit, parentIds);
+        extraCommitMap.add(extraCommit);
+        return extraCommit;
+    }
+
+    private static final class ExtraCommit extends ObjectIdOwnerMap.Entry {
+        private static final long serialVersionUID = 1L;
+
+        final ObjectId[] parentIds;
+        final int[] parents;
+        int generation;
+        int node = -1;
+
+        ExtraCommit(ObjectId id, ObjectId[] parentIds) {
+            super(id);
+            this.parentIds = parentIds;
+            this.parents = new int[parentIds.length];
+        }
+    }
+
+    private static final class LoadedCommitGraph {
+        final FileSnapshot snapshot;
+        final CommitGraph commitGraph;
+
+        LoadedCommitGraph(FileSnapshot snapshot, CommitGraph commitGraph) {
+            this.snapshot = snapshot;
+            this.commitGraph = commitGraph;
+        }
+    }
+}
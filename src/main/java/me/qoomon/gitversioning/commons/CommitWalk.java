@@ -0,0 +1,122 @@
+package me.qoomon.gitversioning.commons;
+
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.util.RawParseUtils;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.eclipse.jgit.lib.Constants.OBJ_COMMIT;
+
+/**
+ * Memory bounded commit walk, commits are parsed from raw commit objects and are not retained.
+ * <p>
+ * Commits are returned in commit time order, most recent first, like {@link org.eclipse.jgit.revwalk.RevWalk}.
+ * First parent walks keep nothing but the current commit,
+ * other walks keep visited commit ids in a compact {@link ObjectIdHashSet} and pending commits only.
+ */
+final class CommitWalk implements AutoCloseable {
+
+    private static final ObjectId[] NO_PARENTS = new ObjectId[0];
+    private static final byte[] PARENT = "parent ".getBytes(US_ASCII);
+
+    private final ObjectReader reader;
+    private final Set<ObjectId> shallowCommits;
+    private final boolean firstParent;
+
+    private final ObjectIdHashSet visited;
+    private final PriorityQueue<PendingCommit> pending = new PriorityQueue<>(
+            Comparator.<PendingCommit>comparingLong(commit -> -commit.commitTime)
+                    .thenComparingLong(commit -> commit.sequence));
+    private long sequence = 0;
+
+    CommitWalk(Repository repository, boolean firstParent) throws IOException {
+        this.reader = repository.newObjectReader();
+        this.shallowCommits = repository.getObjectDatabase().getShallowCommits();
+        this.firstParent = firstParent;
+        // first parent chains can not contain a commit twice
+        this.visited = firstParent ? null : new ObjectIdHashSet();
+    }
+
+    void markStart(AnyObjectId commit) throws IOException {
+        enqueue(commit.copy());
+    }
+
+    /**
+     * @return next commit or null if walk is done
+     */
+    ObjectId next() throws IOException {
+        final PendingCommit commit = pending.poll();
+        if (commit == null) {
+            return null;
+        }
+        for (ObjectId parent : commit.parents) {
+            enqueue(parent);
+        }
+        return commit.id;
+    }
+
+    @Override
+    public void close() {
+        reader.close();
+    }
+
+    private void enqueue(ObjectId commit) throws IOException {
+        if (visited != null && !visited.add(commit)) {
+            return;
+        }
+
+        final byte[] raw = reader.open(commit, OBJ_COMMIT).getCachedBytes();
+        pending.add(new PendingCommit(commit, commitTime(raw), parents(commit, raw), sequence++));
+    }
+
+    private ObjectId[] parents(ObjectId commit, byte[] raw) {
+        if (shallowCommits.contains(commit)) {
+            return NO_PARENTS;
+        }
+
+        // skip "tree <id>\n"
+        int position = 46;
+        int parentCount = 0;
+        while (RawParseUtils.match(raw, position + parentCount * 48, PARENT) >= 0) {
+            parentCount++;
+            if (firstParent) {
+                break;
+            }
+        }
+        final ObjectId[] parents = new ObjectId[parentCount];
+        for (int i = 0; i < parentCount; i++) {
+            parents[i] = ObjectId.fromString(raw, position + i * 48 + 7);
+        }
+        return parents;
+    }
+
+    private static long commitTime(byte[] raw) {
+        int position = RawParseUtils.committer(raw, 0);
+        if (position < 0) {
+            return 0;
+        }
+        position = RawParseUtils.nextLF(raw, position, '>');
+        return RawParseUtils.parseLongBase10(raw, position, null);
+    }
+
+    private static final class PendingCommit {
+        final ObjectId id;
+        final long commitTime;
+        final ObjectId[] parents;
+        final long sequence;
+
+        PendingCommit(ObjectId id, long commitTime, ObjectId[] parents, long sequence) {
+            this.id = id;
+            this.commitTime = commitTime;
+            this.parents = parents;
+            this.sequence = sequence;
+        }
+    }
+}
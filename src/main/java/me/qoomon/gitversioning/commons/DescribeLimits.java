@@ -0,0 +1,48 @@
+package me.qoomon.gitversioning.commons;
+
+import java.time.Duration;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Limits of the describe commit walk.
+ * <p>
+ * If a limit is exceeded before a matching tag is found, describe stops
+ * and returns a truncated description with the fallback tag.
+ */
+public final class DescribeLimits {
+
+    public static final DescribeLimits NONE = new DescribeLimits(null, null, "root");
+
+    private final Integer maxDepth;
+    private final Duration timeout;
+    private final String fallbackTag;
+
+    /**
+     * @param maxDepth    maximum distance of a matching tag or null for unlimited
+     * @param timeout     maximum walk duration or null for unlimited
+     * @param fallbackTag tag of truncated descriptions
+     */
+    public DescribeLimits(Integer maxDepth, Duration timeout, String fallbackTag) {
+        this.maxDepth = maxDepth;
+        this.timeout = timeout;
+        this.fallbackTag = requireNonNull(fallbackTag);
+    }
+
+    public Integer getMaxDepth() {
+        return maxDepth;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public String getFallbackTag() {
+        return fallbackTag;
+    }
+
+    @Override
+    public String toString() {
+        return "maxDepth=" + maxDepth + ", timeout=" + timeout + ", fallbackTag=" + fallbackTag;
+    }
+}
@@ -4,11 +4,20 @@ public class GitDescription {
     private final String commit;
     private final String tag;
     private final int distance;
+    private final boolean truncated;
 
     public GitDescription(String commit, String tag, int distance) {
+        this(commit, tag, distance, false);
+    }
+
+    /**
+     * @param truncated true if describe walk was stopped by {@link DescribeLimits} before a matching tag was found
+     */
+    public GitDescription(String commit, String tag, int distance, boolean truncated) {
         this.commit = commit;
         this.tag = tag;
         this.distance = distance;
+        this.truncated = truncated;
     }
 
     public String getCommit() {
@@ -23,6 +32,10 @@ public class GitDescription {
         return distance;
     }
 
+    public boolean isTruncated() {
+        return truncated;
+    }
+
     @Override
     public String toString() {
         return tag + "-" + distance + "-g" + commit.substring(0,7);
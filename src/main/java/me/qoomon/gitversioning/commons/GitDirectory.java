@@ -0,0 +1,147 @@
+package me.qoomon.gitversioning.commons;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Plain file access to a git directory, without opening the repository.
+ * <p>
+ * Only HEAD, loose refs and packed refs are read, anything else requires a repository.
+ */
+public final class GitDirectory {
+
+    private static final Pattern OBJECT_ID_PATTERN = Pattern.compile("[0-9a-f]{40}");
+
+    private final File workTree;
+    private final File gitDir;
+
+    private GitDirectory(File workTree, File gitDir) {
+        this.workTree = workTree;
+        this.gitDir = gitDir;
+    }
+
+    /**
+     * @param directory start directory
+     * @return git directory of <code>directory</code> or of one of its parents, or null if there is none
+     * @throws IOException IOException
+     */
+    public static GitDirectory find(File directory) throws IOException {
+        File searchDirectory = directory.getAbsoluteFile();
+        while (searchDirectory != null) {
+            final File dotGit = new File(searchDirectory, ".git");
+            if (dotGit.isDirectory()) {
+                return new GitDirectory(searchDirectory, dotGit);
+            }
+            if (dotGit.isFile()) {
+                // linked work tree or submodule
+                final String dotGitContent = readFirstLine(dotGit);
+                if (dotGitContent == null || !dotGitContent.startsWith("gitdir:")) {
+                    return null;
+                }
+                return new GitDirectory(searchDirectory,
+                        resolveFile(searchDirectory, dotGitContent.substring("gitdir:".length()).trim()));
+            }
+            searchDirectory = searchDirectory.getParentFile();
+        }
+        return null;
+    }
+
+    public File getWorkTree() {
+        return workTree;
+    }
+
+    public File getGitDir() {
+        return gitDir;
+    }
+
+    /**
+     * @return full ref name HEAD is pointing to, or null if HEAD is detached
+     * @throws IOException IOException
+     */
+    public String getHeadRef() throws IOException {
+        final String head = readFirstLine(new File(gitDir, "HEAD"));
+        if (head == null || !head.startsWith("ref:")) {
+            return null;
+        }
+        return head.substring("ref:".length()).trim();
+    }
+
+    /**
+     * @return HEAD commit id or null if it can not be resolved by plain file access
+     * @throws IOException IOException
+     */
+    public String resolveHead() throws IOException {
+        final String head = readFirstLine(new File(gitDir, "HEAD"));
+        if (head == null) {
+            return null;
+        }
+        if (!head.startsWith("ref:")) {
+            return isObjectId(head) ? head : null;
+        }
+        return resolveRef(head.substring("ref:".length()).trim());
+    }
+
+    private String resolveRef(String refName) throws IOException {
+        final File commonDir = getCommonDir();
+
+        final String looseRef = readFirstLine(new File(commonDir, refName));
+        if (looseRef != null) {
+            // symbolic refs are not followed
+            return isObjectId(looseRef) ? looseRef : null;
+        }
+
+        final File packedRefsFile = new File(commonDir, "packed-refs");
+        if (!packedRefsFile.isFile()) {
+            return null;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(packedRefsFile.toPath(), UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("#") || line.startsWith("^")) {
+                    continue;
+                }
+                final int separatorIndex = line.indexOf(' ');
+                if (separatorIndex > 0 && line.substring(separatorIndex + 1).equals(refName)) {
+                    final String objectId = line.substring(0, separatorIndex);
+                    return isObjectId(objectId) ? objectId : null;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return common git directory, differs from git directory for linked work trees only
+     */
+    private File getCommonDir() throws IOException {
+        final String commonDirPath = readFirstLine(new File(gitDir, "commondir"));
+        if (commonDirPath == null) {
+            return gitDir;
+        }
+        return resolveFile(gitDir, commonDirPath);
+    }
+
+    private static File resolveFile(File directory, String path) {
+        final File file = new File(path);
+        return file.isAbsolute() ? file : new File(directory, path);
+    }
+
+    private static boolean isObjectId(String value) {
+        return OBJECT_ID_PATTERN.matcher(value).matches();
+    }
+
+    private static String readFirstLine(File file) throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), UTF_8)) {
+            final String line = reader.readLine();
+            return line != null ? line.trim() : null;
+        }
+    }
+}
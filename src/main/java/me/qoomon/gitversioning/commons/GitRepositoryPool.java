@@ -0,0 +1,58 @@
+package me.qoomon.gitversioning.commons;
+
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared repository handles, each git directory is opened once only,
+ * so config, refs and pack indexes are not loaded again and again.
+ * <p>
+ * Pooled repositories must not be closed by callers, see {@link #closeAll()}.
+ */
+public final class GitRepositoryPool {
+
+    private static final Map<File, Repository> repositories = new ConcurrentHashMap<>();
+
+    private GitRepositoryPool() {
+    }
+
+    /**
+     * @param gitDir git directory
+     * @return shared repository of <code>gitDir</code>
+     * @throws IOException IOException
+     */
+    public static Repository open(File gitDir) throws IOException {
+        final File repositoryKey = gitDir.getCanonicalFile();
+        try {
+            return repositories.computeIfAbsent(repositoryKey, key -> {
+                try {
+                    return new FileRepositoryBuilder().setGitDir(key).build();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Closes and removes all pooled repositories and releases loaded commit-graph files, e.g. on maven session end.
+     */
+    public static void closeAll() {
+        final List<Repository> closingRepositories = new ArrayList<>(repositories.values());
+        repositories.clear();
+        closingRepositories.forEach(Repository::close);
+        CommitGraphRevCount.clearCommitGraphCache();
+    }
+}
@@ -8,27 +8,43 @@ import java.io.File;
 import java.io.IOException;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.function.Supplier;
 import java.util.regex.Pattern;
 
 import static java.time.Instant.EPOCH;
 import static java.time.ZoneOffset.UTC;
+import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
 import static me.qoomon.gitversioning.commons.GitUtil.*;
+import static org.eclipse.jgit.lib.Constants.R_TAGS;
 
 public class GitSituation {
 
-    private final Repository repository;
+    private final Supplier<Repository> repository;
     private final File rootDirectory;
 
-    private final ObjectId head;
-    private final Supplier<ZonedDateTime> timestamp = Lazy.by(this::timestamp);
+    private final String rev;
+    private final Supplier<ObjectId> head;
+    private Supplier<ZonedDateTime> timestamp = Lazy.by(this::timestamp);
     private Supplier<String> branch = Lazy.by(this::branch);
 
     private Supplier<List<String>> tags = Lazy.by(this::tags);
+    // tags installed by setTags and addTag, they are not filtered by tag ref prefixes
+    private List<String> overrideTags;
+    private final List<String> addedTags = new ArrayList<>();
+
+    private List<String> tagRefPrefixes = singletonList(R_TAGS);
 
     private final Supplier<Boolean> clean = Lazy.by(this::clean);
 
@@ -36,12 +52,44 @@ public class GitSituation {
 
     private boolean firstParent = true;
 
-    private Supplier<GitDescription> description = Lazy.by(this::describe);
+    private DescribeLimits describeLimits = DescribeLimits.NONE;
+
+    private Map<String, Pattern> namedDescribeTagPatterns = emptyMap();
+
+    private final Supplier<Integer> commitCount = Lazy.by(this::commitCount);
+
+    private List<String> mainBranches = asList("main", "master");
+
+    private Supplier<Integer> branchDistance = Lazy.by(this::branchDistance);
+
+    // default description by empty name and named descriptions, all resolved by one walk
+    private Supplier<Map<String, GitDescription>> descriptions = Lazy.by(this::describe);
+
+    private Supplier<String> highestTag = Lazy.by(this::highestTag);
+
+    // path descriptions by directory path, shared by all modules of a reactor
+    private final Map<String, GitDescription> pathDescriptions = new HashMap<>();
 
     public GitSituation(Repository repository) throws IOException {
-        this.repository = repository;
+        this.repository = () -> repository;
         this.rootDirectory = worktreesFix_getWorkTree(repository);
-        this.head = worktreesFix_resolveHead(repository);
+        final ObjectId head = worktreesFix_resolveHead(repository);
+        this.rev = head != null ? head.getName() : NO_COMMIT;
+        this.head = () -> head;
+    }
+
+    /**
+     * Git situation of an already known HEAD commit, repository is opened not until it is needed.
+     *
+     * @param rootDirectory work tree root directory
+     * @param rev           HEAD commit id
+     * @param repository    repository initializer
+     */
+    public GitSituation(File rootDirectory, String rev, Callable<Repository> repository) {
+        this.repository = Lazy.by(repository);
+        this.rootDirectory = requireNonNull(rootDirectory);
+        this.rev = requireNonNull(rev);
+        this.head = Lazy.by(() -> ObjectId.fromString(rev));
     }
 
     public File getRootDirectory() {
@@ -49,13 +97,18 @@ public class GitSituation {
     }
 
     public String getRev() {
-        return head != null ? head.getName() : NO_COMMIT;
+        return rev;
     }
 
     public ZonedDateTime getTimestamp() {
         return timestamp.get();
     }
 
+    protected void setTimestamp(ZonedDateTime timestamp) {
+        requireNonNull(timestamp);
+        this.timestamp = () -> timestamp;
+    }
+
     public String getBranch() {
         return branch.get();
     }
@@ -90,14 +143,8 @@ public class GitSituation {
             throw new IllegalArgumentException("invalid tag ref" + tag);
         }
 
-        final String finalTag = tag.replaceFirst("^refs/tags/", "");
-
-        final Supplier<List<String>> currentTags = this.tags;
-        this.tags = Lazy.by(() -> {
-            List<String> tags = new ArrayList<>(currentTags.get());
-            tags.add(finalTag);
-            return tags;
-        });
+        addedTags.add(tag.replaceFirst("^refs/tags/", ""));
+        resetTags();
     }
 
     protected void setTags(List<String> tags) {
@@ -113,8 +160,35 @@ public class GitSituation {
                 .map(tag -> tag.replaceFirst("^refs/tags/", ""))
                 .collect(toList());
 
-        final List<String> finalTags = tags;
-        this.tags = () -> finalTags;
+        overrideTags = tags;
+        addedTags.clear();
+        resetTags();
+    }
+
+    private void resetTags() {
+        final List<String> overrideTags = this.overrideTags;
+        final List<String> addedTags = new ArrayList<>(this.addedTags);
+        this.tags = Lazy.by(() -> {
+            final List<String> tags = new ArrayList<>(overrideTags != null ? overrideTags : tags());
+            tags.addAll(addedTags);
+            return tags;
+        });
+    }
+
+    /**
+     * @param tagRefPrefixes only tag refs starting with one of these prefixes are considered for tags and description,
+     *                       e.g. <code>refs/tags/v</code> or <code>v</code>
+     */
+    public void setTagRefPrefixes(List<String> tagRefPrefixes) {
+        this.tagRefPrefixes = normalizeTagRefPrefixes(requireNonNull(tagRefPrefixes));
+        resetTags();
+        this.descriptions = Lazy.by(this::describe);
+        this.pathDescriptions.clear();
+        this.highestTag = Lazy.by(this::highestTag);
+    }
+
+    public List<String> getTagRefPrefixes() {
+        return tagRefPrefixes;
     }
 
     public boolean isClean() {
@@ -123,7 +197,9 @@ public class GitSituation {
 
     public void setDescribeTagPattern(Pattern describeTagPattern) {
         this.describeTagPattern = requireNonNull(describeTagPattern);
-        this.description = Lazy.by(this::describe);
+        this.descriptions = Lazy.by(this::describe);
+        this.pathDescriptions.clear();
+        this.highestTag = Lazy.by(this::highestTag);
     }
 
     public Pattern getDescribeTagPattern() {
@@ -138,31 +214,153 @@ public class GitSituation {
         this.firstParent = firstParent;
     }
 
+    public DescribeLimits getDescribeLimits() {
+        return describeLimits;
+    }
+
+    public void setDescribeLimits(DescribeLimits describeLimits) {
+        this.describeLimits = requireNonNull(describeLimits);
+        this.descriptions = Lazy.by(this::describe);
+        this.pathDescriptions.clear();
+    }
+
     public GitDescription getDescription() {
-        return description.get();
+        return descriptions.get().get("");
+    }
+
+    /**
+     * @return highest version tag reachable from HEAD, matching describe tag pattern, or null if there is none
+     */
+    public String getHighestTag() {
+        return highestTag.get();
+    }
+
+    /**
+     * @return number of commits reachable from HEAD, like <code>git rev-list --count HEAD</code>
+     */
+    public int getCommitCount() {
+        return commitCount.get();
+    }
+
+    /**
+     * @param mainBranches main branch candidates, first existing one is used for {@link #getBranchDistance()}
+     */
+    public void setMainBranches(List<String> mainBranches) {
+        this.mainBranches = requireNonNull(mainBranches);
+        this.branchDistance = Lazy.by(this::branchDistance);
+    }
+
+    public List<String> getMainBranches() {
+        return mainBranches;
+    }
+
+    /**
+     * @return number of commits reachable from HEAD but not from main branch, like <code>git rev-list --count main..HEAD</code>,
+     * or null if there is no main branch
+     */
+    public Integer getBranchDistance() {
+        return branchDistance.get();
+    }
+
+    /**
+     * Describes HEAD by commits changing <code>path</code> only, see {@link GitUtil#describePath}.
+     * Descriptions are cached by path.
+     *
+     * @param path directory path relative to {@link #getRootDirectory()}, with <code>/</code> separators,
+     *             empty for root directory
+     * @return description with last commit changing <code>path</code> and number of commits changing <code>path</code> since describe tag
+     */
+    public GitDescription getPathDescription(String path) throws IOException {
+        GitDescription pathDescription = pathDescriptions.get(path);
+        if (pathDescription == null) {
+            pathDescription = GitUtil.describePath(head.get(), getDescription(), path, repository.get());
+            pathDescriptions.put(path, pathDescription);
+        }
+        return pathDescription;
+    }
+
+    /**
+     * Determines changed paths since describe tag by a single tree diff, see {@link GitUtil#changedPaths}.
+     *
+     * @param paths directory paths relative to {@link #getRootDirectory()}, with <code>/</code> separators,
+     *              empty for root directory
+     * @return paths changed between describe tag commit and HEAD, all paths if there is no describe tag commit
+     */
+    public Set<String> getChangedPaths(Collection<String> paths) throws IOException {
+        return GitUtil.changedPaths(head.get(), getDescription().getTag(), paths, repository.get());
+    }
+
+    /**
+     * @param namedDescribeTagPatterns additional describe tag patterns by name, described along with {@link #getDescribeTagPattern()}
+     */
+    public void setNamedDescribeTagPatterns(Map<String, Pattern> namedDescribeTagPatterns) {
+        if (namedDescribeTagPatterns.containsKey("")) {
+            throw new IllegalArgumentException("describe tag pattern name must not be empty");
+        }
+        this.namedDescribeTagPatterns = new LinkedHashMap<>(namedDescribeTagPatterns);
+        this.descriptions = Lazy.by(this::describe);
+    }
+
+    public Map<String, Pattern> getNamedDescribeTagPatterns() {
+        return namedDescribeTagPatterns;
+    }
+
+    /**
+     * @return description of named describe tag pattern or null if there is no such pattern
+     */
+    public GitDescription getDescription(String name) {
+        return namedDescribeTagPatterns.containsKey(name) ? descriptions.get().get(name) : null;
     }
 
     // ----- initialization methods ------------------------------------------------------------------------------------
 
     private ZonedDateTime timestamp() throws IOException {
+        final ObjectId head = this.head.get();
         return head != null
-                ? GitUtil.revTimestamp(repository, head)
+                ? GitUtil.revTimestamp(repository.get(), head)
                 : ZonedDateTime.ofInstant(EPOCH, UTC);
     }
 
     private String branch() throws IOException {
-        return GitUtil.branch(repository);
+        return GitUtil.branch(repository.get());
     }
 
     private List<String> tags() throws IOException {
-        return head != null ? GitUtil.tagsPointAt(head, repository) : emptyList();
+        final ObjectId head = this.head.get();
+        return head != null ? GitUtil.tagsPointAt(head, repository.get(), tagRefPrefixes) : emptyList();
     }
 
     private boolean clean() throws GitAPIException {
-        return GitUtil.status(repository).isClean();
+        return GitUtil.status(repository.get()).isClean();
+    }
+
+    private String highestTag() throws IOException {
+        return GitUtil.highestTag(head.get(), describeTagPattern, repository.get(), tagRefPrefixes);
+    }
+
+    private int commitCount() throws IOException {
+        final ObjectId head = this.head.get();
+        return head != null ? GitUtil.revCount(repository.get(), head, null) : 0;
+    }
+
+    private Integer branchDistance() throws IOException {
+        final ObjectId head = this.head.get();
+        if (head == null) {
+            return 0;
+        }
+        for (String mainBranch : mainBranches) {
+            final ObjectId mainBranchHead = GitUtil.branchHead(repository.get(), mainBranch);
+            if (mainBranchHead != null) {
+                return GitUtil.revCount(repository.get(), head, mainBranchHead);
+            }
+        }
+        return null;
     }
 
-    private GitDescription describe() throws IOException {
-        return GitUtil.describe(head, describeTagPattern, repository, firstParent);
+    private Map<String, GitDescription> describe() throws IOException {
+        final Map<String, Pattern> tagPatterns = new LinkedHashMap<>();
+        tagPatterns.put("", describeTagPattern);
+        tagPatterns.putAll(namedDescribeTagPatterns);
+        return GitUtil.describe(head.get(), tagPatterns, repository.get(), firstParent, tagRefPrefixes, describeLimits);
     }
 }
\ No newline at end of file
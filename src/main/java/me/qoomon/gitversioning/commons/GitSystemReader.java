@@ -0,0 +1,201 @@
+package me.qoomon.gitversioning.commons;
+
+import org.eclipse.jgit.errors.ConfigInvalidException;
+import org.eclipse.jgit.lib.Config;
+import org.eclipse.jgit.storage.file.FileBasedConfig;
+import org.eclipse.jgit.util.FS;
+import org.eclipse.jgit.util.SystemReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.FileSystems;
+import java.time.Duration;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.eclipse.jgit.lib.ConfigConstants.CONFIG_COMMIT_GRAPH_SECTION;
+import static org.eclipse.jgit.lib.ConfigConstants.CONFIG_FILESYSTEM_SECTION;
+import static org.eclipse.jgit.lib.ConfigConstants.CONFIG_KEY_MIN_RACY_THRESHOLD;
+import static org.eclipse.jgit.lib.ConfigConstants.CONFIG_KEY_READ_CHANGED_PATHS;
+import static org.eclipse.jgit.lib.ConfigConstants.CONFIG_KEY_TIMESTAMP_RESOLUTION;
+
+/**
+ * JGit {@link SystemReader} to control JGit config,
+ * e.g. to persist measured file store attributes or to predefine them to skip measurement.
+ * <p>
+ * In hermetic mode system and user git config are not loaded at all, so only repository config is considered.
+ *
+ * @see FS.FileStoreAttributes
+ */
+public final class GitSystemReader extends SystemReader.Delegate {
+
+    // see FS.FileStoreAttributes
+    private static final String JAVA_VERSION_PREFIX =
+            System.getProperty("java.vendor") + '|' + System.getProperty("java.version") + '|';
+
+    private final SystemReader delegate;
+
+    private boolean hermetic = false;
+
+    private File jgitConfigFile;
+
+    // applied to JGit config on each load
+    private final Config jgitConfigOverrides = new Config();
+
+    public GitSystemReader(SystemReader delegate) {
+        super(delegate);
+        this.delegate = delegate;
+    }
+
+    /**
+     * @return current system reader instance, unwrapped if it is a {@link GitSystemReader}
+     */
+    public static SystemReader currentDelegate() {
+        SystemReader systemReader = SystemReader.getInstance();
+        while (systemReader instanceof GitSystemReader) {
+            systemReader = ((GitSystemReader) systemReader).delegate;
+        }
+        return systemReader;
+    }
+
+    /**
+     * @param hermetic if true, system, user and JGit config files are not loaded,
+     *                 except JGit config file is set explicitly, see {@link #setJGitConfigFile(File)}
+     */
+    public void setHermetic(boolean hermetic) {
+        this.hermetic = hermetic;
+    }
+
+    /**
+     * @param jgitConfigFile JGit config file, e.g. to persist measured file store attributes
+     */
+    public void setJGitConfigFile(File jgitConfigFile) {
+        this.jgitConfigFile = jgitConfigFile;
+    }
+
+    /**
+     * @param readChangedPaths if true, commit-graph changed-path Bloom filters are read,
+     *                         JGit reads them only if enabled by JGit config, git reads them unless disabled
+     */
+    public void setReadChangedPaths(boolean readChangedPaths) {
+        jgitConfigOverrides.setBoolean(CONFIG_COMMIT_GRAPH_SECTION, null, CONFIG_KEY_READ_CHANGED_PATHS, readChangedPaths);
+    }
+
+    /**
+     * Predefines file store attributes of all file stores, so JGit does not need to measure them.
+     *
+     * @param timestampResolution file timestamp resolution, JGit time unit format e.g. <code>10 milliseconds</code>,
+     *                            null for JGit fallback value
+     * @param minRacyThreshold    minimal racy threshold, JGit time unit format e.g. <code>10 milliseconds</code>,
+     *                            null for JGit fallback value
+     * @throws IOException IOException
+     */
+    public void setFileStoreAttributes(String timestampResolution, String minRacyThreshold) throws IOException {
+        final String timestampResolutionValue = timestampResolution != null
+                ? validateTimeUnit(CONFIG_KEY_TIMESTAMP_RESOLUTION, timestampResolution)
+                : formatTimeUnit(FS.FileStoreAttributes.FALLBACK_FILESTORE_ATTRIBUTES.getFsTimestampResolution());
+        final String minRacyThresholdValue = minRacyThreshold != null
+                ? validateTimeUnit(CONFIG_KEY_MIN_RACY_THRESHOLD, minRacyThreshold)
+                : formatTimeUnit(FS.FileStoreAttributes.FALLBACK_FILESTORE_ATTRIBUTES.getMinimalRacyInterval());
+
+        for (FileStore fileStore : FileSystems.getDefault().getFileStores()) {
+            final String fileStoreKey = JAVA_VERSION_PREFIX + fileStoreKey(fileStore);
+            jgitConfigOverrides.setString(CONFIG_FILESYSTEM_SECTION, fileStoreKey,
+                    CONFIG_KEY_TIMESTAMP_RESOLUTION, timestampResolutionValue);
+            jgitConfigOverrides.setString(CONFIG_FILESYSTEM_SECTION, fileStoreKey,
+                    CONFIG_KEY_MIN_RACY_THRESHOLD, minRacyThresholdValue);
+        }
+    }
+
+    @Override
+    public FileBasedConfig openUserConfig(Config parent, FS fs) {
+        return hermetic ? emptyConfig(parent, fs) : super.openUserConfig(parent, fs);
+    }
+
+    @Override
+    public FileBasedConfig openSystemConfig(Config parent, FS fs) {
+        // in hermetic mode this also avoids executing git to locate system config
+        return hermetic ? emptyConfig(parent, fs) : super.openSystemConfig(parent, fs);
+    }
+
+    @Override
+    public FileBasedConfig openJGitConfig(Config parent, FS fs) {
+        final File configFile = jgitConfigFile != null ? jgitConfigFile
+                : hermetic ? null
+                : super.openJGitConfig(parent, fs).getFile();
+        return new FileBasedConfig(parent, configFile, fs) {
+            @Override
+            public void load() throws IOException, ConfigInvalidException {
+                if (getFile() != null) {
+                    super.load();
+                }
+                applyOverrides(this);
+            }
+
+            @Override
+            public void save() throws IOException {
+                if (getFile() != null) {
+                    super.save();
+                }
+            }
+
+            @Override
+            public boolean isOutdated() {
+                return getFile() != null && super.isOutdated();
+            }
+        };
+    }
+
+    private static FileBasedConfig emptyConfig(Config parent, FS fs) {
+        return new FileBasedConfig(parent, null, fs) {
+            @Override
+            public void load() {
+                // nothing to load
+            }
+
+            @Override
+            public boolean isOutdated() {
+                return false;
+            }
+        };
+    }
+
+    private void applyOverrides(Config config) {
+        for (String section : jgitConfigOverrides.getSections()) {
+            for (String name : jgitConfigOverrides.getNames(section)) {
+                config.setString(section, null, name, jgitConfigOverrides.getString(section, null, name));
+            }
+            for (String subsection : jgitConfigOverrides.getSubsections(section)) {
+                for (String name : jgitConfigOverrides.getNames(section, subsection)) {
+                    config.setString(section, subsection, name, jgitConfigOverrides.getString(section, subsection, name));
+                }
+            }
+        }
+    }
+
+    // see FS.FileStoreAttributes
+    private String fileStoreKey(FileStore fileStore) {
+        if (isWindows()) {
+            try {
+                final Object volumeSerialNumber = fileStore.getAttribute("volume:vsn");
+                if (volumeSerialNumber != null) {
+                    return volumeSerialNumber.toString();
+                }
+            } catch (IOException | UnsupportedOperationException ignore) {
+                // fallback to file store name
+            }
+        }
+        return fileStore.name();
+    }
+
+    private static String validateTimeUnit(String name, String value) {
+        final Config config = new Config();
+        config.setString(CONFIG_FILESYSTEM_SECTION, null, name, value);
+        config.getTimeUnit(CONFIG_FILESYSTEM_SECTION, null, name, 0, NANOSECONDS);
+        return value;
+    }
+
+    private static String formatTimeUnit(Duration duration) {
+        return duration.toNanos() + " nanoseconds";
+    }
+}
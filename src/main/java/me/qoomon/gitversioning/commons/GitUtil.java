@@ -1,39 +1,80 @@
 package me.qoomon.gitversioning.commons;
 
+import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.Status;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.errors.NoWorkTreeException;
+import org.eclipse.jgit.internal.storage.commitgraph.CommitGraph;
 import org.eclipse.jgit.lib.*;
+import org.eclipse.jgit.lib.BitmapIndex.BitmapBuilder;
+import org.eclipse.jgit.notes.NoteMap;
+import org.eclipse.jgit.revwalk.BitmapWalker;
+import org.eclipse.jgit.revwalk.ObjectWalk;
 import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevObject;
+import org.eclipse.jgit.revwalk.RevSort;
+import org.eclipse.jgit.revwalk.RevTree;
 import org.eclipse.jgit.revwalk.RevWalk;
-import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.PathFilterGroup;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.time.ZoneOffset.UTC;
+import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static java.util.Comparator.comparing;
 import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toList;
+import static me.qoomon.gitversioning.commons.StringUtil.patternLiteralPrefix;
 import static org.eclipse.jgit.lib.Constants.HEAD;
+import static org.eclipse.jgit.lib.Constants.OBJ_BLOB;
+import static org.eclipse.jgit.lib.Constants.OBJ_COMMIT;
 import static org.eclipse.jgit.lib.Constants.R_TAGS;
+import static org.eclipse.jgit.lib.Ref.Storage.LOOSE;
+import static org.eclipse.jgit.lib.Ref.Storage.PACKED;
 import static org.eclipse.jgit.lib.Repository.shortenRefName;
 
 public final class GitUtil {
 
     public static String NO_COMMIT = "0000000000000000000000000000000000000000";
 
+    /**
+     * Git notes ref of describe hints, notes are <code>git describe --long</code> outputs e.g. <code>v1.2.3-4-g1a2b3c4</code>
+     */
+    public static final String DESCRIBE_HINTS_REF = "refs/notes/describe";
+
+    private static final Pattern DESCRIBE_HINT_PATTERN = Pattern.compile("^(?<tag>.+)-(?<distance>\\d+)-g[0-9a-f]+$");
+
     public static Status status(Repository repository) throws GitAPIException {
         return Git.wrap(repository).status().call();
     }
@@ -47,60 +88,683 @@ public final class GitUtil {
     }
 
     public static List<String> tagsPointAt(ObjectId revObjectId, Repository repository) throws IOException {
-        return reverseTagRefMap(repository).getOrDefault(revObjectId, emptyList());
+        return tagsPointAt(revObjectId, repository, singletonList(R_TAGS));
+    }
+
+    /**
+     * @param tagRefPrefixes only tag refs starting with one of these prefixes are considered, e.g. <code>refs/tags/v</code>
+     */
+    public static List<String> tagsPointAt(ObjectId revObjectId, Repository repository, List<String> tagRefPrefixes) throws IOException {
+        Repository commonRepository = worktreesFix_getCommonRepository(repository);
+        List<Ref> tags = packedRefsTagsPointAt(revObjectId, commonRepository, tagRefPrefixes);
+        if (tags == null) {
+            tags = refDatabaseTagsPointAt(revObjectId, commonRepository, tagRefPrefixes);
+        }
+        return tags.stream()
+                .sorted(new TagComparator(commonRepository))
+                .map(tag -> shortenRefName(tag.getName()))
+                .collect(toList());
+    }
+
+    /**
+     * Peels candidate tags only, already peeled tags and lightweight tags pointing at <code>revObjectId</code>
+     * are matched without object access.
+     *
+     * @return tags pointing at <code>revObjectId</code>
+     */
+    private static List<Ref> refDatabaseTagsPointAt(ObjectId revObjectId, Repository commonRepository, List<String> tagRefPrefixes) throws IOException {
+        List<Ref> tags = new ArrayList<>();
+        try (RevWalk walk = new RevWalk(commonRepository)) {
+            for (Ref tag : tags(commonRepository, tagRefPrefixes)) {
+                ObjectId tagObjectId = tag.getObjectId();
+                if (tagObjectId == null) {
+                    continue;
+                }
+                if (tag.isPeeled()) {
+                    ObjectId peeledObjectId = tag.getPeeledObjectId() != null ? tag.getPeeledObjectId() : tagObjectId;
+                    if (peeledObjectId.equals(revObjectId)) {
+                        tags.add(tag);
+                    }
+                } else if (tagObjectId.equals(revObjectId) || walk.peel(walk.parseAny(tagObjectId)).equals(revObjectId)) {
+                    tags.add(tag);
+                }
+            }
+        }
+        return tags;
+    }
+
+    /**
+     * Reads tags from packed-refs file, see {@link PackedRefs}, and from loose tag ref files,
+     * so tag refs not pointing at <code>revObjectId</code> are neither materialized nor peeled.
+     *
+     * @return tags pointing at <code>revObjectId</code> or null if packed-refs file can not be used
+     */
+    private static List<Ref> packedRefsTagsPointAt(ObjectId revObjectId, Repository commonRepository, List<String> tagRefPrefixes) throws IOException {
+        PackedRefs packedRefs = packedRefs(commonRepository);
+        if (packedRefs == null) {
+            return null;
+        }
+        Map<String, ObjectId> looseTags = looseTags(commonRepository, tagRefPrefixes);
+        if (looseTags == null) {
+            return null;
+        }
+
+        // loose refs take precedence over packed refs
+        List<Ref> tags = new ArrayList<>();
+        for (String tagRefPrefix : tagRefPrefixes) {
+            packedRefs.refsPointingAt(tagRefPrefix, revObjectId).stream()
+                    .filter(tag -> !looseTags.containsKey(tag.getName()))
+                    .forEach(tags::add);
+        }
+        for (Ref looseTag : peelLooseTags(commonRepository, looseTags)) {
+            if (looseTag.getPeeledObjectId() != null
+                    ? looseTag.getPeeledObjectId().equals(revObjectId)
+                    : looseTag.getObjectId().equals(revObjectId)) {
+                tags.add(looseTag);
+            }
+        }
+        // same order as ref database
+        tags.sort(comparing(Ref::getName));
+        return tags;
+    }
+
+    /**
+     * Reads tags from packed-refs file, see {@link PackedRefs}, and from loose tag ref files,
+     * so packed tags are peeled without object access.
+     *
+     * @return peeled tags starting with one of <code>tagRefPrefixes</code> or null if packed-refs file can not be used
+     */
+    private static List<Ref> packedRefsTags(Repository commonRepository, List<String> tagRefPrefixes) throws IOException {
+        PackedRefs packedRefs = packedRefs(commonRepository);
+        if (packedRefs == null) {
+            return null;
+        }
+        Map<String, ObjectId> looseTags = looseTags(commonRepository, tagRefPrefixes);
+        if (looseTags == null) {
+            return null;
+        }
+
+        // loose refs take precedence over packed refs
+        List<Ref> tags = new ArrayList<>();
+        for (String tagRefPrefix : tagRefPrefixes) {
+            packedRefs.forEachRef(tagRefPrefix, (name, objectId, peeledObjectId) -> {
+                if (!looseTags.containsKey(name)) {
+                    tags.add(peeledObjectId != null
+                            ? new ObjectIdRef.PeeledTag(PACKED, name, objectId, peeledObjectId)
+                            : new ObjectIdRef.PeeledNonTag(PACKED, name, objectId));
+                }
+            });
+        }
+        tags.addAll(peelLooseTags(commonRepository, looseTags));
+        // same order as ref database
+        tags.sort(comparing(Ref::getName));
+        return tags;
+    }
+
+    /**
+     * @return packed refs or null if packed-refs file does not exist or can not be used
+     */
+    private static PackedRefs packedRefs(Repository commonRepository) throws IOException {
+        File gitDir = commonRepository.getDirectory();
+        if (gitDir == null || new File(gitDir, "reftable").exists()) {
+            return null;
+        }
+        return PackedRefs.read(gitDir);
+    }
+
+    /**
+     * @return object ids of loose tag refs starting with one of <code>tagRefPrefixes</code> by name
+     * or null if a loose tag ref can not be read e.g. symbolic ref
+     */
+    private static Map<String, ObjectId> looseTags(Repository commonRepository, List<String> tagRefPrefixes) throws IOException {
+        Map<String, ObjectId> looseTags = new TreeMap<>();
+        File looseTagsDir = new File(commonRepository.getDirectory(), R_TAGS);
+        if (looseTagsDir.isDirectory()) {
+            try (Stream<Path> looseTagFiles = Files.walk(looseTagsDir.toPath())) {
+                for (Path looseTagFile : (Iterable<Path>) looseTagFiles.filter(Files::isRegularFile)::iterator) {
+                    String looseTagContent = Files.readAllLines(looseTagFile).stream().findFirst().orElse("").trim();
+                    if (!ObjectId.isId(looseTagContent)) {
+                        // e.g. symbolic ref
+                        return null;
+                    }
+                    String looseTagName = R_TAGS + looseTagsDir.toPath().relativize(looseTagFile).toString()
+                            .replace(File.separatorChar, '/');
+                    if (tagRefPrefixes.stream().anyMatch(looseTagName::startsWith)) {
+                        looseTags.put(looseTagName, ObjectId.fromString(looseTagContent));
+                    }
+                }
+            }
+        }
+        return looseTags;
+    }
+
+    private static List<Ref> peelLooseTags(Repository commonRepository, Map<String, ObjectId> looseTags) throws IOException {
+        List<Ref> tags = new ArrayList<>(looseTags.size());
+        try (RevWalk walk = new RevWalk(commonRepository)) {
+            for (Entry<String, ObjectId> looseTag : looseTags.entrySet()) {
+                RevObject peeledObject = walk.peel(walk.parseAny(looseTag.getValue()));
+                tags.add(peeledObject.equals(looseTag.getValue())
+                        ? new ObjectIdRef.PeeledNonTag(LOOSE, looseTag.getKey(), looseTag.getValue())
+                        : new ObjectIdRef.PeeledTag(LOOSE, looseTag.getKey(), looseTag.getValue(), peeledObject.copy()));
+            }
+        }
+        return tags;
     }
 
     public static GitDescription describe(ObjectId revObjectId, Pattern tagPattern, Repository repository, boolean firstParent) throws IOException {
+        return describe(revObjectId, tagPattern, repository, firstParent, singletonList(R_TAGS));
+    }
+
+    /**
+     * @param tagRefPrefixes only tag refs starting with one of these prefixes are considered, e.g. <code>refs/tags/v</code>,
+     *                       they are narrowed further by the literal prefix of <code>tagPattern</code>
+     */
+    public static GitDescription describe(ObjectId revObjectId, Pattern tagPattern, Repository repository, boolean firstParent,
+                                          List<String> tagRefPrefixes) throws IOException {
+        return describe(revObjectId, tagPattern, repository, firstParent, tagRefPrefixes, DescribeLimits.NONE);
+    }
+
+    /**
+     * @param limits walk limits, if exceeded a truncated description with fallback tag is returned
+     */
+    public static GitDescription describe(ObjectId revObjectId, Pattern tagPattern, Repository repository, boolean firstParent,
+                                          List<String> tagRefPrefixes, DescribeLimits limits) throws IOException {
+        return describe(revObjectId, singletonMap("", tagPattern), repository, firstParent, tagRefPrefixes, limits).get("");
+    }
+
+    /**
+     * Describes <code>revObjectId</code> for multiple tag patterns in one walk,
+     * the walk stops as soon as each tag pattern has found its nearest tag.
+     *
+     * @param tagPatterns tag patterns by name
+     * @return descriptions by tag pattern name
+     */
+    public static Map<String, GitDescription> describe(ObjectId revObjectId, Map<String, Pattern> tagPatterns, Repository repository,
+                                                       boolean firstParent, List<String> tagRefPrefixes, DescribeLimits limits) throws IOException {
         Repository commonRepository = worktreesFix_getCommonRepository(repository);
         if (revObjectId == null) {
-            return new GitDescription(NO_COMMIT, "root", 0);
+            Map<String, GitDescription> descriptions = new LinkedHashMap<>();
+            tagPatterns.keySet().forEach(name -> descriptions.put(name, new GitDescription(NO_COMMIT, "root", 0)));
+            return descriptions;
         }
 
-        Map<ObjectId, List<String>> objectIdListMap = reverseTagRefMap(repository);
+        List<String> narrowedTagRefPrefixes = new ArrayList<>();
+        tagPatterns.values().forEach(tagPattern -> narrowedTagRefPrefixes.addAll(tagRefPrefixes(tagPattern, tagRefPrefixes)));
+        Map<ObjectId, List<String>> objectIdListMap = reverseTagRefMap(repository, normalizeTagRefPrefixes(narrowedTagRefPrefixes));
+        return describe(revObjectId, tagPatterns, commonRepository, firstParent, objectIdListMap, limits);
+    }
 
-        // Walk back commit ancestors looking for tagged one
-        try (RevWalk walk = new RevWalk(commonRepository)) {
+    private static GitDescription describe(ObjectId revObjectId, Pattern tagPattern, Repository commonRepository, boolean firstParent,
+                                           Map<ObjectId, List<String>> objectIdListMap, DescribeLimits limits) throws IOException {
+        return describe(revObjectId, singletonMap("", tagPattern), commonRepository, firstParent, objectIdListMap, limits).get("");
+    }
+
+    private static Map<String, GitDescription> describe(ObjectId revObjectId, Map<String, Pattern> tagPatterns, Repository commonRepository,
+                                                        boolean firstParent, Map<ObjectId, List<String>> objectIdListMap,
+                                                        DescribeLimits limits) throws IOException {
+        Set<ObjectId> shallowCommits = commonRepository.getObjectDatabase().getShallowCommits();
+        Lazy<NoteMap> describeHints = Lazy.by(() -> describeHints(commonRepository));
+
+        Map<String, GitDescription> descriptions = new LinkedHashMap<>();
+        Map<String, Pattern> pendingTagPatterns = new LinkedHashMap<>(tagPatterns);
+
+        // Walk back commit ancestors looking for tagged one,
+        // commits are not retained to keep memory bounded for deep histories
+        try (CommitWalk walk = new CommitWalk(commonRepository, firstParent)) {
+            walk.markStart(revObjectId);
+            final long deadline = limits.getTimeout() != null ? System.nanoTime() + limits.getTimeout().toNanos() : 0;
+            int depth = 0;
+            ObjectId rev;
+            while (!pendingTagPatterns.isEmpty() && (rev = walk.next()) != null) {
+                // head commit is described always
+                if (depth > 0 && ((limits.getMaxDepth() != null && depth > limits.getMaxDepth())
+                        || (limits.getTimeout() != null && System.nanoTime() - deadline > 0))) {
+                    // walked commits are a lower bound of the distance to the next matching tag
+                    for (String name : pendingTagPatterns.keySet()) {
+                        descriptions.put(name, new GitDescription(revObjectId.getName(), limits.getFallbackTag(), depth, true));
+                    }
+                    pendingTagPatterns.clear();
+                    break;
+                }
+
+                List<String> tags = objectIdListMap.getOrDefault(rev, emptyList());
+                Matcher describeHint = null;
+                // history ends at shallow commits, continue with precomputed description if any
+                if (shallowCommits.contains(rev)) {
+                    describeHint = describeHint(commonRepository, describeHints.get(), rev);
+                }
+
+                Iterator<Entry<String, Pattern>> pendingTagPatternIterator = pendingTagPatterns.entrySet().iterator();
+                while (pendingTagPatternIterator.hasNext()) {
+                    Entry<String, Pattern> tagPattern = pendingTagPatternIterator.next();
+                    Optional<String> matchingTag = tags.stream()
+                            .filter(tag -> tagPattern.getValue().matcher(tag).matches())
+                            .findFirst();
+
+                    GitDescription description = null;
+                    if (matchingTag.isPresent()) {
+                        // walk depth is the number of commits since tag for first parent walks only
+                        int distance = firstParent ? depth : revCount(commonRepository, revObjectId, rev);
+                        description = new GitDescription(revObjectId.getName(), matchingTag.get(), distance);
+                    } else if (describeHint != null && tagPattern.getValue().matcher(describeHint.group("tag")).matches()) {
+                        int distance = (firstParent ? depth : revCount(commonRepository, revObjectId, rev))
+                                + Integer.parseInt(describeHint.group("distance"));
+                        description = new GitDescription(revObjectId.getName(), describeHint.group("tag"), distance);
+                    }
+                    if (description != null) {
+                        descriptions.put(tagPattern.getKey(), description);
+                        pendingTagPatternIterator.remove();
+                    }
+                }
+                depth++;
+            }
+
+            if (!pendingTagPatterns.isEmpty()) {
+                if (isShallowRepository(commonRepository)) {
+                    throw new IllegalStateException("couldn't find matching tag in shallow git repository"
+                            + " - fetch more history or describe hints (" + DESCRIBE_HINTS_REF + ")");
+                }
+                for (String name : pendingTagPatterns.keySet()) {
+                    descriptions.put(name, new GitDescription(revObjectId.getName(), "root", depth));
+                }
+            }
+        }
+
+        // same order as tag patterns
+        Map<String, GitDescription> orderedDescriptions = new LinkedHashMap<>();
+        tagPatterns.keySet().forEach(name -> orderedDescriptions.put(name, descriptions.get(name)));
+        return orderedDescriptions;
+    }
+
+    /**
+     * Describes <code>revObjectId</code> by commits changing <code>path</code> only, e.g. to version a module of a monorepo.
+     * The description consists of the last commit changing <code>path</code>, like <code>git log -1 REV -- PATH</code>,
+     * the tag of <code>description</code> and the number of commits changing <code>path</code> since that tag,
+     * like <code>git rev-list --count TAG..REV -- PATH</code>.
+     * <p>
+     * Commit-graph changed-path Bloom filters are used if available, so most commits are skipped without a tree diff.
+     *
+     * @param description description of <code>revObjectId</code>, see {@link #describe}
+     * @param path        directory path relative to work tree root, empty for work tree root
+     * @return path description, commit is <code>revObjectId</code> if no commit changed <code>path</code>
+     */
+    public static GitDescription describePath(ObjectId revObjectId, GitDescription description, String path,
+                                              Repository repository) throws IOException {
+        if (revObjectId == null) {
+            return new GitDescription(NO_COMMIT, description.getTag(), 0);
+        }
+        Repository commonRepository = worktreesFix_getCommonRepository(repository);
+        ObjectId tagCommit = tagCommit(commonRepository, description.getTag());
+        try (ObjectReader reader = commonRepository.newObjectReader();
+             RevWalk walk = new RevWalk(reader)) {
             walk.setRetainBody(false);
-            walk.setFirstParent(firstParent);
+            if (!path.isEmpty()) {
+                CommitGraph commitGraph = CommitGraphRevCount.commitGraph(commonRepository, reader);
+                walk.setRevFilter(new ChangedPathRevFilter(walk, commitGraph, path));
+            }
             walk.markStart(walk.parseCommit(revObjectId));
-            Iterator<RevCommit> walkIterator = walk.iterator();
-            int depth = 0;
-            while (walkIterator.hasNext()) {
-                RevCommit rev = walkIterator.next();
-                Optional<String> matchingTag = objectIdListMap.getOrDefault(rev, emptyList()).stream()
+            if (tagCommit != null) {
+                walk.markUninteresting(walk.parseCommit(tagCommit));
+            }
+            RevCommit lastCommit = null;
+            int distance = 0;
+            for (RevCommit commit : walk) {
+                if (lastCommit == null) {
+                    lastCommit = commit;
+                }
+                distance++;
+            }
+
+            if (lastCommit == null && tagCommit != null) {
+                // path has not been changed since tag
+                walk.reset();
+                walk.markStart(walk.parseCommit(tagCommit));
+                lastCommit = walk.next();
+            }
+            ObjectId commit = lastCommit != null ? lastCommit : revObjectId;
+            return new GitDescription(commit.getName(), description.getTag(), distance, description.isTruncated());
+        }
+    }
+
+    /**
+     * Determines which of <code>paths</code> changed between the commit of <code>tag</code> and <code>revObjectId</code>,
+     * like <code>git diff --quiet TAG REV -- PATH</code> for each path, but by a single tree diff for all paths.
+     * <p>
+     * Changes within nested paths, e.g. <code>a/b</code> of <code>a</code>, only change the nested path,
+     * except for work tree root, it is changed if anything changed.
+     * Only differing parent directories of pending paths are entered, unchanged subtrees are skipped by tree id.
+     *
+     * @param tag   describe tag, all paths are changed if there is no such tag e.g. for <code>root</code> or fallback tags
+     * @param paths directory paths relative to work tree root, empty for work tree root
+     * @return changed paths
+     */
+    public static Set<String> changedPaths(ObjectId revObjectId, String tag, Collection<String> paths,
+                                           Repository repository) throws IOException {
+        Repository commonRepository = worktreesFix_getCommonRepository(repository);
+        ObjectId tagCommit = tagCommit(commonRepository, tag);
+        if (revObjectId == null || tagCommit == null) {
+            return new HashSet<>(paths);
+        }
+
+        Set<String> changedPaths = new HashSet<>();
+        try (ObjectReader reader = commonRepository.newObjectReader();
+             RevWalk walk = new RevWalk(reader);
+             TreeWalk treeWalk = new TreeWalk(reader)) {
+            RevTree tagTree = walk.parseCommit(tagCommit).getTree();
+            RevTree revTree = walk.parseCommit(revObjectId).getTree();
+            if (tagTree.equals(revTree)) {
+                return changedPaths;
+            }
+
+            Set<String> pendingPaths = new HashSet<>(paths);
+            if (pendingPaths.remove("")) {
+                changedPaths.add("");
+            }
+            if (pendingPaths.isEmpty()) {
+                return changedPaths;
+            }
+            Set<String> subPaths = new HashSet<>(pendingPaths);
+            treeWalk.setFilter(AndTreeFilter.create(PathFilterGroup.createFromStrings(pendingPaths), TreeFilter.ANY_DIFF));
+            treeWalk.addTree(tagTree);
+            treeWalk.addTree(revTree);
+            while (!pendingPaths.isEmpty() && treeWalk.next()) {
+                String entryPath = treeWalk.getPathString();
+                String entryOwnerPath = ownerPath(entryPath, subPaths);
+                // enter changed parent directories of pending paths, e.g. of nested paths, changes are attributed by their entries
+                if (treeWalk.isSubtree() && containsPath(entryPath, subPaths)
+                        && (pendingPaths.contains(entryOwnerPath) || containsPath(entryPath, pendingPaths))) {
+                    treeWalk.enterSubtree();
+                } else if (entryOwnerPath != null && pendingPaths.remove(entryOwnerPath)) {
+                    changedPaths.add(entryOwnerPath);
+                }
+            }
+        }
+        return changedPaths;
+    }
+
+    /**
+     * @return longest of <code>paths</code> that is <code>path</code> or a parent directory of it, or null if there is none
+     */
+    private static String ownerPath(String path, Set<String> paths) {
+        String ownerPath = path;
+        while (!paths.contains(ownerPath)) {
+            int parentEnd = ownerPath.lastIndexOf('/');
+            if (parentEnd < 0) {
+                return null;
+            }
+            ownerPath = ownerPath.substring(0, parentEnd);
+        }
+        return ownerPath;
+    }
+
+    /**
+     * @return true if one of <code>paths</code> is within directory <code>path</code>
+     */
+    private static boolean containsPath(String path, Set<String> paths) {
+        String pathPrefix = path + '/';
+        return paths.stream().anyMatch(it -> it.startsWith(pathPrefix));
+    }
+
+    /**
+     * @return commit of tag or null if there is no such tag e.g. for <code>root</code> or fallback tags
+     */
+    private static ObjectId tagCommit(Repository repository, String tag) throws IOException {
+        Ref tagRef = repository.getRefDatabase().exactRef(R_TAGS + tag);
+        if (tagRef == null) {
+            return null;
+        }
+        Ref peeledTagRef = repository.getRefDatabase().peel(tagRef);
+        return peeledTagRef.getPeeledObjectId() != null
+                ? peeledTagRef.getPeeledObjectId()
+                : peeledTagRef.getObjectId();
+    }
+
+    /**
+     * Finds the highest version tag reachable from <code>revObjectId</code>, unlike {@link #describe} that finds the nearest tag.
+     * <p>
+     * Tag versions start at the first digit of the tag name e.g. <code>1.2.3</code> of <code>v1.2.3</code>
+     * and are compared like maven versions, tags without version are ignored.
+     * Tags are checked highest version first by a {@link ReachabilityIndex}, the search stops at the first reachable tag.
+     *
+     * @param tagRefPrefixes only tag refs starting with one of these prefixes are considered, e.g. <code>refs/tags/v</code>,
+     *                       they are narrowed further by the literal prefix of <code>tagPattern</code>
+     * @return tag name or null if there is no reachable version tag matching <code>tagPattern</code>
+     */
+    public static String highestTag(ObjectId revObjectId, Pattern tagPattern, Repository repository,
+                                    List<String> tagRefPrefixes) throws IOException {
+        if (revObjectId == null) {
+            return null;
+        }
+        Repository commonRepository = worktreesFix_getCommonRepository(repository);
+
+        List<VersionTag> versionTags = new ArrayList<>();
+        for (Ref tagRef : tags(commonRepository, tagRefPrefixes(tagPattern, tagRefPrefixes))) {
+            String tagName = shortenRefName(tagRef.getName());
+            int versionIndex = indexOfDigit(tagName);
+            if (versionIndex < 0 || !tagPattern.matcher(tagName).matches()) {
+                continue;
+            }
+            Ref peeledTagRef = commonRepository.getRefDatabase().peel(tagRef);
+            ObjectId commit = peeledTagRef.getPeeledObjectId() != null
+                    ? peeledTagRef.getPeeledObjectId()
+                    : peeledTagRef.getObjectId();
+            versionTags.add(new VersionTag(tagName, new DefaultArtifactVersion(tagName.substring(versionIndex)), commit));
+        }
+        // highest version first
+        versionTags.sort(Comparator.<VersionTag, DefaultArtifactVersion>comparing(tag -> tag.version).reversed()
+                .thenComparing(tag -> tag.name));
+
+        try (ReachabilityIndex reachabilityIndex = new ReachabilityIndex(commonRepository, revObjectId);
+             ObjectReader reader = commonRepository.newObjectReader()) {
+            for (VersionTag versionTag : versionTags) {
+                // tags may point at other objects than commits
+                if (reader.open(versionTag.commit).getType() == OBJ_COMMIT && reachabilityIndex.isReachable(versionTag.commit)) {
+                    return versionTag.name;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static int indexOfDigit(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.isDigit(text.charAt(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Describes all commits reachable from <code>head</code> but not from <code>base</code>, like <code>git rev-list base..head</code>,
+     * in one walk.
+     * <p>
+     * Commits are walked in topological order, parents first. For first parent descriptions,
+     * tag and distance are propagated from first parent, only parents outside of the range are described by a separate walk.
+     * Other descriptions can not be propagated, each commit is described by a separate walk.
+     *
+     * @param base     range start, exclusive, or null for all ancestors of <code>head</code>
+     * @param consumer consumer of commit descriptions, parents before children
+     */
+    public static void describeRange(ObjectId head, ObjectId base, Pattern tagPattern, Repository repository, boolean firstParent,
+                                     List<String> tagRefPrefixes, Consumer<GitDescription> consumer) throws IOException {
+        Repository commonRepository = worktreesFix_getCommonRepository(repository);
+        Map<ObjectId, List<String>> objectIdListMap = reverseTagRefMap(repository, tagRefPrefixes(tagPattern, tagRefPrefixes));
+
+        // descriptions of walked commits and of their parents, for first parent propagation
+        Map<ObjectId, GitDescription> descriptions = new HashMap<>();
+        try (RevWalk walk = new RevWalk(commonRepository)) {
+            walk.setRetainBody(false);
+            walk.sort(RevSort.TOPO);
+            walk.sort(RevSort.REVERSE, true);
+            walk.markStart(walk.parseCommit(head));
+            if (base != null) {
+                walk.markUninteresting(walk.parseCommit(base));
+            }
+            for (RevCommit commit : walk) {
+                Optional<String> matchingTag = objectIdListMap.getOrDefault(commit, emptyList()).stream()
                         .filter(tag -> tagPattern.matcher(tag).matches())
                         .findFirst();
 
+                GitDescription description;
                 if (matchingTag.isPresent()) {
-                    return new GitDescription(revObjectId.getName(), matchingTag.get(), depth);
+                    description = new GitDescription(commit.getName(), matchingTag.get(), 0);
+                } else if (!firstParent || commit.getParentCount() == 0) {
+                    description = describe(commit, tagPattern, commonRepository, firstParent, objectIdListMap, DescribeLimits.NONE);
+                } else {
+                    RevCommit parent = commit.getParent(0);
+                    GitDescription parentDescription = descriptions.get(parent);
+                    if (parentDescription == null) {
+                        parentDescription = describe(parent, tagPattern, commonRepository, true, objectIdListMap, DescribeLimits.NONE);
+                        descriptions.put(parent.copy(), parentDescription);
+                    }
+                    description = new GitDescription(commit.getName(), parentDescription.getTag(), parentDescription.getDistance() + 1);
+                }
+                if (firstParent) {
+                    descriptions.put(commit.copy(), description);
+                }
+                consumer.accept(description);
+            }
+        }
+    }
+
+    /**
+     * Counts commits reachable from <code>head</code> but not from <code>base</code>, like <code>git rev-list --count base..head</code>.
+     * <p>
+     * Pack bitmap indexes are used if available, otherwise commit-graph generation numbers are used if available.
+     *
+     * @param base base commit or null to count all commits reachable from <code>head</code>
+     */
+    public static int revCount(Repository repository, ObjectId head, ObjectId base) throws IOException {
+        Repository commonRepository = worktreesFix_getCommonRepository(repository);
+        try (ObjectReader reader = commonRepository.newObjectReader()) {
+            BitmapIndex bitmapIndex = reader.getBitmapIndex();
+            if (bitmapIndex != null) {
+                return bitmapRevCount(reader, bitmapIndex, head, base);
+            }
+            CommitGraph commitGraph = CommitGraphRevCount.commitGraph(commonRepository, reader);
+            if (commitGraph != null) {
+                int count = CommitGraphRevCount.count(commitGraph, reader, head, base);
+                if (count >= 0) {
+                    return count;
                 }
-                depth++;
             }
 
-            if (isShallowRepository(repository)) {
-                throw new IllegalStateException("couldn't find matching tag in shallow git repository");
+            try (RevWalk walk = new RevWalk(reader)) {
+                walk.setRetainBody(false);
+                walk.markStart(walk.parseCommit(head));
+                if (base != null) {
+                    walk.markUninteresting(walk.parseCommit(base));
+                }
+                int count = 0;
+                for (RevCommit ignored : walk) {
+                    count++;
+                }
+                return count;
+            }
+        }
+    }
+
+    private static int bitmapRevCount(ObjectReader reader, BitmapIndex bitmapIndex, ObjectId head, ObjectId base) throws IOException {
+        try (ObjectWalk walk = new ObjectWalk(reader)) {
+            BitmapWalker bitmapWalker = new BitmapWalker(walk, bitmapIndex, NullProgressMonitor.INSTANCE);
+            BitmapBuilder baseBitmap = base != null
+                    ? bitmapWalker.findObjects(singletonList(base), null, true)
+                    : null;
+            BitmapBuilder headBitmap = bitmapWalker.findObjects(singletonList(head), baseBitmap, true);
+            if (baseBitmap != null) {
+                headBitmap.andNot(baseBitmap);
+            }
+            int count = 0;
+            for (BitmapObject object : headBitmap) {
+                if (object.getType() == OBJ_COMMIT) {
+                    count++;
+                }
             }
+            return count;
+        }
+    }
 
-            return new GitDescription(revObjectId.getName(), "root", depth);
+    /**
+     * @return describe hints notes or null if there are no describe hints
+     */
+    private static NoteMap describeHints(Repository repository) throws IOException {
+        Ref describeHintsRef = repository.getRefDatabase().exactRef(DESCRIBE_HINTS_REF);
+        if (describeHintsRef == null) {
+            return null;
+        }
+        try (RevWalk walk = new RevWalk(repository)) {
+            return NoteMap.read(walk.getObjectReader(), walk.parseCommit(describeHintsRef.getObjectId()));
         }
     }
 
+    /**
+     * @return matcher of describe hint of <code>commit</code> or null if there is no valid describe hint
+     */
+    private static Matcher describeHint(Repository repository, NoteMap describeHints, ObjectId commit) throws IOException {
+        if (describeHints == null) {
+            return null;
+        }
+        ObjectId note = describeHints.get(commit);
+        if (note == null) {
+            return null;
+        }
+        String describeHint = new String(repository.open(note, OBJ_BLOB).getCachedBytes(), UTF_8).trim();
+        Matcher describeHintMatcher = DESCRIBE_HINT_PATTERN.matcher(describeHint);
+        return describeHintMatcher.matches() ? describeHintMatcher : null;
+    }
+
+    /**
+     * @param branch branch name e.g. <code>main</code>
+     * @return commit of local branch or of <code>origin</code> remote branch or null if there is no such branch
+     */
+    public static ObjectId branchHead(Repository repository, String branch) throws IOException {
+        for (String branchRefName : asList(Constants.R_HEADS + branch, Constants.R_REMOTES + Constants.DEFAULT_REMOTE_NAME + "/" + branch)) {
+            Ref branchRef = repository.getRefDatabase().exactRef(branchRefName);
+            if (branchRef != null && branchRef.getObjectId() != null) {
+                return branchRef.getObjectId();
+            }
+        }
+        return null;
+    }
+
     public static boolean isShallowRepository(Repository repository) {
         return new File(repository.getDirectory(), "shallow").isFile();
     }
 
     public static List<Ref> tags(Repository repository) throws IOException {
+        return tags(repository, singletonList(R_TAGS));
+    }
+
+    /**
+     * @param tagRefPrefixes only tag refs starting with one of these prefixes are returned, e.g. <code>refs/tags/v</code>
+     */
+    public static List<Ref> tags(Repository repository, List<String> tagRefPrefixes) throws IOException {
+        if (tagRefPrefixes.isEmpty()) {
+            return emptyList();
+        }
         Repository commonRepository = worktreesFix_getCommonRepository(repository);
-        return commonRepository.getRefDatabase().getRefsByPrefix(R_TAGS);
+        return commonRepository.getRefDatabase().getRefsByPrefix(tagRefPrefixes.toArray(new String[0]));
     }
 
     public static Map<ObjectId, List<String>> reverseTagRefMap(Repository repository) throws IOException {
+        return reverseTagRefMap(repository, singletonList(R_TAGS));
+    }
+
+    /**
+     * Reads packed tags by {@link PackedRefs} if possible, so they are already peeled.
+     */
+    public static Map<ObjectId, List<String>> reverseTagRefMap(Repository repository, List<String> tagRefPrefixes) throws IOException {
         Repository commonRepository = worktreesFix_getCommonRepository(repository);
         TagComparator tagComparator = new TagComparator(commonRepository);
-        return tags(commonRepository).stream()
+        List<Ref> tags = tagRefPrefixes.isEmpty() ? emptyList() : packedRefsTags(commonRepository, tagRefPrefixes);
+        if (tags == null) {
+            tags = tags(commonRepository, tagRefPrefixes);
+        }
+        return tags.stream()
                 .collect(groupingBy(r -> {
                     try {
-                        Ref peel = commonRepository.getRefDatabase().peel(r);
+                        Ref peel = r.isPeeled() ? r : commonRepository.getRefDatabase().peel(r);
                         return peel.getPeeledObjectId() != null
                                 ? peel.getPeeledObjectId()
                                 : peel.getObjectId();
@@ -117,6 +781,40 @@ public final class GitUtil {
                 ));
     }
 
+    /**
+     * Narrows tag ref prefixes by the literal prefix of <code>tagPattern</code>, tags without it can never match.
+     *
+     * @return tag ref prefixes, empty if no tag ref can match <code>tagPattern</code>
+     */
+    static List<String> tagRefPrefixes(Pattern tagPattern, List<String> tagRefPrefixes) {
+        String patternTagRefPrefix = R_TAGS + patternLiteralPrefix(tagPattern);
+        List<String> narrowedTagRefPrefixes = new ArrayList<>();
+        for (String tagRefPrefix : tagRefPrefixes) {
+            String narrowedTagRefPrefix = patternTagRefPrefix.startsWith(tagRefPrefix) ? patternTagRefPrefix
+                    : tagRefPrefix.startsWith(patternTagRefPrefix) ? tagRefPrefix
+                    : null;
+            if (narrowedTagRefPrefix != null) {
+                narrowedTagRefPrefixes.add(narrowedTagRefPrefix);
+            }
+        }
+        return normalizeTagRefPrefixes(narrowedTagRefPrefixes);
+    }
+
+    /**
+     * @param tagRefPrefixes tag ref prefixes, full e.g. <code>refs/tags/v</code> or relative to <code>refs/tags/</code> e.g. <code>v</code>
+     * @return full tag ref prefixes, without prefixes covered by other prefixes
+     */
+    public static List<String> normalizeTagRefPrefixes(Collection<String> tagRefPrefixes) {
+        List<String> fullTagRefPrefixes = tagRefPrefixes.stream()
+                .map(tagRefPrefix -> tagRefPrefix.startsWith(R_TAGS) ? tagRefPrefix : R_TAGS + tagRefPrefix)
+                .distinct()
+                .collect(toList());
+        return fullTagRefPrefixes.stream()
+                .filter(tagRefPrefix -> fullTagRefPrefixes.stream().noneMatch(otherTagRefPrefix ->
+                        !otherTagRefPrefix.equals(tagRefPrefix) && tagRefPrefix.startsWith(otherTagRefPrefix)))
+                .collect(toList());
+    }
+
     public static ZonedDateTime revTimestamp(Repository repository, ObjectId rev) throws IOException {
         Repository commonRepository = worktreesFix_getCommonRepository(repository);
         Instant commitTime = Instant.ofEpochSecond(commonRepository.parseCommit(rev).getCommitTime());
@@ -140,7 +838,7 @@ public final class GitUtil {
     }
 
     /**
-     * @return common repository
+     * @return common repository, shared by {@link GitRepositoryPool} for linked work trees
      */
     public static Repository worktreesFix_getCommonRepository(Repository repository) throws IOException {
         try {
@@ -154,7 +852,7 @@ public final class GitUtil {
 
             String commonDirPath = Files.readAllLines(commonDirFile.toPath()).get(0);
             File commonGitDir = new File(repository.getDirectory(), commonDirPath);
-            return new FileRepositoryBuilder().setGitDir(commonGitDir).build();
+            return GitRepositoryPool.open(commonGitDir);
         }
     }
 
@@ -186,4 +884,16 @@ public final class GitUtil {
             return repository.resolve(head);
         }
     }
+
+    private static final class VersionTag {
+        final String name;
+        final DefaultArtifactVersion version;
+        final ObjectId commit;
+
+        VersionTag(String name, DefaultArtifactVersion version, ObjectId commit) {
+            this.name = name;
+            this.version = version;
+            this.commit = commit;
+        }
+    }
 }
@@ -0,0 +1,94 @@
+package me.qoomon.gitversioning.commons;
+
+import org.eclipse.jgit.lib.AnyObjectId;
+
+/**
+ * Compact set of object ids, stored as primitive ints in an open addressing hash table.
+ * <p>
+ * Needs 20 to 40 bytes per object id, depending on load, a {@link java.util.HashSet} of object ids needs more than 100 bytes.
+ */
+final class ObjectIdHashSet {
+
+    // object id consists of 5 ints
+    private static final int ID_INTS = 5;
+
+    private int[] table;
+    private int capacity;
+    private int size;
+
+    ObjectIdHashSet() {
+        this(1024);
+    }
+
+    ObjectIdHashSet(int initialCapacity) {
+        capacity = Integer.highestOneBit(Math.max(initialCapacity, 16) - 1) << 1;
+        table = new int[capacity * ID_INTS];
+    }
+
+    /**
+     * @param objectId object id, must not be the zero id
+     * @return true if <code>objectId</code> was not contained yet
+     */
+    boolean add(AnyObjectId objectId) {
+        if (size + 1 > capacity / 4 * 3) {
+            resize(capacity * 2);
+        }
+
+        final int[] id = new int[ID_INTS];
+        objectId.copyRawTo(id, 0);
+        final int slot = slot(table, capacity, id);
+        if (!isEmpty(table, slot)) {
+            return false;
+        }
+        System.arraycopy(id, 0, table, slot * ID_INTS, ID_INTS);
+        size++;
+        return true;
+    }
+
+    boolean contains(AnyObjectId objectId) {
+        final int[] id = new int[ID_INTS];
+        objectId.copyRawTo(id, 0);
+        return !isEmpty(table, slot(table, capacity, id));
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void resize(int newCapacity) {
+        final int[] newTable = new int[newCapacity * ID_INTS];
+        final int[] id = new int[ID_INTS];
+        for (int slot = 0; slot < capacity; slot++) {
+            if (!isEmpty(table, slot)) {
+                System.arraycopy(table, slot * ID_INTS, id, 0, ID_INTS);
+                System.arraycopy(id, 0, newTable, slot(newTable, newCapacity, id) * ID_INTS, ID_INTS);
+            }
+        }
+        table = newTable;
+        capacity = newCapacity;
+    }
+
+    /**
+     * @return slot of <code>id</code> or first empty slot of its probe sequence
+     */
+    private static int slot(int[] table, int capacity, int[] id) {
+        // object ids are uniformly distributed, second int like AnyObjectId.hashCode()
+        int slot = id[1] & (capacity - 1);
+        while (!isEmpty(table, slot) && !equals(table, slot, id)) {
+            slot = (slot + 1) & (capacity - 1);
+        }
+        return slot;
+    }
+
+    private static boolean isEmpty(int[] table, int slot) {
+        final int offset = slot * ID_INTS;
+        return table[offset] == 0 && table[offset + 1] == 0 && table[offset + 2] == 0
+                && table[offset + 3] == 0 && table[offset + 4] == 0;
+    }
+
+    private static boolean equals(int[] table, int slot, int[] id) {
+        final int offset = slot * ID_INTS;
+        return table[offset] == id[0] && table[offset + 1] == id[1] && table[offset + 2] == id[2]
+                && table[offset + 3] == id[3] && table[offset + 4] == id[4];
+    }
+}
@@ -0,0 +1,256 @@
+package me.qoomon.gitversioning.commons;
+
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectIdRef;
+import org.eclipse.jgit.lib.Ref;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.READ;
+import static org.eclipse.jgit.lib.Ref.Storage.PACKED;
+
+/**
+ * Read-only <code>packed-refs</code> file.
+ * <p>
+ * Refs are read directly from the file content, without materializing all of them.
+ * Sorted files (<code>sorted</code> trait) are searched by binary search,
+ * peeled object ids are taken from <code>^</code> lines (<code>peeled</code> trait).
+ * <p>
+ * Loose refs are not considered, they take precedence over packed refs.
+ */
+public final class PackedRefs {
+
+    private static final String HEADER = "# pack-refs with:";
+    private static final int OBJECT_ID_LENGTH = 40;
+
+    /**
+     * Files up to this size are read into heap.
+     * Larger files are memory mapped, a mapping is released on garbage collection only,
+     * until then the file can not be replaced on Windows, e.g. by <code>git pack-refs</code>.
+     */
+    static final long MAP_THRESHOLD = 16 * 1024 * 1024;
+
+    private final ByteBuffer buffer;
+    private final int dataStart;
+    private final boolean sorted;
+
+    private PackedRefs(ByteBuffer buffer, int dataStart, boolean sorted) {
+        this.buffer = buffer;
+        this.dataStart = dataStart;
+        this.sorted = sorted;
+    }
+
+    /**
+     * @param gitDir common git directory
+     * @return packed refs or null if there is no <code>packed-refs</code> file or if it has no peeled refs
+     * @throws IOException IOException
+     */
+    public static PackedRefs read(File gitDir) throws IOException {
+        return read(gitDir, MAP_THRESHOLD);
+    }
+
+    /**
+     * @param mapThreshold files larger than this size are memory mapped
+     */
+    static PackedRefs read(File gitDir, long mapThreshold) throws IOException {
+        final File packedRefsFile = new File(gitDir, "packed-refs");
+        if (!packedRefsFile.isFile()) {
+            return null;
+        }
+
+        final ByteBuffer buffer;
+        if (packedRefsFile.length() <= mapThreshold) {
+            buffer = ByteBuffer.wrap(Files.readAllBytes(packedRefsFile.toPath()));
+        } else {
+            try (FileChannel channel = FileChannel.open(packedRefsFile.toPath(), READ)) {
+                // mapping stays valid after channel is closed
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        }
+
+        int dataStart = 0;
+        boolean peeled = false;
+        boolean sorted = false;
+        if (buffer.limit() > 0 && buffer.get(0) == '#') {
+            dataStart = lineEnd(buffer, 0) + 1;
+            final String header = string(buffer, 0, dataStart - 1, US_ASCII);
+            if (header.startsWith(HEADER)) {
+                for (String trait : header.substring(HEADER.length()).trim().split(" +")) {
+                    peeled |= trait.equals("peeled") || trait.equals("fully-peeled");
+                    sorted |= trait.equals("sorted");
+                }
+            }
+        }
+        if (!peeled) {
+            // annotated tags can not be peeled without repository
+            return null;
+        }
+        return new PackedRefs(buffer, dataStart, sorted);
+    }
+
+    /**
+     * @param prefix   ref name prefix e.g. <code>refs/tags/</code>
+     * @param consumer consumer of refs starting with <code>prefix</code>, in file order
+     */
+    public void forEachRef(String prefix, RefConsumer consumer) {
+        final byte[] prefixBytes = prefix.getBytes(UTF_8);
+        int record = sorted ? lowerBound(prefixBytes) : dataStart;
+        while (record < buffer.limit()) {
+            final int nameStart = record + OBJECT_ID_LENGTH + 1;
+            final int nameEnd = lineEnd(buffer, nameStart);
+            final int nextRecord = nextRecord(record);
+            if (startsWith(nameStart, nameEnd, prefixBytes)) {
+                final ObjectId objectId = objectId(record);
+                final ObjectId peeledObjectId = nameEnd + 1 < nextRecord ? objectId(nameEnd + 2) : null;
+                consumer.accept(string(buffer, nameStart, nameEnd, UTF_8), objectId, peeledObjectId);
+            } else if (sorted) {
+                break;
+            }
+            record = nextRecord;
+        }
+    }
+
+    /**
+     * @param prefix   ref name prefix e.g. <code>refs/tags/</code>
+     * @param objectId object id
+     * @return refs starting with <code>prefix</code> and pointing at <code>objectId</code>, peeled if possible
+     */
+    public List<Ref> refsPointingAt(String prefix, AnyObjectId objectId) {
+        final byte[] prefixBytes = prefix.getBytes(UTF_8);
+        final byte[] objectIdBytes = objectId.name().getBytes(US_ASCII);
+        final List<Ref> refs = new ArrayList<>();
+        int record = sorted ? lowerBound(prefixBytes) : dataStart;
+        while (record < buffer.limit()) {
+            final int nameStart = record + OBJECT_ID_LENGTH + 1;
+            final int nameEnd = lineEnd(buffer, nameStart);
+            final int nextRecord = nextRecord(record);
+            if (startsWith(nameStart, nameEnd, prefixBytes)) {
+                // compare hex ids in place, only matching refs are materialized
+                final boolean annotated = nameEnd + 1 < nextRecord;
+                if (equals(annotated ? nameEnd + 2 : record, objectIdBytes)) {
+                    final String name = string(buffer, nameStart, nameEnd, UTF_8);
+                    refs.add(annotated
+                            ? new ObjectIdRef.PeeledTag(PACKED, name, objectId(record), objectId(nameEnd + 2))
+                            : new ObjectIdRef.PeeledNonTag(PACKED, name, objectId(record)));
+                }
+            } else if (sorted) {
+                break;
+            }
+            record = nextRecord;
+        }
+        return refs;
+    }
+
+    /**
+     * @return start of first record with name greater than or equal to <code>prefix</code>
+     */
+    private int lowerBound(byte[] prefix) {
+        int low = dataStart;
+        int high = buffer.limit();
+        while (low < high) {
+            final int middle = recordStart(low + (high - low) / 2);
+            if (compareName(middle, prefix) < 0) {
+                low = nextRecord(middle);
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return start of record containing <code>position</code>
+     */
+    private int recordStart(int position) {
+        int lineStart = position;
+        while (lineStart > dataStart && buffer.get(lineStart - 1) != '\n') {
+            lineStart--;
+        }
+        if (buffer.get(lineStart) == '^') {
+            return recordStart(lineStart - 1);
+        }
+        return lineStart;
+    }
+
+    private int nextRecord(int record) {
+        int next = lineEnd(buffer, record) + 1;
+        while (next < buffer.limit() && buffer.get(next) == '^') {
+            next = lineEnd(buffer, next) + 1;
+        }
+        return next;
+    }
+
+    private int compareName(int record, byte[] prefix) {
+        final int nameStart = record + OBJECT_ID_LENGTH + 1;
+        final int nameEnd = lineEnd(buffer, nameStart);
+        for (int i = 0; i < prefix.length; i++) {
+            if (nameStart + i >= nameEnd) {
+                return -1;
+            }
+            final int difference = (buffer.get(nameStart + i) & 0xFF) - (prefix[i] & 0xFF);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return 0;
+    }
+
+    private boolean startsWith(int start, int end, byte[] prefix) {
+        if (end - start < prefix.length) {
+            return false;
+        }
+        return equals(start, prefix);
+    }
+
+    private boolean equals(int start, byte[] bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (buffer.get(start + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private ObjectId objectId(int start) {
+        return ObjectId.fromString(bytes(buffer, start, start + OBJECT_ID_LENGTH), 0);
+    }
+
+    private static int lineEnd(ByteBuffer buffer, int position) {
+        int lineEnd = position;
+        while (lineEnd < buffer.limit() && buffer.get(lineEnd) != '\n') {
+            lineEnd++;
+        }
+        return lineEnd;
+    }
+
+    private static String string(ByteBuffer buffer, int start, int end, Charset charset) {
+        return new String(bytes(buffer, start, end), charset);
+    }
+
+    private static byte[] bytes(ByteBuffer buffer, int start, int end) {
+        final byte[] bytes = new byte[end - start];
+        // absolute bulk get requires java 13
+        buffer.duplicate().position(start).get(bytes);
+        return bytes;
+    }
+
+    @FunctionalInterface
+    public interface RefConsumer {
+        /**
+         * @param name           full ref name
+         * @param objectId       ref object id
+         * @param peeledObjectId peeled object id or null if ref does not point to an annotated tag
+         */
+        void accept(String name, ObjectId objectId, ObjectId peeledObjectId);
+    }
+}
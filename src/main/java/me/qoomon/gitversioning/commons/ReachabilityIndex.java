@@ -0,0 +1,127 @@
+package me.qoomon.gitversioning.commons;
+
+import org.eclipse.jgit.internal.storage.commitgraph.CommitGraph;
+import org.eclipse.jgit.lib.BitmapIndex;
+import org.eclipse.jgit.lib.BitmapIndex.BitmapBuilder;
+import org.eclipse.jgit.lib.NullProgressMonitor;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.BitmapWalker;
+import org.eclipse.jgit.revwalk.ObjectWalk;
+
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.PriorityQueue;
+
+import static java.util.Collections.singletonList;
+
+/**
+ * Answers whether commits are reachable from a head commit, like <code>git merge-base --is-ancestor commit head</code>.
+ * <p>
+ * Pack bitmap indexes are used if available, the head bitmap is built once.
+ * Otherwise the history of head is walked incrementally and walked commits are kept for subsequent queries.
+ * With commit-graph generation numbers, the walk stops as soon as all pending commits are older than the queried commit,
+ * so commits that are not reachable are rejected without walking the whole history.
+ */
+final class ReachabilityIndex implements AutoCloseable {
+
+    private final ObjectReader reader;
+
+    private BitmapBuilder headBitmap;
+
+    private CommitGraphRevCount graph;
+    private BitSet reachedNodes;
+    private PriorityQueue<Long> pendingNodes;
+
+    private CommitWalk walk;
+    private ObjectIdHashSet reachedCommits;
+
+    ReachabilityIndex(Repository repository, ObjectId head) throws IOException {
+        this.reader = repository.newObjectReader();
+        try {
+            final BitmapIndex bitmapIndex = reader.getBitmapIndex();
+            if (bitmapIndex != null) {
+                try (ObjectWalk objectWalk = new ObjectWalk(reader)) {
+                    headBitmap = new BitmapWalker(objectWalk, bitmapIndex, NullProgressMonitor.INSTANCE)
+                            .findObjects(singletonList(head), null, true);
+                }
+                return;
+            }
+
+            final CommitGraph commitGraph = CommitGraphRevCount.commitGraph(repository, reader);
+            if (commitGraph != null) {
+                graph = new CommitGraphRevCount(commitGraph, reader);
+                final int headNode = graph.resolve(head);
+                if (headNode >= 0) {
+                    reachedNodes = new BitSet();
+                    reachedNodes.set(headNode);
+                    pendingNodes = new PriorityQueue<>();
+                    pendingNodes.add(graph.queueKey(headNode));
+                    return;
+                }
+                // commit-graph has no generation numbers
+                graph = null;
+            }
+
+            walk = new CommitWalk(repository, false);
+            walk.markStart(head);
+            reachedCommits = new ObjectIdHashSet();
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    boolean isReachable(ObjectId commit) throws IOException {
+        if (headBitmap != null) {
+            return headBitmap.contains(commit);
+        }
+        if (graph != null) {
+            return isReachableNode(commit);
+        }
+        return isReachableCommit(commit);
+    }
+
+    private boolean isReachableNode(ObjectId commit) throws IOException {
+        final int node = graph.resolve(commit);
+        if (node < 0) {
+            return false;
+        }
+        final int generation = graph.generation(node);
+        // pending commits with a generation not above the commit's generation can not reach it
+        while (!reachedNodes.get(node) && !pendingNodes.isEmpty()
+                && graph.generation((int) (pendingNodes.peek() & 0xFFFFFFFFL)) > generation) {
+            final int pendingNode = (int) (pendingNodes.poll() & 0xFFFFFFFFL);
+            for (int parent : graph.parents(pendingNode)) {
+                if (!reachedNodes.get(parent)) {
+                    reachedNodes.set(parent);
+                    pendingNodes.add(graph.queueKey(parent));
+                }
+            }
+        }
+        return reachedNodes.get(node);
+    }
+
+    private boolean isReachableCommit(ObjectId commit) throws IOException {
+        if (reachedCommits.contains(commit)) {
+            return true;
+        }
+        ObjectId reachedCommit;
+        while ((reachedCommit = walk.next()) != null) {
+            reachedCommits.add(reachedCommit);
+            if (reachedCommit.equals(commit)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void close() {
+        if (walk != null) {
+            walk.close();
+        }
+        reader.close();
+    }
+}
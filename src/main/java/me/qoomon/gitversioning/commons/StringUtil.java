@@ -4,16 +4,25 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import static java.util.Collections.unmodifiableSet;
+
 public final class StringUtil {
 
+    private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("\\$\\{(?<key>[^}:]+)(?::(?<modifier>[-+])(?<value>[^}]*))?}");
+
+    private static final Pattern GROUP_NAME_PATTERN = Pattern.compile("\\(\\?<(?<name>[a-zA-Z][a-zA-Z0-9]*)>");
+
+    // group names by pattern regex
+    private static final Map<String, Set<String>> PATTERN_GROUP_NAMES = new ConcurrentHashMap<>();
+
     public static String substituteText(String text, Map<String, Supplier<String>> replacements) {
         StringBuffer result = new StringBuffer();
-        Pattern placeholderPattern = Pattern.compile("\\$\\{(?<key>[^}:]+)(?::(?<modifier>[-+])(?<value>[^}]*))?}");
-        Matcher placeholderMatcher = placeholderPattern.matcher(text);
+        Matcher placeholderMatcher = PLACEHOLDER_PATTERN.matcher(text);
         while (placeholderMatcher.find()) {
             String placeholderKey = placeholderMatcher.group("key");
             Supplier<String> replacementSupplier = replacements.get(placeholderKey);
@@ -77,18 +86,93 @@ public final class StringUtil {
         return pattern.matcher("").groupCount();
     }
 
+    /**
+     * @param pattern pattern
+     * @return unmodifiable set of group names, parsed once per pattern regex
+     */
     public static Set<String> patternGroupNames(Pattern pattern) {
-        Set<String> groups = new HashSet<>();
+        return PATTERN_GROUP_NAMES.computeIfAbsent(pattern.pattern(), regex -> {
+            Set<String> groups = new HashSet<>();
 
-        // group names
-        Pattern groupNamePattern = Pattern.compile("\\(\\?<(?<name>[a-zA-Z][a-zA-Z0-9]*)>");
-        Matcher groupNameMatcher = groupNamePattern.matcher(pattern.toString());
-        while (groupNameMatcher.find()) {
-            String groupName = groupNameMatcher.group("name");
-            groups.add(groupName);
+            // group names
+            Matcher groupNameMatcher = GROUP_NAME_PATTERN.matcher(regex);
+            while (groupNameMatcher.find()) {
+                String groupName = groupNameMatcher.group("name");
+                groups.add(groupName);
+            }
+
+            return unmodifiableSet(groups);
+        });
+    }
+
+    /**
+     * Determines the literal prefix every text has to start with to be matched by <code>pattern</code>.
+     *
+     * @param pattern pattern
+     * @return literal prefix, an empty string if no literal prefix can be determined
+     */
+    public static String patternLiteralPrefix(Pattern pattern) {
+        if (pattern.flags() != 0) {
+            return "";
+        }
+        final String regex = pattern.pattern();
+        if (hasTopLevelAlternation(regex)) {
+            return "";
         }
 
-        return groups;
+        final StringBuilder prefix = new StringBuilder();
+        int index = regex.startsWith("^") ? 1 : 0;
+        while (index < regex.length()) {
+            char character = regex.charAt(index);
+            if (character == '\\') {
+                // escaped non-alphanumeric characters are literals, anything else is a construct e.g. \d or \Q
+                if (index + 1 >= regex.length() || Character.isLetterOrDigit(regex.charAt(index + 1))) {
+                    break;
+                }
+                character = regex.charAt(index + 1);
+                index += 2;
+            } else if (".[](){}*+?^$|".indexOf(character) >= 0) {
+                break;
+            } else {
+                index++;
+            }
+
+            // a quantified character is not part of the prefix
+            if (index < regex.length() && "*+?{".indexOf(regex.charAt(index)) >= 0) {
+                break;
+            }
+            prefix.append(character);
+        }
+        return prefix.toString();
     }
 
+    private static boolean hasTopLevelAlternation(String regex) {
+        int depth = 0;
+        boolean characterClass = false;
+        for (int index = 0; index < regex.length(); index++) {
+            char character = regex.charAt(index);
+            if (character == '\\') {
+                if (index + 1 < regex.length() && regex.charAt(index + 1) == 'Q') {
+                    // quoted section is literal up to \E, e.g. ( or | of a\Q(\E|b
+                    final int quoteEnd = regex.indexOf("\\E", index + 2);
+                    index = quoteEnd >= 0 ? quoteEnd + 1 : regex.length();
+                } else {
+                    index++;
+                }
+            } else if (characterClass) {
+                if (character == ']') {
+                    characterClass = false;
+                }
+            } else if (character == '[') {
+                characterClass = true;
+            } else if (character == '(') {
+                depth++;
+            } else if (character == ')') {
+                depth--;
+            } else if (character == '|' && depth == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -0,0 +1,62 @@
+package me.qoomon.maven.gitversioning;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resolves canonical paths of files, while each directory is canonicalized only once.
+ */
+final class CanonicalPathResolver {
+
+    private final Map<File, Path> canonicalDirectories = new HashMap<>();
+
+    /**
+     * @param file file or directory
+     * @return canonical path of <code>file</code>
+     * @throws IOException IOException
+     * @see File#getCanonicalPath()
+     */
+    Path canonicalPath(File file) throws IOException {
+        final File absoluteFile = file.getAbsoluteFile();
+        final File directory = absoluteFile.getParentFile();
+        final String fileName = absoluteFile.getName();
+        if (directory == null || fileName.isEmpty() || fileName.equals(".") || fileName.equals("..")
+                // symbolic links need to be resolved by itself
+                || Files.isSymbolicLink(absoluteFile.toPath())) {
+            return absoluteFile.getCanonicalFile().toPath();
+        }
+        return canonicalDirectory(directory).resolve(fileName);
+    }
+
+    /**
+     * @param file file or directory
+     * @return canonical file of <code>file</code>
+     * @throws IOException IOException
+     * @see File#getCanonicalFile()
+     */
+    File canonicalFile(File file) throws IOException {
+        return canonicalPath(file).toFile();
+    }
+
+    private Path canonicalDirectory(File directory) throws IOException {
+        Path canonicalDirectory = canonicalDirectories.get(directory);
+        if (canonicalDirectory == null) {
+            canonicalDirectory = directory.getCanonicalFile().toPath();
+            canonicalDirectories.put(directory, canonicalDirectory);
+        }
+        return canonicalDirectory;
+    }
+
+    /**
+     * @param path      canonical path
+     * @param directory canonical directory path
+     * @return true if <code>path</code> is located within <code>directory</code>
+     */
+    static boolean isWithin(Path path, Path directory) {
+        return path.startsWith(directory) && !path.equals(directory);
+    }
+}
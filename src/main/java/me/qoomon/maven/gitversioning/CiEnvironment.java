@@ -0,0 +1,122 @@
+package me.qoomon.maven.gitversioning;
+
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.time.ZoneOffset.UTC;
+
+/**
+ * Git situation provided by CI environment variables.
+ * <p>
+ * Supported are GitHub Actions, GitLab CI, Circle CI and Jenkins.
+ */
+final class CiEnvironment {
+
+    /**
+     * human readable source of git situation, e.g. <code>GitHub Actions environment variable: GITHUB_REF</code>
+     */
+    final String description;
+    /**
+     * relevant environment variables
+     */
+    final Map<String, String> variables = new LinkedHashMap<>();
+
+    String rev;
+    String branch;
+    String tag;
+    /**
+     * commit timestamp, null if not provided
+     */
+    ZonedDateTime timestamp;
+
+    private CiEnvironment(String description) {
+        this.description = description;
+    }
+
+    static CiEnvironment detect() {
+        return detect(System.getenv());
+    }
+
+    /**
+     * @param env environment variables
+     * @return CI environment or null if none of the supported CI environments is present
+     */
+    static CiEnvironment detect(Map<String, String> env) {
+        // GitHub Actions support
+        if ("true".equalsIgnoreCase(env.get("GITHUB_ACTIONS"))) {
+            CiEnvironment ciEnvironment = new CiEnvironment("GitHub Actions environment variable: GITHUB_REF");
+            ciEnvironment.rev = env.get("GITHUB_SHA");
+            String githubRef = ciEnvironment.variable(env, "GITHUB_REF");
+            if (githubRef != null) {
+                if (githubRef.startsWith("refs/tags/")) {
+                    ciEnvironment.tag = githubRef;
+                } else {
+                    ciEnvironment.branch = githubRef;
+                }
+            }
+            return ciEnvironment;
+        }
+
+        // GitLab CI support
+        if ("true".equalsIgnoreCase(env.get("GITLAB_CI"))) {
+            CiEnvironment ciEnvironment = new CiEnvironment("GitLab CI environment variables: CI_COMMIT_BRANCH, CI_MERGE_REQUEST_SOURCE_BRANCH_NAME and CI_COMMIT_TAG");
+            ciEnvironment.rev = env.get("CI_COMMIT_SHA");
+            String commitBranch = ciEnvironment.variable(env, "CI_COMMIT_BRANCH");
+            String commitTag = ciEnvironment.variable(env, "CI_COMMIT_TAG");
+            String mrSourceBranch = ciEnvironment.variable(env, "CI_MERGE_REQUEST_SOURCE_BRANCH_NAME");
+            if (commitBranch != null) {
+                ciEnvironment.branch = commitBranch;
+            } else if (mrSourceBranch != null) {
+                ciEnvironment.branch = mrSourceBranch;
+            } else if (commitTag != null) {
+                ciEnvironment.tag = commitTag;
+            }
+            String commitTimestamp = env.get("CI_COMMIT_TIMESTAMP");
+            if (commitTimestamp != null && !commitTimestamp.trim().isEmpty()) {
+                ciEnvironment.timestamp = ZonedDateTime.parse(commitTimestamp.trim()).withZoneSameInstant(UTC);
+            }
+            return ciEnvironment;
+        }
+
+        // Circle CI support
+        if ("true".equalsIgnoreCase(env.get("CIRCLECI"))) {
+            CiEnvironment ciEnvironment = new CiEnvironment("Circle CI environment variables: CIRCLE_BRANCH and CIRCLE_TAG");
+            ciEnvironment.rev = env.get("CIRCLE_SHA1");
+            String commitBranch = ciEnvironment.variable(env, "CIRCLE_BRANCH");
+            String commitTag = ciEnvironment.variable(env, "CIRCLE_TAG");
+            if (commitBranch != null) {
+                ciEnvironment.branch = commitBranch;
+            } else if (commitTag != null) {
+                ciEnvironment.tag = commitTag;
+            }
+            return ciEnvironment;
+        }
+
+        // Jenkins support
+        if (env.get("JENKINS_HOME") != null && !env.get("JENKINS_HOME").trim().isEmpty()) {
+            CiEnvironment ciEnvironment = new CiEnvironment("jenkins environment variables: BRANCH_NAME and TAG_NAME");
+            ciEnvironment.rev = env.get("GIT_COMMIT");
+            String commitBranch = ciEnvironment.variable(env, "BRANCH_NAME");
+            String commitTag = ciEnvironment.variable(env, "TAG_NAME");
+            if (commitBranch != null) {
+                if (commitBranch.equals(commitTag)) {
+                    ciEnvironment.tag = commitBranch;
+                } else {
+                    ciEnvironment.branch = commitBranch;
+                }
+            } else if (commitTag != null) {
+                ciEnvironment.tag = commitTag;
+            }
+            return ciEnvironment;
+        }
+
+        return null;
+    }
+
+    private String variable(Map<String, String> env, String name) {
+        String value = env.get(name);
+        variables.put(name, value);
+        return value;
+    }
+}
@@ -16,6 +16,7 @@ import me.qoomon.gitversioning.commons.GitRefType;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Pattern;
@@ -36,11 +37,10 @@ public class Configuration {
     @JsonDeserialize(using = IgnoreWhitespaceDeserializer.class)
     public String projectVersionPattern = null;
 
+    private Pattern compiledProjectVersionPattern;
+
     public Pattern projectVersionPattern() {
-        if(projectVersionPattern == null) {
-            return null;
-        }
-        return Pattern.compile(projectVersionPattern);
+        return compiledProjectVersionPattern = compilePattern(projectVersionPattern, compiledProjectVersionPattern);
     }
 
     @JsonDeserialize(using = IgnoreWhitespaceDeserializer.class)
@@ -48,15 +48,61 @@ public class Configuration {
 
     public Boolean describeTagFirstParent = true;
 
-    public Pattern describeTagPattern() {
-        if(describeTagPattern == null) {
-            return null;
+    /**
+     * additional describe tag patterns by name, e.g. for <code>${describe[NAME].tag}</code> placeholders
+     */
+    @JsonInclude(NON_EMPTY)
+    public Map<String, String> describeTagPatterns = new LinkedHashMap<>();
+
+    private Map<String, String> compiledDescribeTagPatternsSource;
+    private Map<String, Pattern> compiledDescribeTagPatterns;
+
+    public Map<String, Pattern> describeTagPatterns() {
+        if (compiledDescribeTagPatterns == null || !describeTagPatterns.equals(compiledDescribeTagPatternsSource)) {
+            final Map<String, Pattern> patterns = new LinkedHashMap<>();
+            describeTagPatterns.forEach((name, pattern) -> patterns.put(name, compilePattern(pattern,
+                    compiledDescribeTagPatterns != null ? compiledDescribeTagPatterns.get(name) : null)));
+            compiledDescribeTagPatternsSource = new LinkedHashMap<>(describeTagPatterns);
+            compiledDescribeTagPatterns = patterns;
         }
-        return Pattern.compile(describeTagPattern);
+        return compiledDescribeTagPatterns;
+    }
+
+    /**
+     * maximum distance of a matching describe tag, null for unlimited
+     */
+    public Integer describeMaxDepth = null;
+
+    /**
+     * maximum describe duration in milliseconds, null for unlimited
+     */
+    public Long describeTimeout = null;
+
+    /**
+     * describe tag, if describe is truncated by <code>describeMaxDepth</code> or <code>describeTimeout</code>
+     */
+    public String describeFallbackTag = null;
+
+    private Pattern compiledDescribeTagPattern;
+
+    public Pattern describeTagPattern() {
+        return compiledDescribeTagPattern = compilePattern(describeTagPattern, compiledDescribeTagPattern);
     }
 
     public Boolean updatePom = false;
 
+    /**
+     * main branch for <code>${branch.distance}</code>, default is <code>main</code> or <code>master</code>
+     */
+    public String mainBranch = null;
+
+    /**
+     * tag ref prefixes to consider, e.g. <code>v</code> or <code>refs/tags/v</code>, empty for all tags
+     */
+    @JsonInclude(NON_EMPTY)
+    @JacksonXmlElementWrapper
+    public List<String> tagRefPrefixes = new ArrayList<>();
+
     public RefPatchDescriptionList refs = new RefPatchDescriptionList();
 
     public PatchDescription rev;
@@ -66,22 +112,89 @@ public class Configuration {
     @JsonProperty(required = true)
     public List<RelatedProject> relatedProjects = new ArrayList<>();
 
+    public JGitConfig jgit = new JGitConfig();
+
+    @JsonInclude(NON_NULL)
+    public static class JGitConfig {
+
+        /**
+         * if true, system and user git config is not loaded
+         */
+        public Boolean hermetic;
+
+        public FileStoreAttributesMode fileStoreAttributes;
+
+        /**
+         * JGit time unit format e.g. <code>10 milliseconds</code>
+         */
+        public String timestampResolution;
+
+        /**
+         * JGit time unit format e.g. <code>10 milliseconds</code>
+         */
+        public String minRacyThreshold;
+
+        /**
+         * JGit config file to persist measured file store attributes, relative to <code>.mvn</code> directory
+         */
+        public String fileStoreAttributesCache;
+
+        public Boolean packedGitMmap;
+
+        /**
+         * JGit size format e.g. <code>64k</code>
+         */
+        public String packedGitWindowSize;
+
+        /**
+         * JGit size format e.g. <code>256m</code>
+         */
+        public String packedGitLimit;
+
+        /**
+         * JGit size format e.g. <code>64m</code>
+         */
+        public String deltaBaseCacheLimit;
+
+        /**
+         * JGit size format e.g. <code>64m</code>
+         */
+        public String streamFileThreshold;
+    }
+
+    public enum FileStoreAttributesMode {
+        /**
+         * measure file store attributes on first access, JGit default
+         */
+        MEASURE,
+        /**
+         * measure file store attributes in background, fallback values are used meanwhile
+         */
+        BACKGROUND,
+        /**
+         * no measurement, use configured or fallback values
+         */
+        STATIC
+    }
+
     @JsonInclude(NON_NULL)
     public static class PatchDescription {
 
         @JsonDeserialize(using = IgnoreWhitespaceDeserializer.class)
         public String describeTagPattern;
 
+        private Pattern compiledDescribeTagPattern;
+
         public Pattern describeTagPattern() {
-            if(describeTagPattern == null) {
-                return null;
-            }
-            return Pattern.compile(describeTagPattern);
+            return compiledDescribeTagPattern = compilePattern(describeTagPattern, compiledDescribeTagPattern);
         }
 
         @JsonDeserialize(using = IgnoreWhitespaceDeserializer.class)
         public String version;
 
+        @JsonDeserialize(using = IgnoreWhitespaceDeserializer.class)
+        public String unchangedModuleVersion;
+
         @JsonInclude(NON_EMPTY)
         @JacksonXmlElementWrapper(useWrapping = false)
         // TODO  @JsonDeserialize(using = IgnoreWhitespaceDeserializer.class)
@@ -106,11 +219,10 @@ public class Configuration {
         @JsonDeserialize(using = IgnoreWhitespaceDeserializer.class)
         public String pattern;
 
+        private Pattern compiledPattern;
+
         public Pattern pattern() {
-            if(pattern == null) {
-                return null;
-            }
-            return Pattern.compile(pattern);
+            return compiledPattern = compilePattern(pattern, compiledPattern);
         }
 
         public RefPatchDescription() {
@@ -123,6 +235,7 @@ public class Configuration {
             this.updatePom = description.updatePom;
             this.describeTagFirstParent = description.describeTagFirstParent;
             this.version = description.version;
+            this.unchangedModuleVersion = description.unchangedModuleVersion;
             this.properties = new HashMap<>(description.properties);
         }
     }
@@ -156,6 +269,20 @@ public class Configuration {
         }
     }
 
+    /**
+     * @param regex           regex, may be null
+     * @param compiledPattern previously compiled pattern, may be null
+     * @return <code>compiledPattern</code> if it was compiled from <code>regex</code>, otherwise a newly compiled pattern
+     */
+    private static Pattern compilePattern(String regex, Pattern compiledPattern) {
+        if (regex == null) {
+            return null;
+        }
+        if (compiledPattern != null && compiledPattern.pattern().equals(regex)) {
+            return compiledPattern;
+        }
+        return Pattern.compile(regex);
+    }
 
     public static class IgnoreWhitespaceDeserializer extends JsonDeserializer<Object> {
         @Override
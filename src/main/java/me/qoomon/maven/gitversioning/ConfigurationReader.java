@@ -0,0 +1,304 @@
+package me.qoomon.maven.gitversioning;
+
+import me.qoomon.gitversioning.commons.GitRefType;
+import me.qoomon.maven.gitversioning.Configuration.FileStoreAttributesMode;
+import me.qoomon.maven.gitversioning.Configuration.JGitConfig;
+import me.qoomon.maven.gitversioning.Configuration.PatchDescription;
+import me.qoomon.maven.gitversioning.Configuration.RefPatchDescription;
+import me.qoomon.maven.gitversioning.Configuration.RelatedProject;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+
+/**
+ * Reads {@link Configuration} from extension config file.
+ * <p>
+ * Uses the StAX parser of the JDK to keep extension startup cheap.
+ * Unknown elements and attributes are ignored.
+ * Global config values are applied to ref and rev configs, if not set explicitly.
+ */
+final class ConfigurationReader {
+
+    private ConfigurationReader() {
+    }
+
+    static Configuration read(File configFile) throws IOException {
+        final XMLInputFactory xmlInputFactory = XMLInputFactory.newDefaultFactory();
+        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        xmlInputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+
+        try (InputStream inputStream = new FileInputStream(configFile)) {
+            final XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(inputStream);
+            try {
+                reader.nextTag();
+                final Configuration config = readConfiguration(reader);
+                applyGlobalConfig(config);
+                return config;
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException | IllegalArgumentException e) {
+            throw new IOException("Invalid config file " + configFile + " - " + e.getMessage(), e);
+        }
+    }
+
+    private static Configuration readConfiguration(XMLStreamReader reader) throws XMLStreamException {
+        final Configuration config = new Configuration();
+        while (reader.nextTag() == START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "disable":
+                    config.disable = readBoolean(reader);
+                    break;
+                case "projectVersionPattern":
+                    config.projectVersionPattern = readTextIgnoreWhitespace(reader);
+                    break;
+                case "describeTagPattern":
+                    config.describeTagPattern = readTextIgnoreWhitespace(reader);
+                    break;
+                case "describeTagFirstParent":
+                    config.describeTagFirstParent = readBoolean(reader);
+                    break;
+                case "describeTagPatterns":
+                    while (reader.nextTag() == START_ELEMENT) {
+                        config.describeTagPatterns.put(reader.getLocalName(), readTextIgnoreWhitespace(reader));
+                    }
+                    break;
+                case "describeMaxDepth":
+                    config.describeMaxDepth = Integer.valueOf(readTextIgnoreWhitespace(reader));
+                    break;
+                case "describeTimeout":
+                    config.describeTimeout = Long.valueOf(readTextIgnoreWhitespace(reader));
+                    break;
+                case "describeFallbackTag":
+                    config.describeFallbackTag = reader.getElementText().trim();
+                    break;
+                case "updatePom":
+                    config.updatePom = readBoolean(reader);
+                    break;
+                case "mainBranch":
+                    config.mainBranch = readTextIgnoreWhitespace(reader);
+                    break;
+                case "tagRefPrefixes":
+                    while (reader.nextTag() == START_ELEMENT) {
+                        config.tagRefPrefixes.add(reader.getElementText().trim());
+                    }
+                    break;
+                case "refs":
+                    readRefs(reader, config.refs);
+                    break;
+                case "rev":
+                    config.rev = new PatchDescription();
+                    readPatchDescription(reader, config.rev);
+                    break;
+                case "jgit":
+                    readJGitConfig(reader, config.jgit);
+                    break;
+                case "relatedProjects":
+                    while (reader.nextTag() == START_ELEMENT) {
+                        config.relatedProjects.add(readRelatedProject(reader));
+                    }
+                    break;
+                default:
+                    skipElement(reader);
+            }
+        }
+        return config;
+    }
+
+    private static void applyGlobalConfig(Configuration config) {
+        final List<PatchDescription> patchDescriptions = new ArrayList<>(config.refs.list);
+        if (config.rev != null) {
+            patchDescriptions.add(config.rev);
+        }
+        for (PatchDescription patchDescription : patchDescriptions) {
+            if (patchDescription.describeTagPattern == null) {
+                patchDescription.describeTagPattern = config.describeTagPattern;
+            }
+            if (patchDescription.describeTagFirstParent == null) {
+                patchDescription.describeTagFirstParent = config.describeTagFirstParent;
+            }
+            if (patchDescription.updatePom == null) {
+                patchDescription.updatePom = config.updatePom;
+            }
+        }
+    }
+
+    private static void readJGitConfig(XMLStreamReader reader, JGitConfig jgitConfig) throws XMLStreamException {
+        while (reader.nextTag() == START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "hermetic":
+                    jgitConfig.hermetic = readBoolean(reader);
+                    break;
+                case "fileStoreAttributes":
+                    jgitConfig.fileStoreAttributes = readEnum(reader, FileStoreAttributesMode.class);
+                    break;
+                case "timestampResolution":
+                    jgitConfig.timestampResolution = reader.getElementText().trim();
+                    break;
+                case "minRacyThreshold":
+                    jgitConfig.minRacyThreshold = reader.getElementText().trim();
+                    break;
+                case "fileStoreAttributesCache":
+                    jgitConfig.fileStoreAttributesCache = reader.getElementText().trim();
+                    break;
+                case "packedGitMmap":
+                    jgitConfig.packedGitMmap = readBoolean(reader);
+                    break;
+                case "packedGitWindowSize":
+                    jgitConfig.packedGitWindowSize = readTextIgnoreWhitespace(reader);
+                    break;
+                case "packedGitLimit":
+                    jgitConfig.packedGitLimit = readTextIgnoreWhitespace(reader);
+                    break;
+                case "deltaBaseCacheLimit":
+                    jgitConfig.deltaBaseCacheLimit = readTextIgnoreWhitespace(reader);
+                    break;
+                case "streamFileThreshold":
+                    jgitConfig.streamFileThreshold = readTextIgnoreWhitespace(reader);
+                    break;
+                default:
+                    skipElement(reader);
+            }
+        }
+    }
+
+    private static void readRefs(XMLStreamReader reader, Configuration.RefPatchDescriptionList refs) throws XMLStreamException {
+        final String considerTagsOnBranches = reader.getAttributeValue(null, "considerTagsOnBranches");
+        if (considerTagsOnBranches != null) {
+            refs.considerTagsOnBranches = parseBoolean(considerTagsOnBranches);
+        }
+        while (reader.nextTag() == START_ELEMENT) {
+            if (reader.getLocalName().equals("ref")) {
+                final RefPatchDescription ref = new RefPatchDescription();
+                final String type = reader.getAttributeValue(null, "type");
+                if (type != null) {
+                    ref.type = parseEnum(type, GitRefType.class);
+                }
+                readPatchDescription(reader, ref);
+                refs.list.add(ref);
+            } else {
+                skipElement(reader);
+            }
+        }
+    }
+
+    private static void readPatchDescription(XMLStreamReader reader, PatchDescription patchDescription) throws XMLStreamException {
+        while (reader.nextTag() == START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "pattern":
+                    if (patchDescription instanceof RefPatchDescription) {
+                        ((RefPatchDescription) patchDescription).pattern = readTextIgnoreWhitespace(reader);
+                    } else {
+                        skipElement(reader);
+                    }
+                    break;
+                case "describeTagPattern":
+                    patchDescription.describeTagPattern = readTextIgnoreWhitespace(reader);
+                    break;
+                case "describeTagFirstParent":
+                    patchDescription.describeTagFirstParent = readBoolean(reader);
+                    break;
+                case "updatePom":
+                    patchDescription.updatePom = readBoolean(reader);
+                    break;
+                case "version":
+                    patchDescription.version = readTextIgnoreWhitespace(reader);
+                    break;
+                case "unchangedModuleVersion":
+                    patchDescription.unchangedModuleVersion = readTextIgnoreWhitespace(reader);
+                    break;
+                case "properties":
+                    patchDescription.properties = readProperties(reader);
+                    break;
+                case "userProperties":
+                    patchDescription.userProperties = readProperties(reader);
+                    break;
+                default:
+                    skipElement(reader);
+            }
+        }
+    }
+
+    private static Map<String, String> readProperties(XMLStreamReader reader) throws XMLStreamException {
+        final Map<String, String> properties = new LinkedHashMap<>();
+        while (reader.nextTag() == START_ELEMENT) {
+            final String name = reader.getLocalName();
+            properties.put(name, reader.getElementText());
+        }
+        return properties;
+    }
+
+    private static RelatedProject readRelatedProject(XMLStreamReader reader) throws XMLStreamException {
+        String groupId = null;
+        String artifactId = null;
+        while (reader.nextTag() == START_ELEMENT) {
+            switch (reader.getLocalName()) {
+                case "groupId":
+                    groupId = readTextIgnoreWhitespace(reader);
+                    break;
+                case "artifactId":
+                    artifactId = readTextIgnoreWhitespace(reader);
+                    break;
+                default:
+                    skipElement(reader);
+            }
+        }
+        if (groupId == null || artifactId == null) {
+            throw new IllegalArgumentException("related project requires groupId and artifactId");
+        }
+        return new RelatedProject(groupId, artifactId);
+    }
+
+    private static String readTextIgnoreWhitespace(XMLStreamReader reader) throws XMLStreamException {
+        return reader.getElementText().replaceAll("\\s+", "");
+    }
+
+    private static Boolean readBoolean(XMLStreamReader reader) throws XMLStreamException {
+        return parseBoolean(reader.getElementText());
+    }
+
+    private static <E extends Enum<E>> E readEnum(XMLStreamReader reader, Class<E> enumType) throws XMLStreamException {
+        return parseEnum(reader.getElementText(), enumType);
+    }
+
+    private static <E extends Enum<E>> E parseEnum(String value, Class<E> enumType) {
+        return Enum.valueOf(enumType, value.trim().toUpperCase(Locale.ROOT));
+    }
+
+    private static boolean parseBoolean(String value) {
+        final String trimmedValue = value.trim();
+        if (trimmedValue.equalsIgnoreCase("true")) {
+            return true;
+        }
+        if (trimmedValue.equalsIgnoreCase("false")) {
+            return false;
+        }
+        throw new IllegalArgumentException("invalid boolean value '" + value + "'");
+    }
+
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            final int event = reader.next();
+            if (event == START_ELEMENT) {
+                depth++;
+            } else if (event == END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package me.qoomon.maven.gitversioning;
+
+import me.qoomon.gitversioning.commons.GitDescription;
+import me.qoomon.gitversioning.commons.GitRepositoryPool;
+import me.qoomon.gitversioning.commons.GitUtil;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonList;
+import static org.eclipse.jgit.lib.Constants.R_TAGS;
+
+/**
+ * Describes all commits of a commit range in one history walk,
+ * e.g. for changelogs or artifact indexes.
+ * <p>
+ * Each commit is written as one line <code>&lt;commit&gt; &lt;describe&gt;</code>, parents before children.
+ */
+@Mojo(name = GitDescribeMojo.GOAL,
+        requiresProject = false,
+        aggregator = true,
+        threadSafe = true)
+public class GitDescribeMojo extends AbstractMojo {
+
+    static final String GOAL = "describe";
+
+    @Parameter(defaultValue = "${basedir}", readonly = true, required = true)
+    private File baseDirectory;
+
+    /**
+     * range start, exclusive, all ancestors of <code>to</code> if not set
+     */
+    @Parameter(property = "versioning.describe.from")
+    private String from;
+
+    /**
+     * range end, inclusive
+     */
+    @Parameter(property = "versioning.describe.to", defaultValue = "HEAD")
+    private String to;
+
+    @Parameter(property = "versioning.describe.tagPattern", defaultValue = ".*")
+    private String tagPattern;
+
+    @Parameter(property = "versioning.describe.firstParent", defaultValue = "true")
+    private boolean firstParent;
+
+    /**
+     * output file, descriptions are logged if not set
+     */
+    @Parameter(property = "versioning.describe.outputFile")
+    private File outputFile;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        final FileRepositoryBuilder repositoryBuilder = new FileRepositoryBuilder().findGitDir(baseDirectory);
+        if (repositoryBuilder.getGitDir() == null) {
+            throw new MojoExecutionException(baseDirectory + " is not part of a git repository");
+        }
+
+        try {
+            final Repository repository = GitRepositoryPool.open(repositoryBuilder.getGitDir());
+            final ObjectId head = resolve(repository, to);
+            final ObjectId base = from != null ? resolve(repository, from) : null;
+            final Pattern describeTagPattern = Pattern.compile(tagPattern);
+
+            if (outputFile != null) {
+                try (BufferedWriter writer = Files.newBufferedWriter(outputFile.toPath(), UTF_8)) {
+                    GitUtil.describeRange(head, base, describeTagPattern, repository, firstParent, singletonList(R_TAGS),
+                            description -> {
+                                try {
+                                    writer.write(line(description));
+                                    writer.newLine();
+                                } catch (IOException e) {
+                                    throw new UncheckedIOException(e);
+                                }
+                            });
+                }
+                getLog().info("commit descriptions written to " + outputFile);
+            } else {
+                GitUtil.describeRange(head, base, describeTagPattern, repository, firstParent, singletonList(R_TAGS),
+                        description -> getLog().info(line(description)));
+            }
+        } catch (IOException | UncheckedIOException e) {
+            throw new MojoExecutionException("git describe failed", e);
+        }
+    }
+
+    private static ObjectId resolve(Repository repository, String revision) throws IOException, MojoExecutionException {
+        final ObjectId objectId = repository.resolve(revision + "^{commit}");
+        if (objectId == null) {
+            throw new MojoExecutionException("unknown revision " + revision);
+        }
+        return objectId;
+    }
+
+    private static String line(GitDescription description) {
+        return description.getCommit() + " " + description;
+    }
+}
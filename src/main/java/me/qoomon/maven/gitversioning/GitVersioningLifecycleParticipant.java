@@ -0,0 +1,41 @@
+package me.qoomon.maven.gitversioning;
+
+import me.qoomon.gitversioning.commons.GitRepositoryPool;
+import org.apache.maven.AbstractMavenLifecycleParticipant;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.building.ModelProcessor;
+import org.slf4j.Logger;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Pre-warms git situation on maven session start and releases git resources on maven session end.
+ */
+@Named("git-versioning")
+@Singleton
+public class GitVersioningLifecycleParticipant extends AbstractMavenLifecycleParticipant {
+
+    final private Logger logger = getLogger(GitVersioningLifecycleParticipant.class);
+
+    @Inject
+    @Named("core-default")
+    private ModelProcessor modelProcessor;
+
+    @Override
+    public void afterSessionStart(MavenSession session) {
+        if (modelProcessor instanceof GitVersioningModelProcessor) {
+            logger.debug("pre-warm git situation");
+            ((GitVersioningModelProcessor) modelProcessor).prewarm(session);
+        }
+    }
+
+    @Override
+    public void afterSessionEnd(MavenSession session) {
+        logger.debug("close git repositories");
+        GitRepositoryPool.closeAll();
+    }
+}
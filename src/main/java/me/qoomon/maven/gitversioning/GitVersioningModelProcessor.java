@@ -1,13 +1,18 @@
 package me.qoomon.maven.gitversioning;
 
-import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 import com.google.inject.Key;
 import com.google.inject.OutOfScopeException;
 import de.pdark.decentxml.Document;
 import de.pdark.decentxml.Element;
+import me.qoomon.gitversioning.commons.DescribeLimits;
 import me.qoomon.gitversioning.commons.GitDescription;
+import me.qoomon.gitversioning.commons.GitDirectory;
+import me.qoomon.gitversioning.commons.GitRepositoryPool;
 import me.qoomon.gitversioning.commons.GitSituation;
+import me.qoomon.gitversioning.commons.GitSystemReader;
+import me.qoomon.gitversioning.commons.GitUtil;
 import me.qoomon.gitversioning.commons.Lazy;
+import me.qoomon.maven.gitversioning.Configuration.FileStoreAttributesMode;
 import me.qoomon.maven.gitversioning.Configuration.PatchDescription;
 import me.qoomon.maven.gitversioning.Configuration.RefPatchDescription;
 import org.apache.maven.building.Source;
@@ -17,7 +22,12 @@ import org.apache.maven.model.building.ModelProcessor;
 import org.apache.maven.session.scope.internal.SessionScope;
 import org.codehaus.plexus.util.xml.Xpp3Dom;
 import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.Config;
+import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.storage.file.WindowCacheConfig;
+import org.eclipse.jgit.util.FS;
+import org.eclipse.jgit.util.SystemReader;
 import org.slf4j.Logger;
 
 import javax.inject.Inject;
@@ -25,7 +35,9 @@ import javax.inject.Named;
 import javax.inject.Singleton;
 import java.io.*;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.time.Duration;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
@@ -35,15 +47,16 @@ import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.Set;
-import java.util.function.BiConsumer;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import static com.fasterxml.jackson.databind.MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS;
 import static java.lang.Boolean.parseBoolean;
 import static java.lang.Math.*;
 import static java.time.format.DateTimeFormatter.ISO_INSTANT;
+import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static java.util.Objects.requireNonNullElse;
@@ -51,9 +64,11 @@ import static java.util.stream.Collectors.*;
 import static me.qoomon.gitversioning.commons.GitRefType.*;
 import static me.qoomon.gitversioning.commons.StringUtil.*;
 import static me.qoomon.maven.gitversioning.BuildProperties.projectArtifactId;
+import static me.qoomon.maven.gitversioning.CanonicalPathResolver.isWithin;
 import static me.qoomon.maven.gitversioning.GitVersioningMojo.asPlugin;
 import static me.qoomon.maven.gitversioning.MavenUtil.*;
 import static org.apache.commons.lang3.StringUtils.leftPad;
+import static org.eclipse.jgit.lib.ConfigConstants.*;
 import static org.apache.maven.shared.utils.StringUtils.repeat;
 import static org.apache.maven.shared.utils.StringUtils.rightPad;
 import static org.apache.maven.shared.utils.logging.MessageUtils.buffer;
@@ -73,9 +88,19 @@ public class GitVersioningModelProcessor implements ModelProcessor {
     private static final String OPTION_NAME_GIT_BRANCH = "git.branch";
     private static final String OPTION_NAME_DISABLE = "versioning.disable";
     private static final String OPTION_UPDATE_POM = "versioning.updatePom";
+    private static final String OPTION_JGIT_HERMETIC = "versioning.jgit.hermetic";
+    private static final String OPTION_JGIT_FILE_STORE_ATTRIBUTES = "versioning.jgit.fileStoreAttributes";
+    private static final String OPTION_JGIT_FILE_STORE_ATTRIBUTES_CACHE = "versioning.jgit.fileStoreAttributesCache";
+    private static final String OPTION_JGIT_PACKED_GIT_MMAP = "versioning.jgit.packedGitMmap";
+    private static final String OPTION_JGIT_PACKED_GIT_WINDOW_SIZE = "versioning.jgit.packedGitWindowSize";
+    private static final String OPTION_JGIT_PACKED_GIT_LIMIT = "versioning.jgit.packedGitLimit";
+    private static final String OPTION_JGIT_DELTA_BASE_CACHE_LIMIT = "versioning.jgit.deltaBaseCacheLimit";
+    private static final String OPTION_JGIT_STREAM_FILE_THRESHOLD = "versioning.jgit.streamFileThreshold";
 
     static final String GIT_VERSIONING_POM_NAME = ".git-versioned-pom.xml";
 
+    private static final String MODULE_PLACEHOLDER_PREFIX = "module.";
+
     final private Logger logger = getLogger(GitVersioningModelProcessor.class);
 
     // gets injected by setter, see below
@@ -99,22 +124,42 @@ public class GitVersioningModelProcessor implements ModelProcessor {
 
     private Configuration config;
 
+    // background pre-warm of config and git repository, see prewarm()
+    private volatile Prewarm<Configuration> prewarm;
+
     // --- following fields will be initialized by init() method -------------------------------------------------------
     private MavenSession mavenSession; // can't be injected, cause it's not available before model read
     private File mvnDirectory;
     private GitSituation gitSituation;
+    private Path canonicalMvnRootDirectory;
+    private Path canonicalGitRootDirectory;
 
     private boolean disabled = false;
+    private boolean jgitConfigured = false;
     private GitVersionDetails gitVersionDetails;
     boolean updatePom = false;
 
     private Map<String, Supplier<String>> globalFormatPlaceholderMap;
     private Set<GAV> relatedProjects;
+    // project directories of related projects, for module placeholders
+    private Map<GAV, File> relatedProjectDirectories;
+    // related project models, whose parent and module references are not resolved yet
+    private Deque<Model> unresolvedRelatedProjectModels;
+    // module paths of related projects changed since describe tag, see changedModulePaths()
+    private Set<String> changedModulePaths;
 
 
     // ---- other fields -----------------------------------------------------------------------------------------------
 
-    private final Map<File, Model> sessionModelCache = new HashMap<>();
+    private final Map<Path, Model> sessionModelCache = new HashMap<>();
+
+    // raw models of related project pom files read while resolving related projects
+    private final Map<Path, Model> relatedModelCache = new HashMap<>();
+
+    private final CanonicalPathResolver pathResolver = new CanonicalPathResolver();
+
+    // git versions by version format and by module path, if referenced by version format, and original version
+    private final Map<String, Map<List<String>, String>> gitVersionCache = new HashMap<>();
 
     @Override
     public File locatePom(File projectDirectory) {
@@ -174,8 +219,11 @@ public class GitVersioningModelProcessor implements ModelProcessor {
         mvnDirectory = findMvnDirectory(pomFile);
         logger.debug(".mvn directory: {}", mvnDirectory);
         final File configFile = new File(mvnDirectory, projectArtifactId() + ".xml");
-        logger.debug("read config from {}", configFile);
-        config = readConfig(configFile);
+        config = joinPrewarm(configFile);
+        if (config == null) {
+            logger.debug("read config from {}", configFile);
+            config = readConfig(configFile);
+        }
 
         // check if extension is disabled by command option
         final String commandOptionDisable = getCommandOption(OPTION_NAME_DISABLE);
@@ -201,6 +249,27 @@ public class GitVersioningModelProcessor implements ModelProcessor {
             disabled = true;
             return;
         }
+        if (!config.tagRefPrefixes.isEmpty()) {
+            gitSituation.setTagRefPrefixes(config.tagRefPrefixes);
+            logger.debug("tag ref prefixes: {}", gitSituation.getTagRefPrefixes());
+        }
+        if (config.describeMaxDepth != null || config.describeTimeout != null || config.describeFallbackTag != null) {
+            gitSituation.setDescribeLimits(new DescribeLimits(
+                    config.describeMaxDepth,
+                    config.describeTimeout != null ? Duration.ofMillis(config.describeTimeout) : null,
+                    requireNonNullElse(config.describeFallbackTag, DescribeLimits.NONE.getFallbackTag())));
+            logger.debug("describe limits: {}", gitSituation.getDescribeLimits());
+        }
+        if (config.mainBranch != null) {
+            gitSituation.setMainBranches(singletonList(config.mainBranch));
+        }
+        if (!config.describeTagPatterns.isEmpty()) {
+            gitSituation.setNamedDescribeTagPatterns(config.describeTagPatterns());
+            logger.debug("describe tag patterns: {}", gitSituation.getNamedDescribeTagPatterns());
+        }
+
+        canonicalMvnRootDirectory = pathResolver.canonicalPath(mvnDirectory.getParentFile());
+        canonicalGitRootDirectory = pathResolver.canonicalPath(gitSituation.getRootDirectory());
 
         if (logger.isDebugEnabled()) {
             logger.debug("git situation:");
@@ -239,6 +308,9 @@ public class GitVersioningModelProcessor implements ModelProcessor {
         if (patchDescription.version != null) {
             logger.info("  version: {}", patchDescription.version);
         }
+        if (patchDescription.unchangedModuleVersion != null) {
+            logger.info("  unchangedModuleVersion: {}", patchDescription.unchangedModuleVersion);
+        }
         if (!patchDescription.properties.isEmpty()) {
             logger.info("  properties: ");
             patchDescription.properties.forEach((key, value) -> logger.info("    {} - {}", key, value));
@@ -249,9 +321,10 @@ public class GitVersioningModelProcessor implements ModelProcessor {
         if (!patchDescription.userProperties.isEmpty()) {
             logger.info("  userProperties: ");
             String projectVersion = GAV.of(projectModel).getVersion();
+            Lazy<String> projectModulePath = Lazy.by(() -> modulePath(projectModel.getProjectDirectory()));
             patchDescription.userProperties.forEach((key, value) -> {
                 logger.info("    {} - {}", key, value);
-                mavenSession.getUserProperties().put(key, getGitPropertyValue(value, "", projectVersion));
+                mavenSession.getUserProperties().put(key, getGitPropertyValue(value, "", projectVersion, projectModulePath));
             });
         }
         updatePom = getUpdatePomOption(patchDescription);
@@ -259,18 +332,92 @@ public class GitVersioningModelProcessor implements ModelProcessor {
             logger.info("  updatePom: {}", updatePom);
         }
 
-        // determine related projects
-        relatedProjects = determineRelatedProjects(projectModel);
-        if (logger.isDebugEnabled()) {
-            logger.debug(buffer().strong("related projects:").toString());
-            relatedProjects.forEach(gav -> logger.debug("  {}", gav));
-        }
+        // related projects are resolved on demand, see isRelatedProject(GAV)
+        initRelatedProjects(projectModel);
 
         logger.info("");
     }
 
     // ---- model processing -------------------------------------------------------------------------------------------
 
+    /**
+     * Starts reading config, opening git repository and loading refs and head commit in background,
+     * so it overlaps with maven startup, see {@link GitVersioningLifecycleParticipant}.
+     * <p>
+     * {@link #init(Model)} joins pre-warm and reuses its results.
+     *
+     * @param session maven session
+     */
+    void prewarm(MavenSession session) {
+        final File pomFile = session.getRequest().getPom();
+        if (initialized || prewarm != null || pomFile == null || !pomFile.isFile()) {
+            return;
+        }
+
+        mavenSession = session;
+        final File prewarmMvnDirectory;
+        try {
+            prewarmMvnDirectory = findMvnDirectory(pomFile);
+        } catch (IOException e) {
+            logger.debug("skip git pre-warm", e);
+            return;
+        }
+        final File configFile = new File(prewarmMvnDirectory, projectArtifactId() + ".xml");
+        prewarm = Prewarm.start(configFile, () -> {
+            final Configuration prewarmConfig = readConfig(configFile);
+            final String commandOptionDisable = getCommandOption(OPTION_NAME_DISABLE);
+            if (commandOptionDisable != null ? parseBoolean(commandOptionDisable)
+                    : prewarmConfig.disable != null && prewarmConfig.disable) {
+                return prewarmConfig;
+            }
+
+            config = prewarmConfig;
+            // CI fast path opens git repository on demand only
+            if (getFastPathCiEnvironment(GitDirectory.find(pomFile.getParentFile())) != null) {
+                return prewarmConfig;
+            }
+
+            configureJGit(prewarmMvnDirectory);
+            final File gitDir = new FileRepositoryBuilder().findGitDir(pomFile.getParentFile()).getGitDir();
+            if (gitDir != null) {
+                final Repository repository = GitRepositoryPool.open(gitDir);
+                // loads ref snapshot and pack indexes
+                repository.getRefDatabase().getRefs();
+                final ObjectId head = GitUtil.worktreesFix_resolveHead(repository);
+                if (head != null) {
+                    GitUtil.revTimestamp(repository, head);
+                }
+            }
+            return prewarmConfig;
+        }, "git-versioning-prewarm");
+    }
+
+    /**
+     * @param configFile expected config file
+     * @return pre-warm config or null if pre-warm has not been started, failed or used another config file
+     */
+    private Configuration joinPrewarm(File configFile) {
+        if (prewarm == null) {
+            return null;
+        }
+        try {
+            final Configuration prewarmConfig = prewarm.join(configFile);
+            if (prewarmConfig != null) {
+                logger.debug("use pre-warmed config from {}", configFile);
+                return prewarmConfig;
+            }
+        } catch (ExecutionException e) {
+            logger.debug("git pre-warm failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            prewarm = null;
+        }
+        // JGit may have been configured by another config
+        jgitConfigured = false;
+        return null;
+    }
+
     public Model processModel(Model projectModel, Map<String, ?> options) throws IOException {
         // set model pom file
         final Source pomSource = (Source) options.get(ModelProcessor.SOURCE);
@@ -296,15 +443,17 @@ public class GitVersioningModelProcessor implements ModelProcessor {
             return projectModel;
         }
 
-        if (!isRelatedProject(projectGAV)) {
+        final Path canonicalProjectPomFile = pathResolver.canonicalPath(projectModel.getPomFile());
+
+        // project models outside of current maven and git context (e.g. from local repository) are never related,
+        // checking them upfront avoids resolving all related projects for unrelated models
+        if (!isProjectContextPath(canonicalProjectPomFile) || !isRelatedProject(projectGAV)) {
             if (logger.isTraceEnabled()) {
                 logger.trace("skip model - unrelated project - {}", projectModel.getPomFile());
             }
             return projectModel;
         }
 
-        File canonicalProjectPomFile = projectModel.getPomFile().getCanonicalFile();
-
         // return cached calculated project model if present
         Model cachedProjectModel = sessionModelCache.get(canonicalProjectPomFile);
         if (cachedProjectModel != null) {
@@ -319,9 +468,9 @@ public class GitVersioningModelProcessor implements ModelProcessor {
             logger.info(projectLogHeader(projectGAV));
         }
 
-        updateModel(projectModel, gitVersionDetails.getPatchDescription());
+        Map<List<?>, BitSet> versionUpdates = updateModel(projectModel, gitVersionDetails.getPatchDescription());
 
-        File gitVersionedPomFile = writePomFile(projectModel);
+        File gitVersionedPomFile = writePomFile(projectModel, versionUpdates);
         if (updatePom) {
             logger.debug("updating original POM file");
             Files.copy(
@@ -342,71 +491,81 @@ public class GitVersioningModelProcessor implements ModelProcessor {
         return projectModel;
     }
 
-    private void updateModel(Model projectModel, RefPatchDescription patchDescription) {
+    /**
+     * Updates versions and properties of given project model.
+     *
+     * @return indexes of updated dependency and plugin versions by model list, see {@link #writePomFile(Model, Map)}
+     */
+    private Map<List<?>, BitSet> updateModel(Model projectModel, RefPatchDescription patchDescription) {
         final GAV originalProjectGAV = GAV.of(projectModel);
+        final Lazy<String> projectModulePath = Lazy.by(() -> modulePath(projectModel.getProjectDirectory()));
+        final Map<List<?>, BitSet> versionUpdates = new IdentityHashMap<>();
 
-        final String versionFormat = patchDescription.version;
-        if (versionFormat != null) {
-            updateParentVersion(projectModel, versionFormat);
-            updateVersion(projectModel, versionFormat);
-            updateDependencyVersions(projectModel, versionFormat);
-            updatePluginVersions(projectModel, versionFormat);
+        if (patchDescription.version != null) {
+            updateParentVersion(projectModel, patchDescription);
+            updateVersion(projectModel, patchDescription, projectModulePath);
+            updateDependencyVersions(projectModel, patchDescription, versionUpdates);
+            updatePluginVersions(projectModel, patchDescription, versionUpdates);
         }
 
         final Map<String, String> propertyFormats = patchDescription.properties;
         if (propertyFormats != null) {
-            updatePropertyValues(projectModel, propertyFormats, originalProjectGAV);
+            updatePropertyValues(projectModel, propertyFormats, originalProjectGAV, projectModulePath);
         }
 
         addProjectProperties(projectModel);
 
         // profile section
-        updateProfiles(projectModel, patchDescription, originalProjectGAV);
+        updateProfiles(projectModel, patchDescription, originalProjectGAV, projectModulePath, versionUpdates);
+
+        return versionUpdates;
     }
 
 
-    private void updateProfiles(Model model, RefPatchDescription patchDescription, GAV originalProjectGAV) {
+    private void updateProfiles(Model model, RefPatchDescription patchDescription, GAV originalProjectGAV, Supplier<String> projectModulePath,
+                                Map<List<?>, BitSet> versionUpdates) {
         List<Profile> profiles = model.getProfiles();
 
         // profile section
         if (!profiles.isEmpty()) {
             for (Profile profile : profiles) {
-                String version = patchDescription.version;
-                if (version != null) {
-                    updateDependencyVersions(profile, version);
-                    updatePluginVersions(profile, version);
+                if (patchDescription.version != null) {
+                    updateDependencyVersions(profile, patchDescription, versionUpdates);
+                    updatePluginVersions(profile, patchDescription, versionUpdates);
                 }
 
                 Map<String, String> propertyFormats = patchDescription.properties;
                 if (propertyFormats != null && !propertyFormats.isEmpty()) {
-                    updatePropertyValues(profile, propertyFormats, originalProjectGAV);
+                    updatePropertyValues(profile, propertyFormats, originalProjectGAV, projectModulePath);
                 }
             }
         }
     }
 
-    private void updateParentVersion(Model projectModel, String versionFormat) {
+    private void updateParentVersion(Model projectModel, PatchDescription patchDescription) {
         Parent parent = projectModel.getParent();
         if (parent != null) {
             GAV parentGAV = GAV.of(parent);
             if (isRelatedProject(parentGAV)) {
-                String gitVersion = getGitVersion(versionFormat, parentGAV.getVersion());
+                Lazy<String> parentModulePath = Lazy.by(() -> modulePath(parentGAV));
+                String gitVersion = getGitVersion(versionFormat(patchDescription, parentModulePath), parentGAV.getVersion(), parentModulePath);
                 logger.debug("set parent version to {} ({})", gitVersion, parentGAV);
                 parent.setVersion(gitVersion);
             }
         }
     }
 
-    private void updateVersion(Model projectModel, String versionFormat) {
+    private void updateVersion(Model projectModel, PatchDescription patchDescription, Supplier<String> projectModulePath) {
         if (projectModel.getVersion() != null) {
             GAV projectGAV = GAV.of(projectModel);
-            String gitVersion = getGitVersion(versionFormat, projectGAV.getVersion());
+            String gitVersion = getGitVersion(versionFormat(patchDescription, projectModulePath), projectGAV.getVersion(), projectModulePath);
             logger.info("set version to {}", gitVersion);
             projectModel.setVersion(gitVersion);
         }
     }
 
-    private void updatePropertyValues(ModelBase model, Map<String, String> propertyFormats, GAV originalProjectGAV) {
+    private void updatePropertyValues(ModelBase model, Map<String, String> propertyFormats, GAV originalProjectGAV,
+                                      Supplier<String> projectModulePath) {
         if (propertyFormats.isEmpty()) {
             return;
         }
@@ -414,7 +573,8 @@ public class GitVersioningModelProcessor implements ModelProcessor {
         model.getProperties().forEach((modelPropertyName, modelPropertyValue) -> {
             String propertyFormat = propertyFormats.get((String) modelPropertyName);
             if (propertyFormat != null) {
-                String gitPropertyValue = getGitPropertyValue(propertyFormat, (String) modelPropertyValue, originalProjectGAV.getVersion());
+                String gitPropertyValue = getGitPropertyValue(propertyFormat, (String) modelPropertyValue, originalProjectGAV.getVersion(),
+                        projectModulePath);
                 if (!gitPropertyValue.equals(modelPropertyValue)) {
                     logger.info("set property {} to {}", modelPropertyName, gitPropertyValue);
                     model.addProperty((String) modelPropertyName, gitPropertyValue);
@@ -423,130 +583,104 @@ public class GitVersioningModelProcessor implements ModelProcessor {
         });
     }
 
-    private void updatePluginVersions(ModelBase model, String versionFormat) {
+    private void updatePluginVersions(ModelBase model, PatchDescription patchDescription, Map<List<?>, BitSet> versionUpdates) {
         BuildBase build = getBuild(model);
-        if (build == null) {
-            return;
-        }
-        // plugins section
-        {
-            List<Plugin> relatedPlugins = filterRelatedPlugins(build.getPlugins());
-            if (!relatedPlugins.isEmpty()) {
-                if (logger.isDebugEnabled()) {
-                    logger.debug(sectionLogHeader("plugins", model));
-                }
-                for (Plugin plugin : relatedPlugins) {
-                    updateVersion(plugin, versionFormat);
-                }
-            }
-        }
+        if (build != null) {
+            // plugins section
+            updatePluginVersions("plugins", model, build.getPlugins(), patchDescription, versionUpdates);
 
-        // plugin management section
-        PluginManagement pluginManagement = build.getPluginManagement();
-        if (pluginManagement != null) {
-            List<Plugin> relatedPlugins = filterRelatedPlugins(pluginManagement.getPlugins());
-            if (!relatedPlugins.isEmpty()) {
-                if (logger.isDebugEnabled()) {
-                    logger.debug(sectionLogHeader("plugin management", model));
-                }
-                for (Plugin plugin : relatedPlugins) {
-                    updateVersion(plugin, versionFormat);
-                }
+            // plugin management section
+            PluginManagement pluginManagement = build.getPluginManagement();
+            if (pluginManagement != null) {
+                updatePluginVersions("plugin management", model, pluginManagement.getPlugins(), patchDescription, versionUpdates);
             }
         }
 
         // reporting section
         Reporting reporting = model.getReporting();
         if (reporting != null) {
-            List<ReportPlugin> relatedPlugins = filterRelatedReportPlugins(reporting.getPlugins());
-            if (!relatedPlugins.isEmpty()) {
-                if (logger.isDebugEnabled()) {
-                    logger.debug(sectionLogHeader("reporting plugins", model));
-                }
-                for (ReportPlugin plugin : relatedPlugins) {
-                    updateVersion(plugin, versionFormat);
-                }
-            }
+            updateReportPluginVersions("reporting plugins", model, reporting.getPlugins(), patchDescription, versionUpdates);
         }
     }
 
-    private void updateVersion(Plugin plugin, String versionFormat) {
-        if (plugin.getVersion() != null) {
-            GAV pluginGAV = GAV.of(plugin);
-            String gitVersion = getGitVersion(versionFormat, pluginGAV.getVersion());
+    private void updatePluginVersions(String section, ModelBase model, List<Plugin> plugins, PatchDescription patchDescription, Map<List<?>, BitSet> versionUpdates) {
+        BitSet updatedIndexes = null;
+        for (int index = 0; index < plugins.size(); index++) {
+            Plugin plugin = plugins.get(index);
+            if (plugin.getVersion() == null || !isRelatedProject(plugin.getGroupId(), plugin.getArtifactId(), plugin.getVersion())) {
+                continue;
+            }
+            if (updatedIndexes == null) {
+                updatedIndexes = newSectionVersionUpdates(section, model, plugins, versionUpdates);
+            }
+            Lazy<String> pluginModulePath = Lazy.by(() -> modulePath(GAV.of(plugin)));
+            String gitVersion = getGitVersion(versionFormat(patchDescription, pluginModulePath), plugin.getVersion(), pluginModulePath);
             if (logger.isDebugEnabled()) {
-                logger.debug("{}: set version to {}", pluginGAV.getProjectId(), gitVersion);
+                logger.debug("{}: set version to {}", plugin.getKey(), gitVersion);
             }
             plugin.setVersion(gitVersion);
+            updatedIndexes.set(index);
         }
     }
 
-    private void updateVersion(ReportPlugin plugin, String versionFormat) {
-        if (plugin.getVersion() != null) {
-            GAV pluginGAV = GAV.of(plugin);
-            String gitVersion = getGitVersion(versionFormat, pluginGAV.getVersion());
+    private void updateReportPluginVersions(String section, ModelBase model, List<ReportPlugin> plugins, PatchDescription patchDescription, Map<List<?>, BitSet> versionUpdates) {
+        BitSet updatedIndexes = null;
+        for (int index = 0; index < plugins.size(); index++) {
+            ReportPlugin plugin = plugins.get(index);
+            if (plugin.getVersion() == null || !isRelatedProject(plugin.getGroupId(), plugin.getArtifactId(), plugin.getVersion())) {
+                continue;
+            }
+            if (updatedIndexes == null) {
+                updatedIndexes = newSectionVersionUpdates(section, model, plugins, versionUpdates);
+            }
+            Lazy<String> pluginModulePath = Lazy.by(() -> modulePath(GAV.of(plugin)));
+            String gitVersion = getGitVersion(versionFormat(patchDescription, pluginModulePath), plugin.getVersion(), pluginModulePath);
             if (logger.isDebugEnabled()) {
-                logger.debug("{}: set version to {}", pluginGAV.getProjectId(), gitVersion);
+                logger.debug("{}: set version to {}", plugin.getKey(), gitVersion);
             }
             plugin.setVersion(gitVersion);
+            updatedIndexes.set(index);
         }
     }
 
-    private List<Plugin> filterRelatedPlugins(List<Plugin> plugins) {
-        return plugins.stream()
-                .filter(it -> isRelatedProject(GAV.of(it)))
-                .collect(toList());
-    }
-
-    private List<ReportPlugin> filterRelatedReportPlugins(List<ReportPlugin> plugins) {
-        return plugins.stream()
-                .filter(it -> isRelatedProject(GAV.of(it)))
-                .collect(toList());
-    }
-
-    private void updateDependencyVersions(ModelBase model, String versionFormat) {
+    private void updateDependencyVersions(ModelBase model, PatchDescription patchDescription, Map<List<?>, BitSet> versionUpdates) {
         // dependencies section
-        {
-            List<Dependency> relatedDependencies = filterRelatedDependencies(model.getDependencies());
-            if (!relatedDependencies.isEmpty()) {
-                if (logger.isDebugEnabled()) {
-                    logger.debug(sectionLogHeader("dependencies", model));
-                }
-                for (Dependency dependency : relatedDependencies) {
-                    updateVersion(dependency, versionFormat);
-                }
-            }
-        }
+        updateDependencyVersions("dependencies", model, model.getDependencies(), patchDescription, versionUpdates);
+
         // dependency management section
         DependencyManagement dependencyManagement = model.getDependencyManagement();
         if (dependencyManagement != null) {
-            List<Dependency> relatedDependencies = filterRelatedDependencies(dependencyManagement.getDependencies());
-            if (!relatedDependencies.isEmpty()) {
-                if (logger.isDebugEnabled()) {
-                    logger.debug(sectionLogHeader("dependency management", model));
-                }
-                for (Dependency dependency : relatedDependencies) {
-                    updateVersion(dependency, versionFormat);
-                }
-            }
+            updateDependencyVersions("dependency management", model, dependencyManagement.getDependencies(), patchDescription, versionUpdates);
         }
     }
 
-    private void updateVersion(Dependency dependency, String versionFormat) {
-        if (dependency.getVersion() != null) {
-            GAV dependencyGAV = GAV.of(dependency);
-            String gitVersion = getGitVersion(versionFormat, dependencyGAV.getVersion());
+    private void updateDependencyVersions(String section, ModelBase model, List<Dependency> dependencies, PatchDescription patchDescription, Map<List<?>, BitSet> versionUpdates) {
+        BitSet updatedIndexes = null;
+        for (int index = 0; index < dependencies.size(); index++) {
+            Dependency dependency = dependencies.get(index);
+            if (dependency.getVersion() == null || !isRelatedProject(dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion())) {
+                continue;
+            }
+            if (updatedIndexes == null) {
+                updatedIndexes = newSectionVersionUpdates(section, model, dependencies, versionUpdates);
+            }
+            Lazy<String> dependencyModulePath = Lazy.by(() -> modulePath(GAV.of(dependency)));
+            String gitVersion = getGitVersion(versionFormat(patchDescription, dependencyModulePath), dependency.getVersion(), dependencyModulePath);
             if (logger.isDebugEnabled()) {
-                logger.debug("{}: set version to {}", dependencyGAV.getProjectId(), gitVersion);
+                logger.debug("{}:{}: set version to {}", dependency.getGroupId(), dependency.getArtifactId(), gitVersion);
             }
             dependency.setVersion(gitVersion);
+            updatedIndexes.set(index);
         }
     }
 
-    public List<Dependency> filterRelatedDependencies(List<Dependency> dependencies) {
-        return dependencies.stream()
-                .filter(it -> isRelatedProject(GAV.of(it)))
-                .collect(toList());
+    private BitSet newSectionVersionUpdates(String section, ModelBase model, List<?> elements, Map<List<?>, BitSet> versionUpdates) {
+        if (logger.isDebugEnabled()) {
+            logger.debug(sectionLogHeader(section, model));
+        }
+        BitSet updatedIndexes = new BitSet(elements.size());
+        versionUpdates.put(elements, updatedIndexes);
+        return updatedIndexes;
     }
 
     private void addProjectProperties(Model projectModel) {
@@ -630,12 +764,20 @@ public class GitVersioningModelProcessor implements ModelProcessor {
 
     private GitSituation getGitSituation(File pomFile) throws IOException {
         final File baseDirectory = pomFile.getParentFile();
+
+        final GitSituation ciGitSituation = getCiGitSituation(baseDirectory);
+        if (ciGitSituation != null) {
+            return ciGitSituation;
+        }
+
+        configureJGit(mvnDirectory);
         final FileRepositoryBuilder repositoryBuilder = new FileRepositoryBuilder().findGitDir(baseDirectory);
         if (repositoryBuilder.getGitDir() == null) {
             return null;
         }
+        logger.info("regular path - open git repository {}", repositoryBuilder.getGitDir());
 
-        final Repository repository = repositoryBuilder.build();
+        final Repository repository = GitRepositoryPool.open(repositoryBuilder.getGitDir());
         return new GitSituation(repository) {
             {
                 handleEnvironment(repository);
@@ -682,89 +824,20 @@ public class GitVersioningModelProcessor implements ModelProcessor {
                     return;
                 }
 
-                // GitHub Actions support
-                if ("true".equalsIgnoreCase(System.getenv("GITHUB_ACTIONS"))) {
-                    if (!this.getRev().equals(System.getenv("GITHUB_SHA"))) {
-                        return;
-                    }
-
-                    logger.info("gather git situation from GitHub Actions environment variable: GITHUB_REF");
-                    String githubRef = System.getenv("GITHUB_REF");
-                    logger.debug("  GITHUB_REF: {}", githubRef);
-
-                    if (githubRef.startsWith("refs/tags/")) {
-                        addTag(githubRef);
-                    } else {
-                        setBranch(githubRef);
-                    }
+                final CiEnvironment ciEnvironment = CiEnvironment.detect();
+                if (ciEnvironment == null || !this.getRev().equals(ciEnvironment.rev)) {
                     return;
                 }
 
-                // GitLab CI support
-                if ("true".equalsIgnoreCase(System.getenv("GITLAB_CI"))) {
-                    if (!this.getRev().equals(System.getenv("CI_COMMIT_SHA"))) {
-                        return;
-                    }
-
-                    logger.info("gather git situation from GitLab CI environment variables: CI_COMMIT_BRANCH, CI_MERGE_REQUEST_SOURCE_BRANCH_NAME and CI_COMMIT_TAG");
-                    String commitBranch = System.getenv("CI_COMMIT_BRANCH");
-                    String commitTag = System.getenv("CI_COMMIT_TAG");
-                    String mrSourceBranch = System.getenv("CI_MERGE_REQUEST_SOURCE_BRANCH_NAME");
-                    logger.debug("  CI_COMMIT_BRANCH: {}", commitBranch);
-                    logger.debug("  CI_COMMIT_TAG: {}", commitTag);
-                    logger.debug("  CI_MERGE_REQUEST_SOURCE_BRANCH_NAME: {}", mrSourceBranch);
-
-                    if (commitBranch != null) {
-                        setBranch(commitBranch);
-                    } else if (mrSourceBranch != null) {
-                        setBranch(mrSourceBranch);
-                    } else if (commitTag != null) {
-                        addTag(commitTag);
-                    }
-                    return;
+                logger.info("gather git situation from {}", ciEnvironment.description);
+                ciEnvironment.variables.forEach((name, value) -> logger.debug("  {}: {}", name, value));
+                if (ciEnvironment.branch != null) {
+                    setBranch(ciEnvironment.branch);
+                } else if (ciEnvironment.tag != null) {
+                    addTag(ciEnvironment.tag);
                 }
-
-                // Circle CI support
-                if ("true".equalsIgnoreCase(System.getenv("CIRCLECI"))) {
-                    if (!this.getRev().equals(System.getenv("CIRCLE_SHA1"))) {
-                        return;
-                    }
-
-                    logger.info("gather git situation from Circle CI environment variables: CIRCLE_BRANCH and CIRCLE_TAG");
-                    String commitBranch = System.getenv("CIRCLE_BRANCH");
-                    String commitTag = System.getenv("CIRCLE_TAG");
-                    logger.debug("  CIRCLE_BRANCH: {}", commitBranch);
-                    logger.debug("  CIRCLE_TAG: {}", commitTag);
-
-                    if (commitBranch != null) {
-                        setBranch(commitBranch);
-                    } else if (commitTag != null) {
-                        addTag(commitTag);
-                    }
-                    return;
-                }
-
-                // Jenkins support
-                if (System.getenv("JENKINS_HOME") != null && !System.getenv("JENKINS_HOME").trim().isEmpty()) {
-                    if (!this.getRev().equals(System.getenv("GIT_COMMIT"))) {
-                        return;
-                    }
-                    logger.info("gather git situation from jenkins environment variables: BRANCH_NAME and TAG_NAME");
-                    String commitBranch = System.getenv("BRANCH_NAME");
-                    String commitTag = System.getenv("TAG_NAME");
-                    logger.debug("  BRANCH_NAME: {}", commitBranch);
-                    logger.debug("  TAG_NAME: {}", commitTag);
-
-                    if (commitBranch != null) {
-                        if (commitBranch.equals(commitTag)) {
-                            addTag(commitBranch);
-                        } else {
-                            setBranch(commitBranch);
-                        }
-                    } else if (commitTag != null) {
-                        addTag(commitTag);
-                    }
-                    return;
+                if (ciEnvironment.timestamp != null) {
+                    setTimestamp(ciEnvironment.timestamp);
                 }
             }
 
@@ -786,32 +859,213 @@ public class GitVersioningModelProcessor implements ModelProcessor {
         };
     }
 
-    private static GitVersionDetails getGitVersionDetails(GitSituation gitSituation, Configuration config) {
-        final Lazy<List<String>> sortedTags = Lazy.by(gitSituation::getTags);
-        for (RefPatchDescription refConfig : config.refs.list) {
-            switch (refConfig.type) {
-                case TAG: {
-                    if (gitSituation.isDetached() || config.refs.considerTagsOnBranches) {
-                        for (String tag : sortedTags.get()) {
-                            if (refConfig.pattern == null || refConfig.pattern().matcher(tag).matches()) {
-                                return new GitVersionDetails(gitSituation.getRev(), TAG, tag, refConfig);
-                            }
-                        }
-                    }
+    /**
+     * Configures JGit, needs to be done before first repository access.
+     *
+     * @param mvnDirectory <code>.mvn</code> directory to resolve relative config paths
+     */
+    private synchronized void configureJGit(File mvnDirectory) throws IOException {
+        if (jgitConfigured) {
+            return;
+        }
+        jgitConfigured = true;
+
+        final GitSystemReader systemReader = new GitSystemReader(GitSystemReader.currentDelegate());
+
+        final boolean hermetic = getJGitHermeticOption();
+        if (hermetic) {
+            logger.debug("jgit hermetic mode - system and user git config is ignored");
+        }
+        systemReader.setHermetic(hermetic);
+        // enables path filtered walks to skip most tree diffs, see GitSituation.getPathDescription
+        systemReader.setReadChangedPaths(true);
+
+        final FileStoreAttributesMode fileStoreAttributesMode = getFileStoreAttributesOption();
+        logger.debug("jgit file store attributes: {}", fileStoreAttributesMode);
+        FS.FileStoreAttributes.setBackground(fileStoreAttributesMode == FileStoreAttributesMode.BACKGROUND);
+        if (fileStoreAttributesMode == FileStoreAttributesMode.STATIC) {
+            systemReader.setFileStoreAttributes(config.jgit.timestampResolution, config.jgit.minRacyThreshold);
+        }
+
+        String fileStoreAttributesCache = getCommandOption(OPTION_JGIT_FILE_STORE_ATTRIBUTES_CACHE);
+        if (fileStoreAttributesCache == null) {
+            fileStoreAttributesCache = config.jgit.fileStoreAttributesCache;
+        }
+        if (fileStoreAttributesCache != null && !fileStoreAttributesCache.trim().isEmpty()) {
+            final File cacheFile = resolveConfigPath(mvnDirectory, fileStoreAttributesCache.trim());
+            logger.debug("jgit file store attributes cache: {}", cacheFile);
+            systemReader.setJGitConfigFile(cacheFile);
+        }
+
+        SystemReader.setInstance(systemReader);
+
+        configureJGitWindowCache();
+    }
+
+    /**
+     * Applies JGit pack file storage settings, see <code>core.*</code> settings of git config.
+     */
+    private void configureJGitWindowCache() {
+        final Config windowCacheSettings = jgitWindowCacheSettings(config.jgit, this::getCommandOption);
+        final Set<String> names = windowCacheSettings.getNames(CONFIG_CORE_SECTION);
+        if (names.isEmpty()) {
+            return;
+        }
+        names.forEach(name -> logger.debug("jgit core.{}: {}", name, windowCacheSettings.getString(CONFIG_CORE_SECTION, null, name)));
+
+        // unset values fall back to JGit defaults
+        new WindowCacheConfig().fromConfig(windowCacheSettings).install();
+    }
+
+    /**
+     * @param jgitConfig     jgit config
+     * @param commandOptions command option values by name, take precedence over config values
+     * @return JGit pack file storage settings, see <code>core.*</code> settings of git config
+     */
+    static Config jgitWindowCacheSettings(Configuration.JGitConfig jgitConfig, Function<String, String> commandOptions) {
+        final Config settings = new Config();
+        setJGitCoreSetting(settings, CONFIG_KEY_PACKED_GIT_MMAP, commandOptions.apply(OPTION_JGIT_PACKED_GIT_MMAP),
+                jgitConfig.packedGitMmap != null ? jgitConfig.packedGitMmap.toString() : null);
+        setJGitCoreSetting(settings, CONFIG_KEY_PACKED_GIT_WINDOWSIZE, commandOptions.apply(OPTION_JGIT_PACKED_GIT_WINDOW_SIZE),
+                jgitConfig.packedGitWindowSize);
+        setJGitCoreSetting(settings, CONFIG_KEY_PACKED_GIT_LIMIT, commandOptions.apply(OPTION_JGIT_PACKED_GIT_LIMIT),
+                jgitConfig.packedGitLimit);
+        setJGitCoreSetting(settings, CONFIG_KEY_DELTA_BASE_CACHE_LIMIT, commandOptions.apply(OPTION_JGIT_DELTA_BASE_CACHE_LIMIT),
+                jgitConfig.deltaBaseCacheLimit);
+        setJGitCoreSetting(settings, CONFIG_KEY_STREAM_FILE_THRESHOLD, commandOptions.apply(OPTION_JGIT_STREAM_FILE_THRESHOLD),
+                jgitConfig.streamFileThreshold);
+        return settings;
+    }
+
+    private static void setJGitCoreSetting(Config settings, String name, String commandOptionValue, String configValue) {
+        final String value = commandOptionValue != null ? commandOptionValue : configValue;
+        if (value != null && !value.trim().isEmpty()) {
+            settings.setString(CONFIG_CORE_SECTION, null, name, value.trim());
+        }
+    }
+
+    private boolean getJGitHermeticOption() {
+        final String hermeticCommandOption = getCommandOption(OPTION_JGIT_HERMETIC);
+        if (hermeticCommandOption != null) {
+            return parseBoolean(hermeticCommandOption);
+        }
+        return config.jgit.hermetic != null && config.jgit.hermetic;
+    }
+
+    private FileStoreAttributesMode getFileStoreAttributesOption() {
+        final String fileStoreAttributesCommandOption = getCommandOption(OPTION_JGIT_FILE_STORE_ATTRIBUTES);
+        if (fileStoreAttributesCommandOption != null) {
+            return FileStoreAttributesMode.valueOf(fileStoreAttributesCommandOption.trim().toUpperCase(Locale.ROOT));
+        }
+        if (config.jgit.fileStoreAttributes != null) {
+            return config.jgit.fileStoreAttributes;
+        }
+        return FileStoreAttributesMode.MEASURE;
+    }
+
+    /**
+     * @param mvnDirectory <code>.mvn</code> directory
+     * @param path         path, relative to <code>.mvn</code> directory, or to user home if it starts with <code>~/</code>
+     * @return resolved file
+     */
+    private static File resolveConfigPath(File mvnDirectory, String path) {
+        if (path.startsWith("~/")) {
+            return new File(System.getProperty("user.home"), path.substring(2));
+        }
+        final File file = new File(path);
+        return file.isAbsolute() ? file : new File(mvnDirectory, path);
+    }
+
+    /**
+     * Fast path for CI builds, if CI environment provides HEAD commit, ref and commit timestamp.
+     * <p>
+     * HEAD commit is verified by plain file access, git repository is opened not until it is needed,
+     * e.g. for <code>${describe}</code> or <code>${dirty}</code> placeholders or for further tags of HEAD.
+     * Commit timestamp is needed for <code>git.commit.timestamp</code> project properties of every project.
+     *
+     * @return git situation or null if fast path is not applicable
+     */
+    private GitSituation getCiGitSituation(File baseDirectory) throws IOException {
+        final GitDirectory gitDirectory = GitDirectory.find(baseDirectory);
+        final CiEnvironment ciEnvironment = getFastPathCiEnvironment(gitDirectory);
+        if (ciEnvironment == null) {
+            return null;
+        }
+
+        logger.info("gather git situation from {}", ciEnvironment.description);
+        ciEnvironment.variables.forEach((name, value) -> logger.debug("  {}: {}", name, value));
+        logger.info("fast path - git repository is opened on demand only");
+        final String headRef = gitDirectory.getHeadRef();
+        return new GitSituation(gitDirectory.getWorkTree(), ciEnvironment.rev, () -> {
+            logger.debug("open git repository {}", gitDirectory.getGitDir());
+            configureJGit(mvnDirectory);
+            return GitRepositoryPool.open(gitDirectory.getGitDir());
+        }) {
+            {
+                if (ciEnvironment.branch != null) {
+                    setBranch(ciEnvironment.branch);
+                } else {
+                    setBranch(headRef != null && headRef.startsWith("refs/heads/") ? headRef : null);
+                    // same as regular path, other tags of HEAD are read on demand
+                    addTag(ciEnvironment.tag);
                 }
-                break;
-                case BRANCH: {
-                    if (!gitSituation.isDetached()) {
-                        String branch = gitSituation.getBranch();
-                        if (refConfig.pattern == null || refConfig.pattern().matcher(branch).matches()) {
-                            return new GitVersionDetails(gitSituation.getRev(), BRANCH, branch, refConfig);
-                        }
-                    }
+                if (ciEnvironment.timestamp != null) {
+                    setTimestamp(ciEnvironment.timestamp);
                 }
-                break;
-                default:
-                    throw new IllegalArgumentException("Unexpected ref type: " + refConfig.type);
             }
+        };
+    }
+
+    /**
+     * @param gitDirectory git directory of project or null
+     * @return CI environment or null if fast path is not applicable, see {@link #getCiGitSituation(File)}
+     */
+    private CiEnvironment getFastPathCiEnvironment(GitDirectory gitDirectory) throws IOException {
+        if (gitDirectory == null
+                || getCommandOption(OPTION_NAME_GIT_BRANCH) != null
+                || getCommandOption(OPTION_NAME_GIT_TAG) != null
+                || getCommandOption(OPTION_NAME_GIT_REF) != null) {
+            return null;
+        }
+
+        final CiEnvironment ciEnvironment = CiEnvironment.detect();
+        if (ciEnvironment == null || ciEnvironment.rev == null
+                || (ciEnvironment.branch == null && ciEnvironment.tag == null)) {
+            return null;
+        }
+        if (ciEnvironment.timestamp == null) {
+            logger.debug("no fast path - CI environment provides no commit timestamp");
+            return null;
+        }
+        if (!ciEnvironment.rev.equals(gitDirectory.resolveHead())) {
+            logger.debug("no fast path - CI environment commit is not HEAD");
+            return null;
+        }
+        return ciEnvironment;
+    }
+
+    private static GitVersionDetails getGitVersionDetails(GitSituation gitSituation, Configuration config) {
+        final RefPatternMatcher refMatcher = new RefPatternMatcher(config.refs.list);
+
+        // first matching ref configuration wins
+        int branchMatchIndex = -1;
+        if (!gitSituation.isDetached()) {
+            branchMatchIndex = refMatcher.firstMatch(BRANCH, gitSituation.getBranch());
+        }
+
+        if (gitSituation.isDetached() || config.refs.considerTagsOnBranches) {
+            final int tagIndexLimit = branchMatchIndex != -1 ? branchMatchIndex : Integer.MAX_VALUE;
+            // avoid tag lookup if no tag ref configuration has a higher priority than matching branch ref configuration
+            if (refMatcher.hasRefConfig(TAG, tagIndexLimit)) {
+                final RefPatternMatcher.Match tagMatch = refMatcher.firstMatch(TAG, gitSituation.getTags(), tagIndexLimit);
+                if (tagMatch != null) {
+                    return new GitVersionDetails(gitSituation.getRev(), TAG, tagMatch.refName, refMatcher.refConfig(tagMatch.index));
+                }
+            }
+        }
+
+        if (branchMatchIndex != -1) {
+            return new GitVersionDetails(gitSituation.getRev(), BRANCH, gitSituation.getBranch(), refMatcher.refConfig(branchMatchIndex));
         }
 
         if (config.rev != null) {
@@ -823,19 +1077,43 @@ public class GitVersioningModelProcessor implements ModelProcessor {
         return null;
     }
 
-    private String getGitVersion(String versionFormat, String projectVersion) {
-        final Map<String, Supplier<String>> placeholderMap = generateFormatPlaceholderMap(projectVersion);
+    /**
+     * @param modulePath module path of versioned project, see {@link #modulePath(File)}
+     * @return <code>unchangedModuleVersion</code> format if defined and module did not change since describe tag,
+     * otherwise <code>version</code> format
+     */
+    private String versionFormat(PatchDescription patchDescription, Supplier<String> modulePath) {
+        if (patchDescription.unchangedModuleVersion != null && !isChangedModule(modulePath.get())) {
+            return patchDescription.unchangedModuleVersion;
+        }
+        return patchDescription.version;
+    }
 
-        return slugify(substituteText(versionFormat, placeholderMap));
+    /**
+     * @param modulePath module path of versioned project, see {@link #modulePath(File)}
+     */
+    private String getGitVersion(String versionFormat, String projectVersion, Supplier<String> modulePath) {
+        // placeholder values only depend on git situation, original version and module path, if referenced,
+        // so each combination is computed once
+        final String cacheModulePath = versionFormat.contains("${" + MODULE_PLACEHOLDER_PREFIX) ? modulePath.get() : null;
+        final Map<List<String>, String> gitVersions = gitVersionCache.computeIfAbsent(versionFormat, format -> new HashMap<>());
+        final List<String> cacheKey = asList(cacheModulePath, projectVersion);
+        String gitVersion = gitVersions.get(cacheKey);
+        if (gitVersion == null) {
+            final Map<String, Supplier<String>> placeholderMap = generateFormatPlaceholderMap(projectVersion, modulePath);
+            gitVersion = slugify(substituteText(versionFormat, placeholderMap));
+            gitVersions.put(cacheKey, gitVersion);
+        }
+        return gitVersion;
     }
 
-    private String getGitPropertyValue(String propertyFormat, String originalValue, String projectVersion) {
-        final Map<String, Supplier<String>> placeholderMap = generateFormatPlaceholderMap(projectVersion);
+    private String getGitPropertyValue(String propertyFormat, String originalValue, String projectVersion, Supplier<String> modulePath) {
+        final Map<String, Supplier<String>> placeholderMap = generateFormatPlaceholderMap(projectVersion, modulePath);
         placeholderMap.put("value", () -> originalValue);
         return substituteText(propertyFormat, placeholderMap);
     }
 
-    private Map<String, Supplier<String>> generateFormatPlaceholderMap(String projectVersion) {
+    private Map<String, Supplier<String>> generateFormatPlaceholderMap(String projectVersion, Supplier<String> modulePath) {
         final Map<String, Supplier<String>> placeholderMap = new HashMap<>(globalFormatPlaceholderMap);
 
         placeholderMap.put("version", Lazy.of(projectVersion));
@@ -879,6 +1157,17 @@ public class GitVersioningModelProcessor implements ModelProcessor {
         }
 
 
+        // module, only commits changing module directory are considered
+        placeholderMap.put(MODULE_PLACEHOLDER_PREFIX + "path", modulePath);
+        final Lazy<GitDescription> moduleDescription = Lazy.by(() -> gitSituation.getPathDescription(modulePath.get()));
+        placeholderMap.put(MODULE_PLACEHOLDER_PREFIX + "commit", Lazy.by(() -> moduleDescription.get().getCommit()));
+        placeholderMap.put(MODULE_PLACEHOLDER_PREFIX + "commit.short", Lazy.by(() -> moduleDescription.get().getCommit().substring(0, 7)));
+        placeholderMap.put(MODULE_PLACEHOLDER_PREFIX + "describe", Lazy.by(() -> moduleDescription.get().toString()));
+        placeholderMap.put(MODULE_PLACEHOLDER_PREFIX + "describe.tag", Lazy.by(() -> moduleDescription.get().getTag()));
+        placeholderMap.put(MODULE_PLACEHOLDER_PREFIX + "describe.distance", Lazy.by(() -> String.valueOf(moduleDescription.get().getDistance())));
+        placeholderMap.put(MODULE_PLACEHOLDER_PREFIX + "describe.distance.snapshot", Lazy.by(() -> (moduleDescription.get().getDistance() == 0 ? "" : "-SNAPSHOT")));
+        placeholderMap.put(MODULE_PLACEHOLDER_PREFIX + "changed", Lazy.by(() -> String.valueOf(isChangedModule(modulePath.get()))));
+
         return placeholderMap;
     }
 
@@ -889,6 +1178,12 @@ public class GitVersioningModelProcessor implements ModelProcessor {
         final Lazy<String> hash = Lazy.by(gitSituation::getRev);
         placeholderMap.put("commit", hash);
         placeholderMap.put("commit.short", Lazy.by(() -> hash.get().substring(0, 7)));
+        // commit counts are computed by bitmap index or commit-graph if available
+        placeholderMap.put("commit.count", Lazy.by(() -> String.valueOf(gitSituation.getCommitCount())));
+        placeholderMap.put("branch.distance", Lazy.by(() -> {
+            final Integer branchDistance = gitSituation.getBranchDistance();
+            return branchDistance != null ? String.valueOf(branchDistance) : null;
+        }));
 
         final Lazy<ZonedDateTime> headCommitDateTime = Lazy.by(gitSituation::getTimestamp);
         placeholderMap.put("commit.timestamp", Lazy.by(() -> String.valueOf(headCommitDateTime.get().toEpochSecond())));
@@ -968,6 +1263,7 @@ public class GitVersioningModelProcessor implements ModelProcessor {
         final Lazy<Integer> descriptionDistance = Lazy.by(() -> description.get().getDistance());
         placeholderMap.put("describe.distance", Lazy.by(() -> String.valueOf(descriptionDistance.get())));
         placeholderMap.put("describe.distance.snapshot", Lazy.by(() -> (descriptionDistance.get() == 0 ? "" : "-SNAPSHOT")));
+        placeholderMap.put("describe.truncated", Lazy.by(() -> String.valueOf(description.get().isTruncated())));
 
         placeholderMap.put("describe.tag.version.patch.plus.describe.distance", Lazy.by(() -> increase(placeholderMap.get("describe.tag.version.patch").get(), descriptionDistance.get())));
         placeholderMap.put("describe.tag.version.patch.next.plus.describe.distance", Lazy.by(() -> increase(placeholderMap.get("describe.tag.version.patch.next").get(), descriptionDistance.get())));
@@ -975,6 +1271,13 @@ public class GitVersioningModelProcessor implements ModelProcessor {
         placeholderMap.put("describe.tag.version.label.plus.describe.distance", Lazy.by(() -> increase(placeholderMap.get("describe.tag.version.label").get(), descriptionDistance.get())));
         placeholderMap.put("describe.tag.version.label.next.plus.describe.distance", Lazy.by(() -> increase(placeholderMap.get("describe.tag.version.label.next").get(), descriptionDistance.get())));
 
+        // highest version tag reachable, not the nearest one
+        final Lazy<String> highestTag = Lazy.by(gitSituation::getHighestTag);
+        placeholderMap.put("describe.tag.highest", highestTag);
+        placeholderMap.put("describe.tag.highest.version", Lazy.by(() -> highestTag.get() != null
+                ? requireNonNullElse(matchVersion(highestTag.get()).group("version"), "0.0.0")
+                : null));
+
         // describe tag pattern groups
         final Lazy<Map<String, String>> describeTagPatternValues = Lazy.by(
                 () -> patternGroupValues(gitSituation.getDescribeTagPattern(), descriptionTag.get()));
@@ -989,6 +1292,40 @@ public class GitVersioningModelProcessor implements ModelProcessor {
             placeholderMap.put(placeholderKey + ".slug", Lazy.by(() -> slugify(groupValue.get())));
         }
 
+        // named describe tag patterns e.g. ${describe[release].tag}
+        for (Entry<String, Pattern> namedDescribeTagPattern : gitSituation.getNamedDescribeTagPatterns().entrySet()) {
+            final String placeholderKey = "describe[" + namedDescribeTagPattern.getKey() + "]";
+            final Lazy<GitDescription> namedDescription = Lazy.by(() -> gitSituation.getDescription(namedDescribeTagPattern.getKey()));
+            placeholderMap.put(placeholderKey, Lazy.by(() -> namedDescription.get().toString()));
+            final Lazy<String> namedDescriptionTag = Lazy.by(() -> namedDescription.get().getTag());
+            placeholderMap.put(placeholderKey + ".tag", namedDescriptionTag);
+
+            final Lazy<Matcher> namedDescriptionTagVersionMatcher = Lazy.by(() -> matchVersion(namedDescriptionTag.get()));
+            placeholderMap.put(placeholderKey + ".tag.version", Lazy.by(() -> requireNonNullElse(namedDescriptionTagVersionMatcher.get().group("version"), "0.0.0")));
+            placeholderMap.put(placeholderKey + ".tag.version.core", Lazy.by(() -> requireNonNullElse(namedDescriptionTagVersionMatcher.get().group("core"), "0")));
+            placeholderMap.put(placeholderKey + ".tag.version.major", Lazy.by(() -> requireNonNullElse(namedDescriptionTagVersionMatcher.get().group("major"), "0")));
+            placeholderMap.put(placeholderKey + ".tag.version.minor", Lazy.by(() -> requireNonNullElse(namedDescriptionTagVersionMatcher.get().group("minor"), "0")));
+            placeholderMap.put(placeholderKey + ".tag.version.patch", Lazy.by(() -> requireNonNullElse(namedDescriptionTagVersionMatcher.get().group("patch"), "0")));
+            placeholderMap.put(placeholderKey + ".tag.version.label", Lazy.by(() -> requireNonNullElse(namedDescriptionTagVersionMatcher.get().group("label"), "")));
+
+            placeholderMap.put(placeholderKey + ".distance", Lazy.by(() -> String.valueOf(namedDescription.get().getDistance())));
+            placeholderMap.put(placeholderKey + ".distance.snapshot", Lazy.by(() -> (namedDescription.get().getDistance() == 0 ? "" : "-SNAPSHOT")));
+            placeholderMap.put(placeholderKey + ".truncated", Lazy.by(() -> String.valueOf(namedDescription.get().isTruncated())));
+
+            final Lazy<Map<String, String>> namedDescribeTagPatternValues = Lazy.by(
+                    () -> patternGroupValues(namedDescribeTagPattern.getValue(), namedDescriptionTag.get()));
+            for (String groupName : patternGroups(namedDescribeTagPattern.getValue())) {
+                final var groupPlaceholderKey = placeholderKey + ".tag." + groupName;
+                // ensure no placeholder overwrites
+                if (placeholderMap.containsKey(groupPlaceholderKey)) {
+                    throw new IllegalArgumentException("describe tag pattern capture group can not be named '" + groupName + "', because this would overwrite extension placeholder ${" + groupPlaceholderKey + "}");
+                }
+                Lazy<String> groupValue = Lazy.by(() -> namedDescribeTagPatternValues.get().get(groupName));
+                placeholderMap.put(groupPlaceholderKey, groupValue);
+                placeholderMap.put(groupPlaceholderKey + ".slug", Lazy.by(() -> slugify(groupValue.get())));
+            }
+        }
+
         // command parameters e.g. mvn -Dfoo=123 will be available as ${property.foo}
         for (Entry<Object, Object> property : mavenSession.getUserProperties().entrySet()) {
             if (property.getValue() != null) {
@@ -1026,26 +1363,16 @@ public class GitVersioningModelProcessor implements ModelProcessor {
     }
 
     private static Configuration readConfig(File configFile) throws IOException {
-        final XmlMapper xmlMapper = XmlMapper.builder().enable(ACCEPT_CASE_INSENSITIVE_ENUMS).build();
-
-        final Configuration config = xmlMapper.readValue(configFile, Configuration.class);
+        final Configuration config = ConfigurationReader.read(configFile);
 
-        // consider global config
-        List<PatchDescription> patchDescriptions = new ArrayList<>(config.refs.list);
+        // compile patterns once upfront, this also reports invalid patterns right away
         if (config.rev != null) {
-            patchDescriptions.add(config.rev);
-        }
-        for (PatchDescription patchDescription : patchDescriptions) {
-            if (patchDescription.describeTagPattern == null) {
-                patchDescription.describeTagPattern = config.describeTagPattern;
-            }
-            if (patchDescription.describeTagFirstParent == null) {
-                patchDescription.describeTagFirstParent = config.describeTagFirstParent;
-            }
-            if (patchDescription.updatePom == null) {
-                patchDescription.updatePom = config.updatePom;
-            }
+            config.rev.describeTagPattern();
         }
+        config.refs.list.forEach(PatchDescription::describeTagPattern);
+        config.refs.list.forEach(RefPatchDescription::pattern);
+        config.describeTagPatterns();
+        config.projectVersionPattern();
 
         return config;
     }
@@ -1082,33 +1409,56 @@ public class GitVersioningModelProcessor implements ModelProcessor {
 
     // ---- determine related projects ---------------------------------------------------------------------------------
 
-    private Set<GAV> determineRelatedProjects(Model projectModel) throws IOException {
-        final HashSet<GAV> relatedProjects = new HashSet<>();
-        determineRelatedProjects(projectModel, relatedProjects);
+    private void initRelatedProjects(Model projectModel) {
+        relatedProjects = new HashSet<>();
+        relatedProjectDirectories = new HashMap<>();
+        unresolvedRelatedProjectModels = new ArrayDeque<>();
+        changedModulePaths = null;
         config.relatedProjects.stream()
                 .map(it -> new GAV(it.groupId, it.artifactId, "*"))
-                .forEach(relatedProjects::add);
-        return relatedProjects;
+                .forEach(this::addRelatedProject);
+        addRelatedProject(projectModel);
     }
 
-    private void determineRelatedProjects(Model projectModel, Set<GAV> relatedProjects) throws IOException {
-        final GAV projectGAV = GAV.of(projectModel);
-        if (relatedProjects.contains(projectGAV)) {
-            return;
+    private boolean addRelatedProject(Model projectModel) {
+        relatedProjectDirectories.putIfAbsent(GAV.of(projectModel), projectModel.getProjectDirectory());
+        if (!addRelatedProject(GAV.of(projectModel))) {
+            return false;
         }
+        unresolvedRelatedProjectModels.add(projectModel);
+        return true;
+    }
 
-        // add self
-        relatedProjects.add(projectGAV);
+    private boolean addRelatedProject(GAV projectGAV) {
+        if (!relatedProjects.add(projectGAV)) {
+            return false;
+        }
+        logger.debug("related project: {}", projectGAV);
+        return true;
+    }
+
+    /**
+     * Resolves parent and module references of the next unresolved related project model.
+     *
+     * @return false if all related projects are already resolved
+     */
+    private boolean resolveNextRelatedProjects() throws IOException {
+        final Model projectModel = unresolvedRelatedProjectModels.poll();
+        if (projectModel == null) {
+            return false;
+        }
 
         // check for related parent project by parent tag
         if (projectModel.getParent() != null) {
             final GAV parentGAV = GAV.of(projectModel.getParent());
-            final File parentProjectPomFile = getParentProjectPomFile(projectModel);
-            if (isRelatedPom(parentProjectPomFile)) {
-                final Model parentProjectModel = readModel(parentProjectPomFile);
-                final GAV parentProjectGAV = GAV.of(parentProjectModel);
-                if (parentProjectGAV.equals(parentGAV)) {
-                    determineRelatedProjects(parentProjectModel, relatedProjects);
+            if (!relatedProjects.contains(parentGAV)) {
+                final File parentProjectPomFile = getParentProjectPomFile(projectModel);
+                if (isRelatedPom(parentProjectPomFile)) {
+                    final Model parentProjectModel = readRelatedModel(parentProjectPomFile);
+                    final GAV parentProjectGAV = GAV.of(parentProjectModel);
+                    if (parentProjectGAV.equals(parentGAV)) {
+                        addRelatedProject(parentProjectModel);
+                    }
                 }
             }
         }
@@ -1116,19 +1466,90 @@ public class GitVersioningModelProcessor implements ModelProcessor {
         // check for related parent project within parent directory
         final Model parentProjectModel = searchParentProjectInParentDirectory(projectModel);
         if (parentProjectModel != null) {
-            determineRelatedProjects(parentProjectModel, relatedProjects);
+            addRelatedProject(parentProjectModel);
         }
 
         //  process modules
         for (File modulePomFile : getProjectModules(projectModel)) {
-            Model moduleProjectModel = readModel(modulePomFile);
-            determineRelatedProjects(moduleProjectModel, relatedProjects);
+            Model moduleProjectModel = readRelatedModel(modulePomFile);
+            addRelatedProject(moduleProjectModel);
+        }
+
+        return true;
+    }
+
+    private Model readRelatedModel(File pomFile) throws IOException {
+        final Path canonicalPomFile = pathResolver.canonicalPath(pomFile);
+        Model model = relatedModelCache.get(canonicalPomFile);
+        if (model == null) {
+            model = readModel(pomFile);
+            relatedModelCache.put(canonicalPomFile, model);
         }
+        return model;
     }
 
     private boolean isRelatedProject(GAV project) {
-        return relatedProjects.contains(project)
-                || relatedProjects.contains(new GAV(project.getGroupId(), project.getArtifactId(), "*"));
+        final GAV projectWildcard = new GAV(project.getGroupId(), project.getArtifactId(), "*");
+        try {
+            do {
+                if (relatedProjects.contains(project) || relatedProjects.contains(projectWildcard)) {
+                    return true;
+                }
+            } while (resolveNextRelatedProjects());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return false;
+    }
+
+    private boolean isRelatedProject(String groupId, String artifactId, String version) {
+        return isRelatedProject(new GAV(groupId, artifactId, version));
+    }
+
+    private boolean isChangedModule(String modulePath) {
+        if (changedModulePaths == null) {
+            try {
+                changedModulePaths = changedModulePaths();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return changedModulePaths.contains(modulePath);
+    }
+
+    /**
+     * Resolves all related projects and diffs their module directories at once.
+     *
+     * @return module paths of related projects changed since describe tag
+     */
+    private Set<String> changedModulePaths() throws IOException {
+        //noinspection StatementWithEmptyBody
+        while (resolveNextRelatedProjects()) {
+            // resolve all related projects
+        }
+        final Set<String> modulePaths = new HashSet<>();
+        for (File projectDirectory : relatedProjectDirectories.values()) {
+            modulePaths.add(modulePath(projectDirectory));
+        }
+        final Set<String> changedModulePaths = gitSituation.getChangedPaths(modulePaths);
+        logger.info("changed modules since {}: {}", gitSituation.getDescription().getTag(), changedModulePaths);
+        return changedModulePaths;
+    }
+
+    /**
+     * @return module path of related project, git root directory if project directory is unknown
+     */
+    private String modulePath(GAV project) throws IOException {
+        final File projectDirectory = relatedProjectDirectories.get(project);
+        return projectDirectory != null ? modulePath(projectDirectory) : "";
+    }
+
+    /**
+     * @return project directory path relative to git root directory, with <code>/</code> separators
+     */
+    private String modulePath(File projectDirectory) throws IOException {
+        return canonicalGitRootDirectory.relativize(pathResolver.canonicalPath(projectDirectory)).toString()
+                .replace(File.separatorChar, '/');
     }
 
 
@@ -1144,9 +1565,19 @@ public class GitVersioningModelProcessor implements ModelProcessor {
                 && pomFile.isFile()
                 // only project pom files ends in .xml, pom files from dependencies from repositories ends in .pom
                 && pomFile.getName().endsWith(".xml")
-                && pomFile.getCanonicalPath().startsWith(mvnDirectory.getParentFile().getCanonicalPath() + File.separator)
-                // only pom files within git directory are treated as project pom files
-                && pomFile.getCanonicalPath().startsWith(gitSituation.getRootDirectory().getCanonicalPath() + File.separator);
+                && isProjectContextPath(pathResolver.canonicalPath(pomFile));
+    }
+
+    /**
+     * checks if <code>canonicalPath</code> is located within current maven and git context
+     *
+     * @param canonicalPath the canonical file path
+     * @return true if <code>canonicalPath</code> is located within current maven and git context
+     */
+    private boolean isProjectContextPath(Path canonicalPath) {
+        return isWithin(canonicalPath, canonicalMvnRootDirectory)
+                // only files within git directory are treated as project files
+                && isWithin(canonicalPath, canonicalGitRootDirectory);
     }
 
     private Model searchParentProjectInParentDirectory(Model projectModel) throws IOException {
@@ -1154,9 +1585,10 @@ public class GitVersioningModelProcessor implements ModelProcessor {
         File parentDirectoryPomFile = pomFile(projectModel.getProjectDirectory().getParentFile(), "pom.xml");
         if (parentDirectoryPomFile.exists() && isRelatedPom(parentDirectoryPomFile)) {
             // check if parent has module that points to current project directory
-            Model parentDirectoryProjectModel = readModel(parentDirectoryPomFile);
+            Model parentDirectoryProjectModel = readRelatedModel(parentDirectoryPomFile);
+            File canonicalProjectPomFile = pathResolver.canonicalFile(projectModel.getPomFile());
             for (File modulePomFile : getProjectModules(parentDirectoryProjectModel)) {
-                if (modulePomFile.getCanonicalFile().equals(projectModel.getPomFile().getCanonicalFile())) {
+                if (modulePomFile.equals(canonicalProjectPomFile)) {
                     return parentDirectoryProjectModel;
                 }
             }
@@ -1177,12 +1609,15 @@ public class GitVersioningModelProcessor implements ModelProcessor {
         return null;
     }
 
-    private static Set<File> getProjectModules(Model projectModel) {
+    /**
+     * @return canonical module pom files
+     */
+    private Set<File> getProjectModules(Model projectModel) throws IOException {
         final Set<File> modules = new HashSet<>();
 
         // modules section
         for (String module : projectModel.getModules()) {
-            modules.add(pomFile(projectModel.getProjectDirectory(), module));
+            modules.add(pathResolver.canonicalFile(pomFile(projectModel.getProjectDirectory(), module)));
         }
 
         // profiles section
@@ -1190,7 +1625,7 @@ public class GitVersioningModelProcessor implements ModelProcessor {
 
             // modules section
             for (String module : profile.getModules()) {
-                modules.add(pomFile(projectModel.getProjectDirectory(), module));
+                modules.add(pathResolver.canonicalFile(pomFile(projectModel.getProjectDirectory(), module)));
             }
         }
 
@@ -1200,7 +1635,7 @@ public class GitVersioningModelProcessor implements ModelProcessor {
 
     // ---- generate git versioned pom file ----------------------------------------------------------------------------
 
-    private File writePomFile(Model projectModel) throws IOException {
+    private File writePomFile(Model projectModel, Map<List<?>, BitSet> versionUpdates) throws IOException {
         File gitVersionedPomFile = new File(projectModel.getProjectDirectory(), GIT_VERSIONING_POM_NAME);
         logger.debug("generate {}", gitVersionedPomFile);
 
@@ -1213,10 +1648,10 @@ public class GitVersioningModelProcessor implements ModelProcessor {
         updateParentVersion(projectElement, projectModel.getParent());
         updateVersion(projectElement, projectModel);
         updatePropertyValues(projectElement, projectModel);
-        updateDependencyVersions(projectElement, projectModel);
-        updatePluginVersions(projectElement, projectModel.getBuild(), projectModel.getReporting());
+        updateDependencyVersions(projectElement, projectModel, versionUpdates);
+        updatePluginVersions(projectElement, projectModel.getBuild(), projectModel.getReporting(), versionUpdates);
 
-        updateProfiles(projectElement, projectModel.getProfiles());
+        updateProfiles(projectElement, projectModel.getProfiles(), versionUpdates);
 
         writeXml(gitVersionedPomFile, gitVersionedPomDocument);
 
@@ -1253,12 +1688,12 @@ public class GitVersioningModelProcessor implements ModelProcessor {
         }
     }
 
-    private static void updateDependencyVersions(Element element, ModelBase model) {
+    private static void updateDependencyVersions(Element element, ModelBase model, Map<List<?>, BitSet> versionUpdates) {
         // dependencies section
         {
             Element dependenciesElement = element.getChild("dependencies");
             if (dependenciesElement != null) {
-                updateDependencyVersions(dependenciesElement, model.getDependencies());
+                updateDependencyVersions(dependenciesElement, model.getDependencies(), versionUpdates.get(model.getDependencies()));
             }
         }
         // dependencyManagement section
@@ -1266,13 +1701,23 @@ public class GitVersioningModelProcessor implements ModelProcessor {
         if (dependencyManagementElement != null) {
             Element dependenciesElement = dependencyManagementElement.getChild("dependencies");
             if (dependenciesElement != null) {
-                updateDependencyVersions(dependenciesElement, model.getDependencyManagement().getDependencies());
+                List<Dependency> dependencies = model.getDependencyManagement().getDependencies();
+                updateDependencyVersions(dependenciesElement, dependencies, versionUpdates.get(dependencies));
             }
         }
     }
 
-    private static void updateDependencyVersions(Element dependenciesElement, List<Dependency> dependencies) {
-        forEachPair(dependenciesElement.getChildren(), dependencies, (dependencyElement, dependency) -> {
+    private static void updateDependencyVersions(Element dependenciesElement, List<Dependency> dependencies, BitSet updatedIndexes) {
+        if (updatedIndexes == null) {
+            return;
+        }
+        List<Element> dependencyElements = dependenciesElement.getChildren();
+        if (dependencyElements.size() != dependencies.size()) {
+            throw new IllegalArgumentException("Unexpected difference of xml and model dependencies count");
+        }
+        for (int index = updatedIndexes.nextSetBit(0); index >= 0; index = updatedIndexes.nextSetBit(index + 1)) {
+            Element dependencyElement = dependencyElements.get(index);
+            Dependency dependency = dependencies.get(index);
             // sanity check
             if (!Objects.equals(dependency.getManagementKey(), getDependencyManagementKey(dependencyElement))) {
                 throw new IllegalArgumentException("Unexpected difference of xml and model dependencies order");
@@ -1282,7 +1727,7 @@ public class GitVersioningModelProcessor implements ModelProcessor {
             if (dependencyVersionElement != null) {
                 dependencyVersionElement.setText(dependency.getVersion());
             }
-        });
+        }
     }
 
     private static String getDependencyManagementKey(Element element) {
@@ -1296,7 +1741,7 @@ public class GitVersioningModelProcessor implements ModelProcessor {
                 + (classifier != null ? ":" + classifier.getText().trim() : "");
     }
 
-    private static void updatePluginVersions(Element projectElement, BuildBase build, Reporting reporting) {
+    private static void updatePluginVersions(Element projectElement, BuildBase build, Reporting reporting, Map<List<?>, BitSet> versionUpdates) {
         // build section
         Element buildElement = projectElement.getChild("build");
         if (buildElement != null) {
@@ -1304,7 +1749,7 @@ public class GitVersioningModelProcessor implements ModelProcessor {
             {
                 Element pluginsElement = buildElement.getChild("plugins");
                 if (pluginsElement != null) {
-                    updatePluginVersions(pluginsElement, build.getPlugins());
+                    updatePluginVersions(pluginsElement, build.getPlugins(), versionUpdates.get(build.getPlugins()));
                 }
             }
             // pluginManagement section
@@ -1312,7 +1757,8 @@ public class GitVersioningModelProcessor implements ModelProcessor {
             if (pluginsManagementElement != null) {
                 Element pluginsElement = pluginsManagementElement.getChild("plugins");
                 if (pluginsElement != null) {
-                    updatePluginVersions(pluginsElement, build.getPluginManagement().getPlugins());
+                    List<Plugin> plugins = build.getPluginManagement().getPlugins();
+                    updatePluginVersions(pluginsElement, plugins, versionUpdates.get(plugins));
                 }
             }
         }
@@ -1323,14 +1769,23 @@ public class GitVersioningModelProcessor implements ModelProcessor {
             {
                 Element pluginsElement = reportingElement.getChild("plugins");
                 if (pluginsElement != null) {
-                    updateReportPluginVersions(pluginsElement, reporting.getPlugins());
+                    updateReportPluginVersions(pluginsElement, reporting.getPlugins(), versionUpdates.get(reporting.getPlugins()));
                 }
             }
         }
     }
 
-    private static void updatePluginVersions(Element pluginsElement, List<Plugin> plugins) {
-        forEachPair(pluginsElement.getChildren(), plugins, (pluginElement, plugin) -> {
+    private static void updatePluginVersions(Element pluginsElement, List<Plugin> plugins, BitSet updatedIndexes) {
+        if (updatedIndexes == null) {
+            return;
+        }
+        List<Element> pluginElements = pluginsElement.getChildren();
+        if (pluginElements.size() != plugins.size()) {
+            throw new IllegalArgumentException("Unexpected difference of xml and model plugin count");
+        }
+        for (int index = updatedIndexes.nextSetBit(0); index >= 0; index = updatedIndexes.nextSetBit(index + 1)) {
+            Element pluginElement = pluginElements.get(index);
+            Plugin plugin = plugins.get(index);
             // sanity check
             if (!Objects.equals(plugin.getKey(), getPluginKey(pluginElement))) {
                 throw new IllegalArgumentException("Unexpected difference of xml and model plugin order");
@@ -1340,11 +1795,20 @@ public class GitVersioningModelProcessor implements ModelProcessor {
             if (pluginVersionElement != null) {
                 pluginVersionElement.setText(plugin.getVersion());
             }
-        });
+        }
     }
 
-    private static void updateReportPluginVersions(Element pluginsElement, List<ReportPlugin> plugins) {
-        forEachPair(pluginsElement.getChildren(), plugins, (pluginElement, plugin) -> {
+    private static void updateReportPluginVersions(Element pluginsElement, List<ReportPlugin> plugins, BitSet updatedIndexes) {
+        if (updatedIndexes == null) {
+            return;
+        }
+        List<Element> pluginElements = pluginsElement.getChildren();
+        if (pluginElements.size() != plugins.size()) {
+            throw new IllegalArgumentException("Unexpected difference of xml and model report plugin count");
+        }
+        for (int index = updatedIndexes.nextSetBit(0); index >= 0; index = updatedIndexes.nextSetBit(index + 1)) {
+            Element pluginElement = pluginElements.get(index);
+            ReportPlugin plugin = plugins.get(index);
             // sanity check
             if (!Objects.equals(plugin.getKey(), getPluginKey(pluginElement))) {
                 throw new IllegalArgumentException("Unexpected difference of xml and model report plugin order");
@@ -1354,7 +1818,7 @@ public class GitVersioningModelProcessor implements ModelProcessor {
             if (pluginVersionElement != null) {
                 pluginVersionElement.setText(plugin.getVersion());
             }
-        });
+        }
     }
 
     private static String getPluginKey(Element element) {
@@ -1364,7 +1828,7 @@ public class GitVersioningModelProcessor implements ModelProcessor {
                 + ":" + (artifactId != null ? artifactId.getText().trim() : "");
     }
 
-    private void updateProfiles(Element projectElement, List<Profile> profiles) {
+    private void updateProfiles(Element projectElement, List<Profile> profiles, Map<List<?>, BitSet> versionUpdates) {
         Element profilesElement = projectElement.getChild("profiles");
         if (profilesElement != null) {
             Map<String, Profile> profileMap = profiles.stream()
@@ -1373,8 +1837,8 @@ public class GitVersioningModelProcessor implements ModelProcessor {
                 String profileId = profileElement.getChild("id").getText().trim();
                 Profile profile = profileMap.get(profileId);
                 updatePropertyValues(profileElement, profile);
-                updateDependencyVersions(profileElement, profile);
-                updatePluginVersions(profileElement, profile.getBuild(), profile.getReporting());
+                updateDependencyVersions(profileElement, profile, versionUpdates);
+                updatePluginVersions(profileElement, profile.getBuild(), profile.getReporting(), versionUpdates);
             }
         }
     }
@@ -1421,18 +1885,6 @@ public class GitVersioningModelProcessor implements ModelProcessor {
 
     // ---- utils ------------------------------------------------------------------------------------------------------
 
-    public static <T1, T2> void forEachPair(Collection<T1> collection1, Collection<T2> collection2, BiConsumer<T1, T2> consumer) {
-        if (collection1.size() != collection2.size()) {
-            throw new IllegalArgumentException("Collections sizes are not equals");
-        }
-
-        Iterator<T1> iter1 = collection1.iterator();
-        Iterator<T2> iter2 = collection2.iterator();
-        while (iter1.hasNext() && iter2.hasNext()) {
-            consumer.accept(iter1.next(), iter2.next());
-        }
-    }
-
     private static String slugify(String value) {
         if (value == null) {
             return "";
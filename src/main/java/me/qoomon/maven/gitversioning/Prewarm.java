@@ -0,0 +1,51 @@
+package me.qoomon.maven.gitversioning;
+
+import java.io.File;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Background task, started before the config file is known for sure,
+ * its result is used only if it has been computed for the expected config file.
+ *
+ * @param <T> result type
+ */
+final class Prewarm<T> {
+
+    private final File configFile;
+    private final FutureTask<T> task;
+
+    private Prewarm(File configFile, Callable<T> callable) {
+        this.configFile = requireNonNull(configFile);
+        this.task = new FutureTask<>(callable);
+    }
+
+    /**
+     * @param configFile config file the result is computed for
+     * @param callable   task
+     * @param threadName name of daemon thread the task runs on
+     * @return started pre-warm
+     */
+    static <T> Prewarm<T> start(File configFile, Callable<T> callable, String threadName) {
+        final Prewarm<T> prewarm = new Prewarm<>(configFile, callable);
+        final Thread thread = new Thread(prewarm.task, threadName);
+        thread.setDaemon(true);
+        thread.start();
+        return prewarm;
+    }
+
+    /**
+     * Waits for pre-warm to finish.
+     *
+     * @param expectedConfigFile expected config file
+     * @return result or null if pre-warm used another config file
+     * @throws ExecutionException if pre-warm failed
+     */
+    T join(File expectedConfigFile) throws ExecutionException, InterruptedException {
+        final T result = task.get();
+        return configFile.equals(expectedConfigFile) ? result : null;
+    }
+}
@@ -0,0 +1,137 @@
+package me.qoomon.maven.gitversioning;
+
+import me.qoomon.gitversioning.commons.GitRefType;
+import me.qoomon.maven.gitversioning.Configuration.RefPatchDescription;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static me.qoomon.gitversioning.commons.GitRefType.BRANCH;
+import static me.qoomon.gitversioning.commons.GitRefType.TAG;
+import static me.qoomon.gitversioning.commons.StringUtil.patternLiteralPrefix;
+
+/**
+ * Matches ref names against an ordered list of ref configurations, first matching configuration wins.
+ * <p>
+ * Ref patterns are dispatched by their literal prefix, so only patterns with a prefix of the ref name are evaluated
+ * and shared prefixes are checked only once.
+ */
+final class RefPatternMatcher {
+
+    private final List<RefPatchDescription> refConfigs;
+    private final Map<GitRefType, PrefixNode> prefixTrees = new HashMap<>();
+
+    RefPatternMatcher(List<RefPatchDescription> refConfigs) {
+        this.refConfigs = refConfigs;
+        for (int index = 0; index < refConfigs.size(); index++) {
+            RefPatchDescription refConfig = refConfigs.get(index);
+            if (refConfig.type != BRANCH && refConfig.type != TAG) {
+                throw new IllegalArgumentException("Unexpected ref type: " + refConfig.type);
+            }
+            Pattern pattern = refConfig.pattern();
+            String prefix = pattern != null ? patternLiteralPrefix(pattern) : "";
+            prefixTrees.computeIfAbsent(refConfig.type, type -> new PrefixNode())
+                    .add(prefix, index);
+        }
+    }
+
+    /**
+     * @param type    ref type
+     * @param refName ref name
+     * @return index of first ref configuration of given <code>type</code> that matches <code>refName</code>
+     * or -1 if none is matching
+     */
+    int firstMatch(GitRefType type, String refName) {
+        return firstMatch(type, refName, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param type       ref type
+     * @param refNames   ref names in order of precedence
+     * @param indexLimit only ref configurations with a lower index are considered
+     * @return first match of the first matching ref configuration of given <code>type</code>
+     * or null if none is matching
+     */
+    Match firstMatch(GitRefType type, Collection<String> refNames, int indexLimit) {
+        Match match = null;
+        for (String refName : refNames) {
+            // only a ref configuration with higher priority can replace current match
+            int index = firstMatch(type, refName, match != null ? match.index : indexLimit);
+            if (index >= 0) {
+                match = new Match(index, refName);
+            }
+        }
+        return match;
+    }
+
+    /**
+     * @param type       ref type
+     * @param indexLimit only ref configurations with a lower index are considered
+     * @return true if there is any ref configuration of given <code>type</code>
+     */
+    boolean hasRefConfig(GitRefType type, int indexLimit) {
+        for (int index = 0; index < indexLimit && index < refConfigs.size(); index++) {
+            if (refConfigs.get(index).type == type) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    RefPatchDescription refConfig(int index) {
+        return refConfigs.get(index);
+    }
+
+    private int firstMatch(GitRefType type, String refName, int indexLimit) {
+        PrefixNode node = prefixTrees.get(type);
+        int firstMatchIndex = -1;
+        int charIndex = 0;
+        while (node != null) {
+            for (int index : node.indexes) {
+                if (index >= indexLimit) {
+                    // indexes are in ascending order
+                    break;
+                }
+                Pattern pattern = refConfigs.get(index).pattern();
+                if (pattern == null || pattern.matcher(refName).matches()) {
+                    firstMatchIndex = index;
+                    indexLimit = index;
+                    break;
+                }
+            }
+            if (charIndex >= refName.length()) {
+                break;
+            }
+            node = node.children.get(refName.charAt(charIndex++));
+        }
+        return firstMatchIndex;
+    }
+
+    static final class Match {
+        final int index;
+        final String refName;
+
+        Match(int index, String refName) {
+            this.index = index;
+            this.refName = refName;
+        }
+    }
+
+    private static final class PrefixNode {
+        private final Map<Character, PrefixNode> children = new HashMap<>();
+        // indexes of ref configurations with prefix of this node, in ascending order
+        private final List<Integer> indexes = new ArrayList<>();
+
+        void add(String prefix, int index) {
+            PrefixNode node = this;
+            for (int charIndex = 0; charIndex < prefix.length(); charIndex++) {
+                node = node.children.computeIfAbsent(prefix.charAt(charIndex), c -> new PrefixNode());
+            }
+            node.indexes.add(index);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package me.qoomon.gitversioning.commons;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.internal.storage.commitgraph.ChangedPathFilter;
+import org.eclipse.jgit.internal.storage.commitgraph.CommitGraph;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.revwalk.filter.RevFilter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.eclipse.jgit.lib.Constants.HEAD;
+import static org.eclipse.jgit.lib.Constants.MASTER;
+
+class ChangedPathRevFilterTest {
+
+    @TempDir
+    Path tempDir;
+
+    ObjectId head;
+
+    @Test
+    void include() throws Exception {
+        // given
+        Git git = givenRepository();
+
+        try (RevWalk walk = new RevWalk(git.getRepository())) {
+            // when
+            List<String> messages = walk(walk, new ChangedPathRevFilter(walk, null, "logic"));
+
+            // then
+            assertThat(messages).containsExactly("change logic/logic.txt", "change logic/logic.txt");
+        }
+    }
+
+    @Test
+    void include_clone() throws Exception {
+        // given
+        Git git = givenRepository();
+
+        try (RevWalk walk = new RevWalk(git.getRepository())) {
+            RevFilter givenFilter = new ChangedPathRevFilter(walk, null, "api");
+
+            // when
+            RevFilter clonedFilter = givenFilter.clone();
+
+            // then
+            assertThat(clonedFilter).isNotSameAs(givenFilter).isInstanceOf(ChangedPathRevFilter.class);
+            assertThat(walk(walk, clonedFilter)).isEqualTo(walk(walk, givenFilter))
+                    .containsExactly("change api/api.txt");
+        }
+    }
+
+    @Test
+    void include_unusableCommitGraph() throws Exception {
+        // given
+        Git git = givenRepository();
+        CommitGraph givenCommitGraph = new CommitGraph() {
+            @Override
+            public int findGraphPosition(AnyObjectId commit) {
+                throw new IllegalStateException("corrupt commit-graph");
+            }
+
+            @Override
+            public CommitData getCommitData(int graphPos) {
+                throw new IllegalStateException("corrupt commit-graph");
+            }
+
+            @Override
+            public ObjectId getObjectId(int graphPos) {
+                throw new IllegalStateException("corrupt commit-graph");
+            }
+
+            @Override
+            public ChangedPathFilter getChangedPathFilter(int graphPos) {
+                throw new IllegalStateException("corrupt commit-graph");
+            }
+
+            @Override
+            public long getCommitCnt() {
+                return 0;
+            }
+        };
+
+        try (RevWalk walk = new RevWalk(git.getRepository())) {
+            // when
+            List<String> messages = walk(walk, new ChangedPathRevFilter(walk, givenCommitGraph, "logic"));
+
+            // then
+            assertThat(messages).containsExactly("change logic/logic.txt", "change logic/logic.txt");
+        }
+    }
+
+    private Git givenRepository() throws Exception {
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+        Files.createDirectories(tempDir.resolve("api"));
+        Files.createDirectories(tempDir.resolve("logic"));
+        git.commit().setMessage("initial commit").setAllowEmpty(true).call();
+        commitFile(git, "api/api.txt", "api");
+        commitFile(git, "logic/logic.txt", "logic");
+        git.commit().setMessage("empty commit").setAllowEmpty(true).call();
+        commitFile(git, "logic/logic.txt", "logic 1");
+        head = git.getRepository().resolve(HEAD);
+        return git;
+    }
+
+    private List<String> walk(RevWalk walk, RevFilter filter) throws IOException {
+        walk.reset();
+        walk.setRevFilter(filter);
+        walk.markStart(walk.parseCommit(head));
+        List<String> messages = new ArrayList<>();
+        for (RevCommit commit : walk) {
+            messages.add(commit.getFullMessage());
+        }
+        return messages;
+    }
+
+    private static void commitFile(Git git, String path, String content) throws Exception {
+        Files.write(git.getRepository().getWorkTree().toPath().resolve(path), content.getBytes(UTF_8));
+        git.add().addFilepattern(path).call();
+        git.commit().setMessage("change " + path).call();
+    }
+}
@@ -0,0 +1,58 @@
+package me.qoomon.gitversioning.commons;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.eclipse.jgit.lib.Constants.MASTER;
+
+class CommitWalkTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void next() throws Exception {
+        // given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+        // avoid background gc on merge, it may still run on temp directory cleanup
+        git.getRepository().getConfig().setBoolean("gc", null, "autoDetach", false);
+        RevCommit givenRootCommit = git.commit().setMessage("initial commit").setAllowEmpty(true).call();
+        git.checkout().setCreateBranch(true).setName("feature").call();
+        RevCommit givenFeatureCommit = git.commit().setMessage("feature commit").setAllowEmpty(true).call();
+        git.checkout().setName(MASTER).call();
+        RevCommit givenCommit = git.commit().setMessage("commit").setAllowEmpty(true).call();
+        git.merge().include(givenFeatureCommit).setMessage("merge").call();
+        ObjectId givenMergeCommit = git.getRepository().resolve(MASTER);
+
+        // when
+        List<ObjectId> commits = walk(git, givenMergeCommit, false);
+        List<ObjectId> firstParentCommits = walk(git, givenMergeCommit, true);
+
+        // then
+        assertThat(commits).hasSize(4)
+                .startsWith(givenMergeCommit)
+                .endsWith(givenRootCommit)
+                .contains(givenCommit, givenFeatureCommit);
+        assertThat(firstParentCommits).containsExactly(givenMergeCommit, givenCommit, givenRootCommit);
+    }
+
+    private static List<ObjectId> walk(Git git, ObjectId start, boolean firstParent) throws Exception {
+        List<ObjectId> commits = new ArrayList<>();
+        try (CommitWalk walk = new CommitWalk(git.getRepository(), firstParent)) {
+            walk.markStart(start);
+            ObjectId commit;
+            while ((commit = walk.next()) != null) {
+                commits.add(commit);
+            }
+        }
+        return commits;
+    }
+}
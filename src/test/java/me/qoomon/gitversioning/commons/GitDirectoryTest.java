@@ -0,0 +1,105 @@
+package me.qoomon.gitversioning.commons;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.eclipse.jgit.lib.Constants.MASTER;
+
+class GitDirectoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void find_noGitDirectory() throws Exception {
+        // When
+        GitDirectory gitDirectory = GitDirectory.find(tempDir.toFile());
+
+        // Then
+        assertThat(gitDirectory).isNull();
+    }
+
+    @Test
+    void resolveHead_branch() throws Exception {
+        // Given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+        RevCommit givenCommit = git.commit().setMessage("init").setAllowEmpty(true).call();
+        File givenDirectory = Files.createDirectories(tempDir.resolve("module")).toFile();
+
+        // When
+        GitDirectory gitDirectory = GitDirectory.find(givenDirectory);
+
+        // Then
+        assertThat(gitDirectory.getWorkTree()).isEqualTo(tempDir.toFile());
+        assertThat(gitDirectory.getHeadRef()).isEqualTo("refs/heads/" + MASTER);
+        assertThat(gitDirectory.resolveHead()).isEqualTo(givenCommit.getName());
+    }
+
+    @Test
+    void resolveHead_packedRefs() throws Exception {
+        // Given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+        RevCommit givenCommit = git.commit().setMessage("init").setAllowEmpty(true).call();
+        Path gitDir = tempDir.resolve(".git");
+        Files.write(gitDir.resolve("packed-refs"), ("# pack-refs with: peeled fully-peeled sorted\n"
+                + givenCommit.getName() + " refs/heads/" + MASTER + "\n").getBytes(UTF_8));
+        Files.delete(gitDir.resolve("refs/heads/" + MASTER));
+
+        // When
+        GitDirectory gitDirectory = GitDirectory.find(tempDir.toFile());
+
+        // Then
+        assertThat(gitDirectory.resolveHead()).isEqualTo(givenCommit.getName());
+    }
+
+    @Test
+    void resolveHead_detachedHead() throws Exception {
+        // Given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+        RevCommit givenCommit = git.commit().setMessage("init").setAllowEmpty(true).call();
+        git.checkout().setName(givenCommit.getName()).call();
+
+        // When
+        GitDirectory gitDirectory = GitDirectory.find(tempDir.toFile());
+
+        // Then
+        assertThat(gitDirectory.getHeadRef()).isNull();
+        assertThat(gitDirectory.resolveHead()).isEqualTo(givenCommit.getName());
+    }
+
+    @Test
+    void resolveHead_emptyRepository() throws Exception {
+        // Given
+        Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+
+        // When
+        GitDirectory gitDirectory = GitDirectory.find(tempDir.toFile());
+
+        // Then
+        assertThat(gitDirectory.resolveHead()).isNull();
+    }
+
+    @Test
+    void find_gitFile() throws Exception {
+        // Given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.resolve("repository").toFile()).call();
+        RevCommit givenCommit = git.commit().setMessage("init").setAllowEmpty(true).call();
+        Path givenWorkTree = Files.createDirectories(tempDir.resolve("worktree"));
+        Files.write(givenWorkTree.resolve(".git"), "gitdir: ../repository/.git\n".getBytes(UTF_8));
+
+        // When
+        GitDirectory gitDirectory = GitDirectory.find(givenWorkTree.toFile());
+
+        // Then
+        assertThat(gitDirectory.getWorkTree()).isEqualTo(givenWorkTree.toFile());
+        assertThat(gitDirectory.resolveHead()).isEqualTo(givenCommit.getName());
+    }
+}
@@ -0,0 +1,73 @@
+package me.qoomon.gitversioning.commons;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Repository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GitRepositoryPoolTest {
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void closeRepositories() {
+        GitRepositoryPool.closeAll();
+    }
+
+    @Test
+    void open() throws Exception {
+        // given
+        Git.init().setDirectory(tempDir.toFile()).call().close();
+        File gitDir = tempDir.resolve(".git").toFile();
+
+        // when
+        Repository repository = GitRepositoryPool.open(gitDir);
+
+        // then
+        assertThat(repository.getDirectory()).isEqualTo(gitDir.getCanonicalFile());
+        assertThat(GitRepositoryPool.open(new File(tempDir.toFile(), "./.git"))).isSameAs(repository);
+    }
+
+    @Test
+    void closeAll() throws Exception {
+        // given
+        Git.init().setDirectory(tempDir.toFile()).call().close();
+        File gitDir = tempDir.resolve(".git").toFile();
+        Repository repository = GitRepositoryPool.open(gitDir);
+
+        // when
+        GitRepositoryPool.closeAll();
+
+        // then
+        assertThat(GitRepositoryPool.open(gitDir)).isNotSameAs(repository);
+    }
+
+    @Test
+    void worktreesFix_getCommonRepository_isShared() throws Exception {
+        // given
+        Path mainWorkTree = Files.createDirectories(tempDir.resolve("main"));
+        Git.init().setDirectory(mainWorkTree.toFile()).call().close();
+        // linked work tree git dir, like created by 'git worktree add'
+        Path linkedGitDir = Files.createDirectories(mainWorkTree.resolve(".git/worktrees/linked"));
+        Files.write(linkedGitDir.resolve("commondir"), "../..\n".getBytes(UTF_8));
+        Files.write(linkedGitDir.resolve("HEAD"), "ref: refs/heads/master\n".getBytes(UTF_8));
+        Repository linkedRepository = GitRepositoryPool.open(linkedGitDir.toFile());
+
+        // when
+        Repository commonRepository = GitUtil.worktreesFix_getCommonRepository(linkedRepository);
+
+        // then
+        assertThat(commonRepository.getDirectory()).isEqualTo(mainWorkTree.resolve(".git").toFile().getCanonicalFile());
+        assertThat(GitUtil.worktreesFix_getCommonRepository(linkedRepository)).isSameAs(commonRepository);
+    }
+}
@@ -8,7 +8,9 @@ import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static java.util.Collections.singletonList;
 import static me.qoomon.gitversioning.commons.GitUtil.NO_COMMIT;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.SoftAssertions.assertSoftly;
@@ -202,4 +204,73 @@ class GitSituationTest {
     }
 
 
-}
\ No newline at end of file
+
+    @Test
+    void situation_tagRefPrefixes() throws Exception {
+
+        // Given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+        git.commit().setMessage("initial commit").setAllowEmpty(true).call();
+        git.tag().setName("v1").call();
+        git.tag().setName("release-1").call();
+
+        GitSituation situation = new GitSituation(git.getRepository()) {{
+            addTag("ci-1");
+        }};
+        assertThat(situation.getTags()).containsExactlyInAnyOrder("release-1", "v1", "ci-1");
+
+        // When
+        situation.setTagRefPrefixes(singletonList("v"));
+
+        // Then
+        assertThat(situation.getTags()).containsExactly("v1", "ci-1");
+    }
+
+    @Test
+    void situation_repositoryOpenedOnDemand() throws Exception {
+
+        // Given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+        RevCommit givenCommit = git.commit().setMessage("initial commit").setAllowEmpty(true).call();
+
+        AtomicInteger repositoryOpenCount = new AtomicInteger();
+        GitSituation situation = new GitSituation(tempDir.toFile(), givenCommit.getName(), () -> {
+            repositoryOpenCount.incrementAndGet();
+            return git.getRepository();
+        });
+
+        // When
+        String rev = situation.getRev();
+
+        // Then
+        assertThat(rev).isEqualTo(givenCommit.getName());
+        assertThat(repositoryOpenCount).hasValue(0);
+        assertThat(situation.getBranch()).isEqualTo(MASTER);
+        assertThat(situation.getTimestamp().toEpochSecond()).isEqualTo(givenCommit.getCommitTime());
+        assertThat(repositoryOpenCount).hasValue(1);
+    }
+
+    @Test
+    void situation_commitCountAndBranchDistance() throws Exception {
+
+        // Given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+        git.commit().setMessage("init").setAllowEmpty(true).call();
+        git.commit().setMessage("commit 1").setAllowEmpty(true).call();
+        git.checkout().setCreateBranch(true).setName("feature").call();
+        git.commit().setMessage("feature commit 1").setAllowEmpty(true).call();
+        git.commit().setMessage("feature commit 2").setAllowEmpty(true).call();
+        git.commit().setMessage("feature commit 3").setAllowEmpty(true).call();
+
+        GitSituation situation = new GitSituation(git.getRepository());
+        GitSituation developSituation = new GitSituation(git.getRepository());
+        developSituation.setMainBranches(singletonList("develop"));
+
+        // Then
+        assertThat(situation).satisfies(it -> assertSoftly(softly -> {
+            softly.assertThat(it.getCommitCount()).isEqualTo(5);
+            softly.assertThat(it.getBranchDistance()).isEqualTo(3);
+        }));
+        assertThat(developSituation.getBranchDistance()).isNull();
+    }
+}
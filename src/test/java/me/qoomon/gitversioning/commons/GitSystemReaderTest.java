@@ -0,0 +1,116 @@
+package me.qoomon.gitversioning.commons;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.StoredConfig;
+import org.eclipse.jgit.storage.file.FileBasedConfig;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.util.SystemReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.eclipse.jgit.lib.ConfigConstants.CONFIG_FILESYSTEM_SECTION;
+import static org.eclipse.jgit.lib.ConfigConstants.CONFIG_KEY_MIN_RACY_THRESHOLD;
+import static org.eclipse.jgit.lib.ConfigConstants.CONFIG_KEY_TIMESTAMP_RESOLUTION;
+import static org.eclipse.jgit.lib.Constants.MASTER;
+
+class GitSystemReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void setFileStoreAttributes() throws Exception {
+        // Given
+        GitSystemReader systemReader = new GitSystemReader(SystemReader.getInstance());
+        systemReader.setJGitConfigFile(tempDir.resolve("jgit.config").toFile());
+
+        // When
+        systemReader.setFileStoreAttributes("10 milliseconds", "5 milliseconds");
+
+        // Then
+        String fileStoreKey = System.getProperty("java.vendor") + '|' + System.getProperty("java.version") + '|'
+                + Files.getFileStore(tempDir).name();
+        StoredConfig jgitConfig = systemReader.getJGitConfig();
+        assertThat(jgitConfig.getTimeUnit(CONFIG_FILESYSTEM_SECTION, fileStoreKey, CONFIG_KEY_TIMESTAMP_RESOLUTION, -1, MILLISECONDS))
+                .isEqualTo(10);
+        assertThat(jgitConfig.getTimeUnit(CONFIG_FILESYSTEM_SECTION, fileStoreKey, CONFIG_KEY_MIN_RACY_THRESHOLD, -1, MILLISECONDS))
+                .isEqualTo(5);
+    }
+
+    @Test
+    void setFileStoreAttributes_invalidTimeUnit() {
+        // Given
+        GitSystemReader systemReader = new GitSystemReader(SystemReader.getInstance());
+
+        // Then
+        assertThatThrownBy(() -> systemReader.setFileStoreAttributes("10 lightyears", null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void setJGitConfigFile() throws Exception {
+        // Given
+        File givenConfigFile = tempDir.resolve("jgit.config").toFile();
+        GitSystemReader systemReader = new GitSystemReader(SystemReader.getInstance());
+
+        // When
+        systemReader.setJGitConfigFile(givenConfigFile);
+        StoredConfig jgitConfig = systemReader.getJGitConfig();
+        jgitConfig.setString("test", null, "key", "value");
+        jgitConfig.save();
+
+        // Then
+        assertThat(givenConfigFile).content().contains("key = value");
+    }
+
+    @Test
+    void currentDelegate() {
+        // Given
+        SystemReader givenSystemReader = SystemReader.getInstance();
+        GitSystemReader systemReader = new GitSystemReader(new GitSystemReader(givenSystemReader));
+        SystemReader.setInstance(systemReader);
+        try {
+            // When
+            SystemReader delegate = GitSystemReader.currentDelegate();
+
+            // Then
+            assertThat(delegate).isSameAs(givenSystemReader);
+        } finally {
+            SystemReader.setInstance(givenSystemReader);
+        }
+    }
+
+    @Test
+    void hermetic() throws Exception {
+        // Given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+        StoredConfig givenRepositoryConfig = git.getRepository().getConfig();
+        givenRepositoryConfig.setString("test", null, "key", "value");
+        givenRepositoryConfig.save();
+
+        SystemReader givenSystemReader = SystemReader.getInstance();
+        GitSystemReader systemReader = new GitSystemReader(givenSystemReader);
+        systemReader.setHermetic(true);
+        SystemReader.setInstance(systemReader);
+        try {
+            // When
+            Repository repository = new FileRepositoryBuilder().findGitDir(tempDir.toFile()).build();
+
+            // Then
+            assertThat(repository.getConfig().getString("test", null, "key")).isEqualTo("value");
+            assertThat(((FileBasedConfig) systemReader.getUserConfig()).getFile()).isNull();
+            assertThat(((FileBasedConfig) systemReader.getSystemConfig()).getFile()).isNull();
+            assertThat(((FileBasedConfig) systemReader.getJGitConfig()).getFile()).isNull();
+        } finally {
+            SystemReader.setInstance(givenSystemReader);
+        }
+    }
+}
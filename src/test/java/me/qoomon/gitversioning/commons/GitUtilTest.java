@@ -2,22 +2,60 @@ package me.qoomon.gitversioning.commons;
 
 
 import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.ResetCommand.ResetType;
 import org.eclipse.jgit.api.Status;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.internal.storage.commitgraph.CommitGraph;
+import org.eclipse.jgit.internal.storage.file.FileRepository;
+import org.eclipse.jgit.internal.storage.file.GC;
+import org.eclipse.jgit.internal.storage.file.ObjectDirectory;
+import org.eclipse.jgit.internal.storage.file.RefDirectory;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.TagBuilder;
+import org.eclipse.jgit.lib.TreeFormatter;
 import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevSort;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.storage.file.WindowCacheConfig;
+import org.eclipse.jgit.storage.pack.PackConfig;
+import org.eclipse.jgit.util.SystemReader;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
 import static org.eclipse.jgit.lib.Constants.HEAD;
 import static org.eclipse.jgit.lib.Constants.MASTER;
+import static org.eclipse.jgit.lib.Constants.R_TAGS;
 
 class GitUtilTest {
 
@@ -150,6 +188,120 @@ class GitUtilTest {
         assertThat(tags).containsExactly(givenTagName2, givenTagName3, givenTagName1);
     }
 
+    @Test
+    void tagsPointAt_otherCommitTags() throws GitAPIException, IOException {
+
+        // given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+
+        RevCommit givenOtherCommit = git.commit().setMessage("initial commit").setAllowEmpty(true).call();
+        git.tag().setName("v0.1").setObjectId(givenOtherCommit).call();
+        git.tag().setName("v0.1-lightweight").setAnnotated(false).setObjectId(givenOtherCommit).call();
+        RevCommit givenCommit = git.commit().setMessage("commit").setAllowEmpty(true).call();
+        git.tag().setName("v1.0.0").setObjectId(givenCommit).call();
+
+        // when
+        List<String> tags = GitUtil.tagsPointAt(head(git), git.getRepository());
+
+        // then
+        assertThat(tags).containsExactly("v1.0.0");
+    }
+
+    @Test
+    void tagsPointAt_tagRefPrefixes() throws GitAPIException, IOException {
+
+        // given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+
+        RevCommit givenCommit = git.commit().setMessage("initial commit").setAllowEmpty(true).call();
+        git.tag().setName("v1.0.0").setObjectId(givenCommit).call();
+        git.tag().setName("nightly-1").setAnnotated(false).setObjectId(givenCommit).call();
+
+        // when
+        List<String> tags = GitUtil.tagsPointAt(head(git), git.getRepository(), singletonList("refs/tags/v"));
+
+        // then
+        assertThat(tags).containsExactly("v1.0.0");
+    }
+
+    @Test
+    void tagsPointAt_packedRefs() throws GitAPIException, IOException {
+
+        // given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+
+        RevCommit givenOtherCommit = git.commit().setMessage("initial commit").setAllowEmpty(true).call();
+        git.tag().setName("v0.1").setObjectId(givenOtherCommit).call();
+        RevCommit givenCommit = git.commit().setMessage("commit").setAllowEmpty(true).call();
+        git.tag().setName("v1.0.0").setObjectId(givenCommit).call();
+        git.tag().setName("v0.9").setAnnotated(false).setObjectId(givenCommit).call();
+        ((RefDirectory) git.getRepository().getRefDatabase()).pack(asList(
+                R_TAGS + "v0.1", R_TAGS + "v1.0.0", R_TAGS + "v0.9"));
+        git.tag().setName("v1.1").setAnnotated(false).setObjectId(givenCommit).call();
+
+        // when
+        List<String> tags = GitUtil.tagsPointAt(head(git), git.getRepository());
+
+        // then
+        assertThat(new File(git.getRepository().getDirectory(), "packed-refs")).isFile();
+        assertThat(tags).containsExactly("v1.0.0", "v1.1", "v0.9");
+    }
+
+    @Test
+    void tagsPointAt_manyPackedRefs() throws GitAPIException, IOException {
+
+        // given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+        RevCommit givenCommit = git.commit().setMessage("initial commit").setAllowEmpty(true).call();
+        StringBuilder packedRefs = new StringBuilder("# pack-refs with: peeled fully-peeled sorted \n");
+        ObjectInserter.Formatter objectIdFormatter = new ObjectInserter.Formatter();
+        for (int i = 0; i < 10_000; i++) {
+            // objects do not exist, packed refs are neither materialized nor peeled by object access
+            ObjectId objectId = objectIdFormatter.idFor(Constants.OBJ_BLOB, Integer.toString(i).getBytes(UTF_8));
+            packedRefs.append(String.format("%s refs/tags/nightly-%06d\n", objectId.getName(), i));
+        }
+        packedRefs.append(givenCommit.getName()).append(" refs/tags/v1.0.0\n");
+        Files.write(tempDir.resolve(".git/packed-refs"), packedRefs.toString().getBytes(UTF_8));
+
+        // when
+        List<String> tags = GitUtil.tagsPointAt(givenCommit, git.getRepository());
+        Map<ObjectId, List<String>> reverseTagRefMap = GitUtil.reverseTagRefMap(git.getRepository());
+
+        // then
+        assertThat(tags).containsExactly("v1.0.0");
+        assertThat(reverseTagRefMap).hasSize(10_001);
+        assertThat(reverseTagRefMap.get(givenCommit)).isEqualTo(tags);
+    }
+
+    @Test
+    void reverseTagRefMap_packedRefs() throws GitAPIException, IOException {
+
+        // given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+
+        RevCommit givenOtherCommit = git.commit().setMessage("initial commit").setAllowEmpty(true).call();
+        git.tag().setName("v0.1").setObjectId(givenOtherCommit).call();
+        git.tag().setName("v0.2").setAnnotated(false).setObjectId(givenOtherCommit).call();
+        RevCommit givenCommit = git.commit().setMessage("commit").setAllowEmpty(true).call();
+        git.tag().setName("v1.0.0").setObjectId(givenCommit).call();
+        git.tag().setName("v0.9").setAnnotated(false).setObjectId(givenCommit).call();
+        ((RefDirectory) git.getRepository().getRefDatabase()).pack(asList(
+                R_TAGS + "v0.1", R_TAGS + "v0.2", R_TAGS + "v1.0.0", R_TAGS + "v0.9"));
+        // loose ref takes precedence over packed ref
+        git.tag().setName("v0.2").setAnnotated(false).setObjectId(givenCommit).setForceUpdate(true).call();
+        git.tag().setName("v1.1").setObjectId(givenCommit).call();
+
+        // when
+        Map<ObjectId, List<String>> reverseTagRefMap = GitUtil.reverseTagRefMap(git.getRepository(), singletonList(R_TAGS + "v"));
+
+        // then
+        assertThat(new File(git.getRepository().getDirectory(), "packed-refs")).isFile();
+        assertThat(reverseTagRefMap).containsOnlyKeys(givenOtherCommit, givenCommit);
+        assertThat(reverseTagRefMap.get(givenOtherCommit)).containsExactly("v0.1");
+        assertThat(reverseTagRefMap.get(givenCommit)).containsExactlyInAnyOrder("v1.1", "v1.0.0", "v0.9", "v0.2");
+        assertThat(reverseTagRefMap.get(givenCommit)).isEqualTo(GitUtil.tagsPointAt(givenCommit, git.getRepository()));
+    }
+
     @Test
     void tagsPointAt_lightweightTag() throws GitAPIException, IOException {
 
@@ -197,4 +349,856 @@ class GitUtilTest {
         });
     }
 
+    @Test
+    void describe_notFirstParent() throws Exception {
+        // given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+
+        RevCommit givenTagCommit = git.commit().setMessage("initial commit").setAllowEmpty(true).call();
+        git.tag().setName("v1.0.0").setObjectId(givenTagCommit).call();
+        git.checkout().setCreateBranch(true).setName("feature").call();
+        git.commit().setMessage("feature commit 1").setAllowEmpty(true).call();
+        RevCommit givenFeatureCommit = git.commit().setMessage("feature commit 2").setAllowEmpty(true).call();
+        git.checkout().setName(MASTER).call();
+        git.commit().setMessage("commit").setAllowEmpty(true).call();
+        git.merge().include(givenFeatureCommit).setMessage("merge").call();
+
+        // when
+        GitDescription description = GitUtil.describe(head(git), Pattern.compile("v.+"), git.getRepository(), false);
+        git.gc().call();
+        GitDescription bitmapDescription = GitUtil.describe(head(git), Pattern.compile("v.+"), git.getRepository(), false);
+
+        // then
+        assertThat(description.getTag()).isEqualTo("v1.0.0");
+        // merge commit, commit and two feature commits
+        assertThat(description.getDistance()).isEqualTo(4);
+        assertThat(bitmapDescription.getDistance()).isEqualTo(4);
+        assertThat(GitUtil.describe(head(git), Pattern.compile("v.+"), git.getRepository(), true).getDistance()).isEqualTo(2);
+    }
+
+    @Test
+    void describe_notFirstParent_mergeHistory() throws Exception {
+        // given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+        ObjectId givenHead = createMergeCommits(git.getRepository(), 200, 5);
+        ObjectId givenTagCommit = git.getRepository().parseCommit(git.getRepository().resolve("v0.0.0^{commit}"));
+
+        // when
+        GitDescription walkDescription = GitUtil.describe(givenHead, Pattern.compile("v.+"), git.getRepository(), false);
+        git.gc().call();
+        GitDescription bitmapDescription;
+        try (Repository repository = new FileRepositoryBuilder().setGitDir(tempDir.resolve(".git").toFile()).build()) {
+            bitmapDescription = GitUtil.describe(givenHead, Pattern.compile("v.+"), repository, false);
+        }
+
+        // then
+        assertThat(walkDescription.getTag()).isEqualTo("v0.0.0");
+        // side branch commits, master commit and merge commit per merge
+        assertThat(walkDescription.getDistance()).isEqualTo(200 * 7)
+                .isEqualTo(revWalkCount(git.getRepository(), givenHead, givenTagCommit));
+        assertThat(bitmapDescription.getDistance()).isEqualTo(walkDescription.getDistance());
+        try (Stream<Path> packFiles = Files.list(tempDir.resolve(".git/objects/pack"))) {
+            assertThat(packFiles).anyMatch(file -> file.toString().endsWith(".bitmap"));
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void describe_benchmarkNotFirstParent() throws Exception {
+        // given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+        ObjectId givenHead = createMergeCommits(git.getRepository(), 5_000, 5);
+        git.gc().call();
+
+        // when
+        long bitmapStart = System.nanoTime();
+        GitDescription bitmapDescription;
+        try (Repository repository = new FileRepositoryBuilder().setGitDir(tempDir.resolve(".git").toFile()).build()) {
+            bitmapDescription = GitUtil.describe(givenHead, Pattern.compile("v.+"), repository, false);
+        }
+        long bitmapDuration = System.nanoTime() - bitmapStart;
+
+        try (Stream<Path> bitmapFiles = Files.list(tempDir.resolve(".git/objects/pack"))) {
+            for (Path bitmapFile : (Iterable<Path>) bitmapFiles.filter(file -> file.toString().endsWith(".bitmap"))::iterator) {
+                Files.delete(bitmapFile);
+            }
+        }
+        long walkStart = System.nanoTime();
+        GitDescription walkDescription;
+        try (Repository repository = new FileRepositoryBuilder().setGitDir(tempDir.resolve(".git").toFile()).build()) {
+            walkDescription = GitUtil.describe(givenHead, Pattern.compile("v.+"), repository, false);
+        }
+        long walkDuration = System.nanoTime() - walkStart;
+
+        // then
+        assertThat(bitmapDescription.getDistance()).isEqualTo(walkDescription.getDistance()).isEqualTo(5_000 * 7);
+        System.out.printf("describe distance over %d merges - walk: %d ms, bitmap: %d ms%n",
+                5_000, walkDuration / 1_000_000, bitmapDuration / 1_000_000);
+    }
+    @Test
+    void describe_noMatchingTag_packedHistory() throws Exception {
+        // given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+        ObjectId givenLinearHead = createPackedCommits(git.getRepository(), 5_000);
+        ObjectId givenMergeHead = createMergeCommits(git.getRepository(), 300, 5);
+        Pattern givenTagPattern = Pattern.compile("no-match");
+
+        for (boolean firstParent : new boolean[]{true, false}) {
+            // when
+            GitDescription linearDescription = GitUtil.describe(givenLinearHead, givenTagPattern, git.getRepository(), firstParent);
+            GitDescription mergeDescription = GitUtil.describe(givenMergeHead, givenTagPattern, git.getRepository(), firstParent);
+
+            // then
+            assertThat(linearDescription.getTag()).isEqualTo("root");
+            assertThat(linearDescription.getDistance()).isEqualTo(5_000);
+            // walk does not retain visited commits, still every commit is counted once
+            assertThat(mergeDescription.getDistance()).isEqualTo(firstParent
+                    ? 1 + 300 * 2
+                    : revWalkCount(git.getRepository(), givenMergeHead, null));
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void describe_benchmarkHeapUsage() throws Exception {
+        // given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+        ObjectId givenHead = createPackedCommits(git.getRepository(), 1_000_000);
+        Pattern givenTagPattern = Pattern.compile("no-match");
+        // load pack index
+        git.getRepository().parseCommit(givenHead);
+        long baselineHeapUsage = peakHeapUsage(() -> {
+        });
+
+        for (boolean firstParent : new boolean[]{true, false}) {
+            // when
+            long revWalkHeapUsage = peakHeapUsage(() -> {
+                try (RevWalk walk = new RevWalk(git.getRepository())) {
+                    walk.setRetainBody(false);
+                    walk.setFirstParent(firstParent);
+                    walk.markStart(walk.parseCommit(givenHead));
+                    int depth = 0;
+                    for (RevCommit ignored : walk) {
+                        depth++;
+                    }
+                    assertThat(depth).isEqualTo(1_000_000);
+                }
+            });
+            long describeHeapUsage = peakHeapUsage(() -> {
+                GitDescription description = GitUtil.describe(givenHead, givenTagPattern, git.getRepository(), firstParent);
+                assertThat(description.getDistance()).isEqualTo(1_000_000);
+            });
+
+            // then
+            System.out.printf("describe over %d commits, firstParent=%s - peak heap usage above baseline RevWalk: %d MB, describe: %d MB%n",
+                    1_000_000, firstParent, (revWalkHeapUsage - baselineHeapUsage) >> 20, (describeHeapUsage - baselineHeapUsage) >> 20);
+        }
+    }
+    @Test
+    void describe_shallowRepository() throws Exception {
+        // given
+        Path givenOriginDir = Files.createDirectory(tempDir.resolve("origin"));
+        Git origin = Git.init().setInitialBranch(MASTER).setDirectory(givenOriginDir.toFile()).call();
+        RevCommit givenTagCommit = origin.commit().setMessage("initial commit").setAllowEmpty(true).call();
+        origin.tag().setName("v1.0.0").setObjectId(givenTagCommit).call();
+        origin.commit().setMessage("commit 1").setAllowEmpty(true).call();
+        RevCommit givenHintCommit = origin.commit().setMessage("commit 2").setAllowEmpty(true).call();
+        origin.notesAdd().setNotesRef(GitUtil.DESCRIBE_HINTS_REF).setObjectId(givenHintCommit)
+                .setMessage("v1.0.0-2-g" + givenHintCommit.abbreviate(7).name()).call();
+        origin.commit().setMessage("commit 3").setAllowEmpty(true).call();
+
+        Git git = Git.cloneRepository().setURI(givenOriginDir.toUri().toString())
+                .setDirectory(tempDir.resolve("clone").toFile())
+                .setDepth(2)
+                .call();
+
+        // when
+        Throwable describeError = catchThrowable(() ->
+                GitUtil.describe(head(git), Pattern.compile("v.+"), git.getRepository(), true));
+        git.fetch().setRefSpecs(GitUtil.DESCRIBE_HINTS_REF + ":" + GitUtil.DESCRIBE_HINTS_REF).call();
+        GitDescription description = GitUtil.describe(head(git), Pattern.compile("v.+"), git.getRepository(), true);
+        Throwable notMatchingDescribeError = catchThrowable(() ->
+                GitUtil.describe(head(git), Pattern.compile("release-.+"), git.getRepository(), true));
+
+        // then
+        assertThat(GitUtil.isShallowRepository(git.getRepository())).isTrue();
+        assertThat(describeError).isInstanceOf(IllegalStateException.class);
+        assertThat(description.getTag()).isEqualTo("v1.0.0");
+        assertThat(description.getDistance()).isEqualTo(3);
+        assertThat(notMatchingDescribeError).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void describe_multipleTagPatterns() throws Exception {
+        // given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+        RevCommit givenReleaseCommit = git.commit().setMessage("initial commit").setAllowEmpty(true).call();
+        git.tag().setName("release/1.0.0").setObjectId(givenReleaseCommit).call();
+        git.commit().setMessage("commit 1").setAllowEmpty(true).call();
+        RevCommit givenBuildCommit = git.commit().setMessage("commit 2").setAllowEmpty(true).call();
+        git.tag().setName("build/42").setObjectId(givenBuildCommit).call();
+        git.commit().setMessage("commit 3").setAllowEmpty(true).call();
+
+        Map<String, Pattern> givenTagPatterns = new LinkedHashMap<>();
+        givenTagPatterns.put("release", Pattern.compile("release/.+"));
+        givenTagPatterns.put("build", Pattern.compile("build/.+"));
+        givenTagPatterns.put("other", Pattern.compile("other/.+"));
+
+        // when
+        Map<String, GitDescription> descriptions = GitUtil.describe(head(git), givenTagPatterns, git.getRepository(), true,
+                singletonList(R_TAGS), DescribeLimits.NONE);
+
+        // then
+        assertThat(descriptions).containsOnlyKeys("release", "build", "other");
+        assertThat(descriptions.get("release")).hasToString("release/1.0.0-3-g" + head(git).abbreviate(7).name());
+        assertThat(descriptions.get("build")).hasToString("build/42-1-g" + head(git).abbreviate(7).name());
+        assertThat(descriptions.get("other")).hasToString("root-4-g" + head(git).abbreviate(7).name());
+    }
+
+    @Test
+    void describeRange() throws Exception {
+        // given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+        // avoid background gc on merge, it may still run on temp directory cleanup
+        git.getRepository().getConfig().setBoolean("gc", null, "autoDetach", false);
+        RevCommit givenBaseCommit = git.commit().setMessage("initial commit").setAllowEmpty(true).call();
+        git.tag().setName("v1.0.0").setObjectId(givenBaseCommit).call();
+        git.commit().setMessage("commit 1").setAllowEmpty(true).call();
+        git.checkout().setCreateBranch(true).setName("feature").call();
+        RevCommit givenFeatureCommit = git.commit().setMessage("feature commit").setAllowEmpty(true).call();
+        git.tag().setName("v2.0.0-rc").setObjectId(givenFeatureCommit).call();
+        git.checkout().setName(MASTER).call();
+        git.commit().setMessage("commit 2").setAllowEmpty(true).call();
+        git.merge().include(givenFeatureCommit).setMessage("merge").call();
+        git.commit().setMessage("commit 3").setAllowEmpty(true).call();
+
+        for (boolean firstParent : new boolean[]{true, false}) {
+            // when
+            List<GitDescription> descriptions = new ArrayList<>();
+            GitUtil.describeRange(head(git), givenBaseCommit, Pattern.compile("v.+"), git.getRepository(), firstParent,
+                    singletonList(R_TAGS), descriptions::add);
+
+            // then
+            assertThat(descriptions).hasSize(5);
+            assertThat(descriptions.get(4).getCommit()).isEqualTo(head(git).getName());
+            for (GitDescription description : descriptions) {
+                GitDescription expectedDescription = GitUtil.describe(ObjectId.fromString(description.getCommit()),
+                        Pattern.compile("v.+"), git.getRepository(), firstParent);
+                assertThat(description).hasToString(expectedDescription.toString());
+            }
+        }
+    }
+
+    @Test
+    void revCount_commitGraph() throws Exception {
+        // given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+        // avoid background gc on merge, it may still run on temp directory cleanup
+        git.getRepository().getConfig().setBoolean("gc", null, "autoDetach", false);
+        List<ObjectId> givenCommits = new ArrayList<>();
+        givenCommits.add(git.commit().setMessage("initial commit").setAllowEmpty(true).call());
+        git.checkout().setCreateBranch(true).setName("feature").call();
+        givenCommits.add(git.commit().setMessage("feature commit 1").setAllowEmpty(true).call());
+        givenCommits.add(git.commit().setMessage("feature commit 2").setAllowEmpty(true).call());
+        git.checkout().setName(MASTER).call();
+        givenCommits.add(git.commit().setMessage("commit 1").setAllowEmpty(true).call());
+        givenCommits.add(git.merge().include(givenCommits.get(2)).setMessage("merge 1").call().getNewHead());
+
+        // write commit-graph without bitmap index
+        git.getRepository().getConfig().setBoolean("gc", null, "writeCommitGraph", true);
+        git.getRepository().getConfig().setBoolean("core", null, "commitGraph", true);
+        GC gc = new GC((FileRepository) git.getRepository());
+        PackConfig packConfig = new PackConfig(git.getRepository());
+        packConfig.setBuildBitmaps(false);
+        gc.setPackConfig(packConfig);
+        gc.gc().get();
+        // commit-graph is read from file if not enabled explicitly
+        git.getRepository().getConfig().unset("core", null, "commitGraph");
+
+        // commits newer than commit-graph
+        git.checkout().setName("feature").call();
+        givenCommits.add(git.commit().setMessage("feature commit 3").setAllowEmpty(true).call());
+        git.checkout().setName(MASTER).call();
+        givenCommits.add(git.commit().setMessage("commit 2").setAllowEmpty(true).call());
+        givenCommits.add(git.merge().include(givenCommits.get(5)).setMessage("merge 2").call().getNewHead());
+        givenCommits.add(git.commit().setMessage("commit 3").setAllowEmpty(true).call());
+
+        try (ObjectReader reader = git.getRepository().newObjectReader()) {
+            // when
+            CommitGraph commitGraph = CommitGraphRevCount.commitGraph(git.getRepository(), reader);
+
+            // then
+            assertThat(commitGraph).isNotNull();
+            assertThat(commitGraph.getCommitCnt()).isEqualTo(5);
+            for (ObjectId head : givenCommits) {
+                assertThat(CommitGraphRevCount.count(commitGraph, reader, head, null))
+                        .as("count %s", head.name())
+                        .isEqualTo(revWalkCount(git.getRepository(), head, null));
+                for (ObjectId base : givenCommits) {
+                    assertThat(CommitGraphRevCount.count(commitGraph, reader, head, base))
+                            .as("count %s..%s", base.name(), head.name())
+                            .isEqualTo(revWalkCount(git.getRepository(), head, base));
+                }
+            }
+        }
+        assertThat(GitUtil.revCount(git.getRepository(), head(git), givenCommits.get(5))).isEqualTo(5);
+    }
+
+    @Test
+    void commitGraph_loadedOnce() throws Exception {
+        // given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+        git.commit().setMessage("initial commit").setAllowEmpty(true).call();
+        git.commit().setMessage("commit 1").setAllowEmpty(true).call();
+        writeCommitGraph(git.getRepository());
+        File givenCommitGraphFile = tempDir.resolve(".git/objects/info/commit-graph").toFile();
+        // not racily clean
+        assertThat(givenCommitGraphFile.setLastModified(System.currentTimeMillis() - 10_000)).isTrue();
+
+        // when
+        CommitGraph commitGraph;
+        CommitGraph otherReaderCommitGraph;
+        try (ObjectReader reader = git.getRepository().newObjectReader()) {
+            commitGraph = CommitGraphRevCount.commitGraph(git.getRepository(), reader);
+        }
+        try (ObjectReader reader = git.getRepository().newObjectReader()) {
+            otherReaderCommitGraph = CommitGraphRevCount.commitGraph(git.getRepository(), reader);
+        }
+        git.commit().setMessage("commit 2").setAllowEmpty(true).call();
+        writeCommitGraph(git.getRepository());
+        CommitGraph rewrittenCommitGraph;
+        try (ObjectReader reader = git.getRepository().newObjectReader()) {
+            rewrittenCommitGraph = CommitGraphRevCount.commitGraph(git.getRepository(), reader);
+        }
+
+        // then
+        assertThat(commitGraph).isNotNull().isSameAs(otherReaderCommitGraph);
+        assertThat(commitGraph.getCommitCnt()).isEqualTo(2);
+        assertThat(rewrittenCommitGraph.getCommitCnt()).isEqualTo(3);
+    }
+
+    @Test
+    void commitGraph_corrupt() throws Exception {
+        // given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+        git.commit().setMessage("initial commit").setAllowEmpty(true).call();
+        git.commit().setMessage("commit 1").setAllowEmpty(true).call();
+        Files.createDirectories(tempDir.resolve(".git/objects/info"));
+        Files.write(tempDir.resolve(".git/objects/info/commit-graph"), "corrupt".getBytes(UTF_8));
+
+        // when
+        CommitGraph commitGraph;
+        try (ObjectReader reader = git.getRepository().newObjectReader()) {
+            commitGraph = CommitGraphRevCount.commitGraph(git.getRepository(), reader);
+        }
+        int count = GitUtil.revCount(git.getRepository(), head(git), null);
+
+        // then
+        assertThat(commitGraph).isNull();
+        assertThat(count).isEqualTo(2);
+    }
+
+    @Test
+    void highestTag() throws Exception {
+        // given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+        // avoid background gc on merge, it may still run on temp directory cleanup
+        git.getRepository().getConfig().setBoolean("gc", null, "autoDetach", false);
+        git.tag().setName("v1.9.0").setObjectId(git.commit().setMessage("initial commit").setAllowEmpty(true).call()).call();
+        git.tag().setName("v1.10.0").setObjectId(git.commit().setMessage("commit 1").setAllowEmpty(true).call()).call();
+        git.checkout().setCreateBranch(true).setName("maintenance").call();
+        git.tag().setName("v1.10.1").setObjectId(git.commit().setMessage("fix commit").setAllowEmpty(true).call()).call();
+        git.checkout().setName(MASTER).call();
+        RevCommit givenMasterCommit = git.commit().setMessage("commit 2").setAllowEmpty(true).call();
+        git.tag().setName("v2.0.0").setAnnotated(true).setMessage("v2.0.0").setObjectId(givenMasterCommit).call();
+        git.tag().setName("latest").setObjectId(givenMasterCommit).call();
+        git.checkout().setName("maintenance").call();
+        // older version tag nearer than highest version tag
+        RevCommit givenOldCommit = git.commit().setMessage("old commit").setAllowEmpty(true).call();
+        git.tag().setName("v1.0.1").setObjectId(givenOldCommit).call();
+        git.commit().setMessage("commit 3").setAllowEmpty(true).call();
+
+        Pattern givenTagPattern = Pattern.compile("v.+");
+        List<String> highestTags = new ArrayList<>();
+
+        // when
+        // walk
+        highestTags.add(GitUtil.highestTag(head(git), givenTagPattern, git.getRepository(), singletonList(R_TAGS)));
+        // commit-graph without bitmap index
+        git.getRepository().getConfig().setBoolean("gc", null, "writeCommitGraph", true);
+        git.getRepository().getConfig().setBoolean("core", null, "commitGraph", true);
+        GC gc = new GC((FileRepository) git.getRepository());
+        PackConfig packConfig = new PackConfig(git.getRepository());
+        packConfig.setBuildBitmaps(false);
+        gc.setPackConfig(packConfig);
+        gc.gc().get();
+        highestTags.add(GitUtil.highestTag(head(git), givenTagPattern, git.getRepository(), singletonList(R_TAGS)));
+        // bitmap index
+        new GC((FileRepository) git.getRepository()).gc().get();
+        highestTags.add(GitUtil.highestTag(head(git), givenTagPattern, git.getRepository(), singletonList(R_TAGS)));
+
+        // then
+        assertThat(GitUtil.describe(head(git), givenTagPattern, git.getRepository(), true).getTag()).isEqualTo("v1.0.1");
+        assertThat(highestTags).containsExactly("v1.10.1", "v1.10.1", "v1.10.1");
+        assertThat(GitUtil.highestTag(givenOldCommit, Pattern.compile("v1\\.9.*"), git.getRepository(), singletonList(R_TAGS)))
+                .isEqualTo("v1.9.0");
+        assertThat(GitUtil.highestTag(head(git), Pattern.compile("v3.*"), git.getRepository(), singletonList(R_TAGS)))
+                .isNull();
+    }
+
+    @Test
+    void highestTag_maintenanceBranch() throws Exception {
+        // given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+        Repository repository = git.getRepository();
+        ObjectId givenHead = createPackedCommits(repository, 4_000);
+        // version tag at every 40th commit, maintenance head in the middle of history
+        List<ObjectId> givenCommits = new ArrayList<>();
+        try (RevWalk walk = new RevWalk(repository)) {
+            walk.markStart(walk.parseCommit(givenHead));
+            walk.sort(RevSort.REVERSE);
+            for (RevCommit commit : walk) {
+                givenCommits.add(commit.copy());
+            }
+        }
+        for (int i = 0; i < 100; i++) {
+            git.tag().setName("v" + i + ".0.0").setObjectId(repository.parseCommit(givenCommits.get(i * 40))).call();
+        }
+        ObjectId givenMaintenanceHead = givenCommits.get(2_000);
+        Pattern givenTagPattern = Pattern.compile("v.+");
+
+        // when
+        String walkHighestTag = GitUtil.highestTag(givenMaintenanceHead, givenTagPattern, repository, singletonList(R_TAGS));
+        writeCommitGraph(repository);
+        String commitGraphHighestTag = GitUtil.highestTag(givenMaintenanceHead, givenTagPattern, repository, singletonList(R_TAGS));
+        git.gc().call();
+        String bitmapHighestTag = GitUtil.highestTag(givenMaintenanceHead, givenTagPattern, repository, singletonList(R_TAGS));
+
+        // then
+        assertThat(asList(walkHighestTag, commitGraphHighestTag, bitmapHighestTag)).containsOnly("v50.0.0");
+        assertThat(GitUtil.highestTag(givenHead, givenTagPattern, repository, singletonList(R_TAGS))).isEqualTo("v99.0.0");
+    }
+
+    @Test
+    void describePath() throws Exception {
+        // given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+        Files.createDirectories(tempDir.resolve("api"));
+        Files.createDirectories(tempDir.resolve("logic"));
+        RevCommit givenApiCommit = commitFile(git, "api/api.txt", "api");
+        RevCommit givenLogicCommit = commitFile(git, "logic/logic.txt", "logic");
+        git.tag().setName("v1.0.0").setObjectId(givenLogicCommit).call();
+        commitFile(git, "logic/logic.txt", "logic 1");
+        RevCommit givenLastLogicCommit = commitFile(git, "logic/logic.txt", "logic 2");
+        git.commit().setMessage("empty commit").setAllowEmpty(true).call();
+        GitDescription givenDescription = GitUtil.describe(head(git), Pattern.compile("v.+"), git.getRepository(), true);
+
+        // when
+        GitDescription apiDescription = GitUtil.describePath(head(git), givenDescription, "api", git.getRepository());
+        GitDescription logicDescription = GitUtil.describePath(head(git), givenDescription, "logic", git.getRepository());
+        GitDescription rootDescription = GitUtil.describePath(head(git), givenDescription, "", git.getRepository());
+
+        // commit-graph with changed-path Bloom filters
+        git.getRepository().getConfig().setBoolean("gc", null, "writeCommitGraph", true);
+        git.getRepository().getConfig().setBoolean("gc", null, "writeChangedPaths", true);
+        git.getRepository().getConfig().setBoolean("core", null, "commitGraph", true);
+        new GC((FileRepository) git.getRepository()).gc().get();
+        SystemReader systemReader = SystemReader.getInstance();
+        GitSystemReader givenSystemReader = new GitSystemReader(systemReader);
+        givenSystemReader.setReadChangedPaths(true);
+        GitDescription apiCommitGraphDescription;
+        GitDescription logicCommitGraphDescription;
+        SystemReader.setInstance(givenSystemReader);
+        try (Repository repository = new FileRepositoryBuilder().setGitDir(git.getRepository().getDirectory()).build()) {
+            apiCommitGraphDescription = GitUtil.describePath(head(git), givenDescription, "api", repository);
+            logicCommitGraphDescription = GitUtil.describePath(head(git), givenDescription, "logic", repository);
+        } finally {
+            SystemReader.setInstance(systemReader);
+        }
+
+        // then
+        assertThat(apiDescription.getCommit()).isEqualTo(givenApiCommit.getName());
+        assertThat(apiDescription.getTag()).isEqualTo("v1.0.0");
+        assertThat(apiDescription.getDistance()).isEqualTo(0);
+        assertThat(logicDescription.getCommit()).isEqualTo(givenLastLogicCommit.getName());
+        assertThat(logicDescription.getDistance()).isEqualTo(2);
+        assertThat(rootDescription.getCommit()).isEqualTo(head(git).getName());
+        assertThat(rootDescription.getDistance()).isEqualTo(3);
+        assertThat(apiCommitGraphDescription).hasToString(apiDescription.toString());
+        assertThat(logicCommitGraphDescription).hasToString(logicDescription.toString());
+    }
+
+    @Test
+    void changedPaths() throws Exception {
+        // given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+        Files.createDirectories(tempDir.resolve("api"));
+        Files.createDirectories(tempDir.resolve("services/logic"));
+        Files.createDirectories(tempDir.resolve("services/web"));
+        commitFile(git, "api/api.txt", "api");
+        commitFile(git, "services/logic/logic.txt", "logic");
+        RevCommit givenTagCommit = commitFile(git, "services/web/web.txt", "web");
+        git.tag().setName("v1.0.0").setObjectId(givenTagCommit).call();
+        commitFile(git, "services/logic/logic.txt", "logic 1");
+        List<String> givenPaths = asList("", "api", "services", "services/logic", "services/web");
+
+        // when
+        Set<String> changedPaths = GitUtil.changedPaths(head(git), "v1.0.0", givenPaths, git.getRepository());
+        Set<String> tagChangedPaths = GitUtil.changedPaths(givenTagCommit, "v1.0.0", givenPaths, git.getRepository());
+        Set<String> untaggedChangedPaths = GitUtil.changedPaths(head(git), "root", givenPaths, git.getRepository());
+
+        // then
+        // changes within nested paths do not change parent paths, except for root
+        assertThat(changedPaths).containsExactlyInAnyOrder("", "services/logic");
+        assertThat(tagChangedPaths).isEmpty();
+        assertThat(untaggedChangedPaths).containsExactlyInAnyOrderElementsOf(givenPaths);
+    }
+
+    @Test
+    void changedPaths_nestedPaths() throws Exception {
+        // given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+        Files.createDirectories(tempDir.resolve("a/b"));
+        Files.createDirectories(tempDir.resolve("a/c"));
+        commitFile(git, "a/a.txt", "a");
+        commitFile(git, "a/c/c.txt", "c");
+        RevCommit givenTagCommit = commitFile(git, "a/b/b.txt", "b");
+        git.tag().setName("v1.0.0").setObjectId(givenTagCommit).call();
+        List<String> givenPaths = asList("a", "a/b");
+
+        // when
+        RevCommit givenNestedCommit = commitFile(git, "a/b/b.txt", "b 1");
+        Set<String> nestedChangedPaths = GitUtil.changedPaths(givenNestedCommit, "v1.0.0", givenPaths, git.getRepository());
+        RevCommit givenSubDirectoryCommit = commitFile(git, "a/c/c.txt", "c 1");
+        Set<String> subDirectoryChangedPaths = GitUtil.changedPaths(givenSubDirectoryCommit, "v1.0.0", givenPaths, git.getRepository());
+        git.reset().setMode(ResetType.HARD).setRef(givenTagCommit.getName()).call();
+        RevCommit givenParentCommit = commitFile(git, "a/a.txt", "a 1");
+        Set<String> parentChangedPaths = GitUtil.changedPaths(givenParentCommit, "v1.0.0", givenPaths, git.getRepository());
+
+        // then
+        assertThat(nestedChangedPaths).containsExactly("a/b");
+        // sub directory, that is not a nested path, belongs to parent path
+        assertThat(subDirectoryChangedPaths).containsExactlyInAnyOrder("a", "a/b");
+        assertThat(parentChangedPaths).containsExactly("a");
+    }
+
+    @Test
+    void describe_maxDepth() throws Exception {
+        // given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+        RevCommit givenTagCommit = git.commit().setMessage("initial commit").setAllowEmpty(true).call();
+        git.tag().setName("v1.0.0").setObjectId(givenTagCommit).call();
+        git.commit().setMessage("commit 1").setAllowEmpty(true).call();
+        git.commit().setMessage("commit 2").setAllowEmpty(true).call();
+
+        // when
+        GitDescription description = GitUtil.describe(head(git), Pattern.compile("v.+"), git.getRepository(), true,
+                singletonList(R_TAGS), new DescribeLimits(2, null, "v0.0.0"));
+        GitDescription truncatedDescription = GitUtil.describe(head(git), Pattern.compile("v.+"), git.getRepository(), true,
+                singletonList(R_TAGS), new DescribeLimits(1, null, "v0.0.0"));
+
+        // then
+        assertThat(description.getTag()).isEqualTo("v1.0.0");
+        assertThat(description.getDistance()).isEqualTo(2);
+        assertThat(description.isTruncated()).isFalse();
+        assertThat(truncatedDescription.getTag()).isEqualTo("v0.0.0");
+        assertThat(truncatedDescription.getDistance()).isEqualTo(2);
+        assertThat(truncatedDescription.isTruncated()).isTrue();
+    }
+
+    @Test
+    void describe_timeout() throws Exception {
+        // given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+        RevCommit givenTagCommit = git.commit().setMessage("initial commit").setAllowEmpty(true).call();
+        git.tag().setName("v1.0.0").setObjectId(givenTagCommit).call();
+        git.commit().setMessage("commit").setAllowEmpty(true).call();
+
+        // when
+        GitDescription description = GitUtil.describe(head(git), Pattern.compile("v.+"), git.getRepository(), false,
+                singletonList(R_TAGS), new DescribeLimits(null, Duration.ZERO, "root"));
+
+        // then
+        assertThat(description.getTag()).isEqualTo("root");
+        assertThat(description.getDistance()).isEqualTo(1);
+        assertThat(description.isTruncated()).isTrue();
+    }
+
+    @Test
+    void describe_tagRefPrefixes() throws Exception {
+        // given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+
+        RevCommit givenCommit = git.commit().setMessage("initial commit").setAllowEmpty(true).call();
+        git.tag().setName("release/1.0").setObjectId(givenCommit).call();
+        RevCommit givenHeadCommit = git.commit().setMessage("commit").setAllowEmpty(true).call();
+        git.tag().setName("nightly/1.1").setObjectId(givenHeadCommit).call();
+
+        // when
+        GitDescription description = GitUtil.describe(head(git), Pattern.compile(".*"), git.getRepository(), true,
+                singletonList("refs/tags/release/"));
+
+        // then
+        assertThat(description).satisfies(it -> {
+            assertThat(it.getDistance()).isEqualTo(1);
+            assertThat(it.getTag()).isEqualTo("release/1.0");
+        });
+    }
+
+    @Test
+    void tagRefPrefixes_narrowedByTagPattern() {
+        // when
+        List<String> tagRefPrefixes = GitUtil.tagRefPrefixes(Pattern.compile("v(?<version>.*)"),
+                asList(R_TAGS, "refs/tags/v1", "refs/tags/release/"));
+
+        // then
+        assertThat(tagRefPrefixes).containsExactly("refs/tags/v");
+        assertThat(GitUtil.tagRefPrefixes(Pattern.compile(".*"), singletonList("refs/tags/release/")))
+                .containsExactly("refs/tags/release/");
+        assertThat(GitUtil.tagRefPrefixes(Pattern.compile("v.*"), singletonList("refs/tags/release/")))
+                .isEmpty();
+    }
+
+    @Test
+    void normalizeTagRefPrefixes() {
+        // when
+        List<String> tagRefPrefixes = GitUtil.normalizeTagRefPrefixes(asList("v", "refs/tags/v1", "refs/tags/release/", "v"));
+
+        // then
+        assertThat(tagRefPrefixes).containsExactly("refs/tags/v", "refs/tags/release/");
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void describe_benchmarkWindowCacheConfig() throws Exception {
+        // given
+        Git git = Git.init().setInitialBranch(MASTER).setDirectory(tempDir.toFile()).call();
+        ObjectId givenHead = createCommits(git.getRepository(), 20_000, 4096);
+        git.gc().call();
+
+        WindowCacheConfig defaultWindowCacheConfig = new WindowCacheConfig();
+        WindowCacheConfig tunedWindowCacheConfig = new WindowCacheConfig();
+        tunedWindowCacheConfig.setPackedGitMMAP(true);
+        tunedWindowCacheConfig.setPackedGitWindowSize(1024 * 1024);
+        tunedWindowCacheConfig.setPackedGitLimit(512 * 1024 * 1024);
+        tunedWindowCacheConfig.setDeltaBaseCacheLimit(64 * 1024 * 1024);
+        tunedWindowCacheConfig.setStreamFileThreshold(64 * 1024 * 1024);
+
+        try {
+            // when
+            long defaultDuration = describeDuration(defaultWindowCacheConfig, givenHead);
+            long tunedDuration = describeDuration(tunedWindowCacheConfig, givenHead);
+
+            // then
+            System.out.printf("describe over %d commits - default window cache: %d ms, tuned window cache: %d ms%n",
+                    20_000, defaultDuration / 1_000_000, tunedDuration / 1_000_000);
+        } finally {
+            defaultWindowCacheConfig.install();
+        }
+    }
+
+    /**
+     * @return best duration of three describe runs, each by a newly opened repository
+     */
+    private long describeDuration(WindowCacheConfig windowCacheConfig, ObjectId head) throws IOException {
+        windowCacheConfig.install();
+        long duration = Long.MAX_VALUE;
+        for (int run = 0; run < 3; run++) {
+            try (Repository repository = new FileRepositoryBuilder().setGitDir(tempDir.resolve(".git").toFile()).build()) {
+                long start = System.nanoTime();
+                GitDescription description = GitUtil.describe(head, Pattern.compile("v.+"), repository, true);
+                duration = Math.min(duration, System.nanoTime() - start);
+                assertThat(description.getTag()).isEqualTo("v0.0.0");
+            }
+        }
+        return duration;
+    }
+
+    /**
+     * Writes commit-graph without bitmap index.
+     */
+    private static void writeCommitGraph(Repository repository) throws Exception {
+        repository.getConfig().setBoolean("gc", null, "autoDetach", false);
+        repository.getConfig().setBoolean("gc", null, "writeCommitGraph", true);
+        repository.getConfig().setBoolean("core", null, "commitGraph", true);
+        GC gc = new GC((FileRepository) repository);
+        PackConfig packConfig = new PackConfig(repository);
+        packConfig.setBuildBitmaps(false);
+        gc.setPackConfig(packConfig);
+        gc.gc().get();
+        // commit-graph is read from file if not enabled explicitly
+        repository.getConfig().unset("core", null, "commitGraph");
+    }
+
+    private static RevCommit commitFile(Git git, String path, String content) throws Exception {
+        Files.write(git.getRepository().getWorkTree().toPath().resolve(path), content.getBytes(UTF_8));
+        git.add().addFilepattern(path).call();
+        return git.commit().setMessage("change " + path).call();
+    }
+
+    private static int revWalkCount(Repository repository, ObjectId head, ObjectId base) throws IOException {
+        try (RevWalk walk = new RevWalk(repository)) {
+            walk.markStart(walk.parseCommit(head));
+            if (base != null) {
+                walk.markUninteresting(walk.parseCommit(base));
+            }
+            int count = 0;
+            for (RevCommit ignored : walk) {
+                count++;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Creates a linear history of <code>count</code> commits on master, with annotated tag <code>v0.0.0</code> at root commit.
+     *
+     * @param messageSize size of random commit messages, to blow up pack size
+     * @return head commit
+     */
+    private static ObjectId createCommits(Repository repository, int count, int messageSize) throws IOException {
+        Random random = new Random(0);
+        PersonIdent person = new PersonIdent("test", "test@example.org");
+        ObjectId head = null;
+        try (ObjectInserter inserter = repository.newObjectInserter()) {
+            ObjectId tree = inserter.insert(new TreeFormatter());
+            for (int i = 0; i < count; i++) {
+                byte[] message = new byte[messageSize / 2];
+                random.nextBytes(message);
+                String commitMessage = "commit " + i + "\n\n" + toHex(message);
+                if (head == null) {
+                    head = insertCommit(inserter, tree, person, commitMessage);
+                    TagBuilder tag = new TagBuilder();
+                    tag.setTag("v0.0.0");
+                    tag.setObjectId(head, Constants.OBJ_COMMIT);
+                    tag.setTagger(person);
+                    tag.setMessage(".");
+                    RefUpdate tagRefUpdate = repository.updateRef(Constants.R_TAGS + "v0.0.0");
+                    tagRefUpdate.setNewObjectId(inserter.insert(tag));
+                    tagRefUpdate.update();
+                } else {
+                    head = insertCommit(inserter, tree, person, commitMessage, head);
+                }
+            }
+            inserter.flush();
+        }
+        RefUpdate headRefUpdate = repository.updateRef(Constants.R_HEADS + MASTER);
+        headRefUpdate.setNewObjectId(head);
+        headRefUpdate.update();
+        return head;
+    }
+
+    /**
+     * Creates a linear history of <code>count</code> commits in a single pack file.
+     *
+     * @return head commit
+     */
+    private static ObjectId createPackedCommits(Repository repository, int count) throws IOException {
+        PersonIdent person = new PersonIdent("test", "test@example.org");
+        ObjectId head = null;
+        try (ObjectInserter inserter = ((ObjectDirectory) repository.getObjectDatabase()).newPackInserter()) {
+            ObjectId tree = inserter.insert(new TreeFormatter());
+            for (int i = 0; i < count; i++) {
+                head = head == null
+                        ? insertCommit(inserter, tree, person, "commit " + i)
+                        : insertCommit(inserter, tree, person, "commit " + i, head);
+            }
+            inserter.flush();
+        }
+        // refs can be updated after pack is written only
+        RefUpdate headRefUpdate = repository.updateRef(Constants.R_HEADS + MASTER);
+        headRefUpdate.setNewObjectId(head);
+        headRefUpdate.update();
+        return head;
+    }
+
+    /**
+     * Samples live heap usage by full garbage collections while <code>action</code> runs.
+     *
+     * @return maximum live heap usage in bytes
+     */
+    private static long peakHeapUsage(HeapUsageAction action) throws Exception {
+        AtomicLong peakHeapUsage = new AtomicLong();
+        AtomicBoolean done = new AtomicBoolean();
+        Thread sampler = new Thread(() -> {
+            do {
+                System.gc();
+                peakHeapUsage.accumulateAndGet(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(), Math::max);
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            } while (!done.get());
+        });
+        sampler.start();
+        try {
+            action.run();
+        } finally {
+            done.set(true);
+            sampler.join();
+        }
+        return peakHeapUsage.get();
+    }
+
+    @FunctionalInterface
+    private interface HeapUsageAction {
+        void run() throws Exception;
+    }
+
+    /**
+     * Creates a merge-heavy history on master, with annotated tag <code>v0.0.0</code> at root commit.
+     * Each merge joins a master commit with a side branch of <code>branchLength</code> commits.
+     *
+     * @return head commit
+     */
+    private static ObjectId createMergeCommits(Repository repository, int merges, int branchLength) throws IOException {
+        PersonIdent person = new PersonIdent("test", "test@example.org");
+        ObjectId head;
+        try (ObjectInserter inserter = repository.newObjectInserter()) {
+            ObjectId tree = inserter.insert(new TreeFormatter());
+            head = insertCommit(inserter, tree, person, "root");
+            TagBuilder tag = new TagBuilder();
+            tag.setTag("v0.0.0");
+            tag.setObjectId(head, Constants.OBJ_COMMIT);
+            tag.setTagger(person);
+            tag.setMessage(".");
+            RefUpdate tagRefUpdate = repository.updateRef(Constants.R_TAGS + "v0.0.0");
+            tagRefUpdate.setNewObjectId(inserter.insert(tag));
+            tagRefUpdate.update();
+
+            for (int merge = 0; merge < merges; merge++) {
+                ObjectId branchHead = head;
+                for (int i = 0; i < branchLength; i++) {
+                    branchHead = insertCommit(inserter, tree, person, "branch " + merge + "-" + i, branchHead);
+                }
+                ObjectId mainHead = insertCommit(inserter, tree, person, "commit " + merge, head);
+                head = insertCommit(inserter, tree, person, "merge " + merge, mainHead, branchHead);
+            }
+            inserter.flush();
+        }
+        RefUpdate headRefUpdate = repository.updateRef(Constants.R_HEADS + MASTER);
+        headRefUpdate.setNewObjectId(head);
+        headRefUpdate.update();
+        return head;
+    }
+
+    private static ObjectId insertCommit(ObjectInserter inserter, ObjectId tree, PersonIdent person, String message,
+                                         ObjectId... parents) throws IOException {
+        CommitBuilder commit = new CommitBuilder();
+        commit.setTreeId(tree);
+        commit.setParentIds(parents);
+        commit.setAuthor(person);
+        commit.setCommitter(person);
+        commit.setMessage(message);
+        return inserter.insert(commit);
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
 }
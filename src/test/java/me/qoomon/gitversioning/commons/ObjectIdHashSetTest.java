@@ -0,0 +1,52 @@
+package me.qoomon.gitversioning.commons;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.eclipse.jgit.lib.Constants.OBJ_BLOB;
+
+class ObjectIdHashSetTest {
+
+    @Test
+    void add() {
+        // given
+        ObjectIdHashSet set = new ObjectIdHashSet();
+        ObjectId givenObjectId = ObjectId.fromString("1111111111111111111111111111111111111111");
+
+        // when
+        boolean added = set.add(givenObjectId);
+        boolean addedAgain = set.add(givenObjectId.copy());
+
+        // then
+        assertThat(added).isTrue();
+        assertThat(addedAgain).isFalse();
+        assertThat(set.size()).isEqualTo(1);
+        assertThat(set.contains(givenObjectId)).isTrue();
+        assertThat(set.contains(ObjectId.fromString("2222222222222222222222222222222222222222"))).isFalse();
+    }
+
+    @Test
+    void add_resize() {
+        // given
+        ObjectIdHashSet set = new ObjectIdHashSet(16);
+        List<ObjectId> givenObjectIds = new ArrayList<>();
+        try (ObjectInserter.Formatter formatter = new ObjectInserter.Formatter()) {
+            for (int i = 0; i < 10_000; i++) {
+                givenObjectIds.add(formatter.idFor(OBJ_BLOB, String.valueOf(i).getBytes(UTF_8)));
+            }
+        }
+
+        // when
+        givenObjectIds.forEach(set::add);
+
+        // then
+        assertThat(set.size()).isEqualTo(10_000);
+        assertThat(givenObjectIds).allMatch(set::contains);
+    }
+}
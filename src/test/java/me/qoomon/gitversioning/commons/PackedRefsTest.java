@@ -0,0 +1,136 @@
+package me.qoomon.gitversioning.commons;
+
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PackedRefsTest {
+
+    private static final String COMMIT_A = "1111111111111111111111111111111111111111";
+    private static final String COMMIT_B = "2222222222222222222222222222222222222222";
+    private static final String TAG_OBJECT = "3333333333333333333333333333333333333333";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void read_noPackedRefs() throws IOException {
+        // when
+        PackedRefs packedRefs = PackedRefs.read(tempDir.toFile());
+
+        // then
+        assertThat(packedRefs).isNull();
+    }
+
+    @Test
+    void read_notPeeled() throws IOException {
+        // given
+        writePackedRefs("# pack-refs with: sorted \n" +
+                COMMIT_A + " refs/tags/v1\n");
+
+        // when
+        PackedRefs packedRefs = PackedRefs.read(tempDir.toFile());
+
+        // then
+        assertThat(packedRefs).isNull();
+    }
+
+    @Test
+    void refsPointingAt() throws IOException {
+        // given
+        writePackedRefs("# pack-refs with: peeled fully-peeled sorted \n" +
+                COMMIT_B + " refs/heads/main\n" +
+                TAG_OBJECT + " refs/tags/v1\n" +
+                "^" + COMMIT_A + "\n" +
+                COMMIT_A + " refs/tags/v1-lightweight\n" +
+                COMMIT_B + " refs/tags/v2\n");
+
+        // when
+        List<Ref> refs = PackedRefs.read(tempDir.toFile())
+                .refsPointingAt("refs/tags/", ObjectId.fromString(COMMIT_A));
+
+        // then
+        assertThat(refs).extracting(Ref::getName).containsExactly("refs/tags/v1", "refs/tags/v1-lightweight");
+        assertThat(refs.get(0).getObjectId().getName()).isEqualTo(TAG_OBJECT);
+        assertThat(refs.get(0).getPeeledObjectId().getName()).isEqualTo(COMMIT_A);
+        assertThat(refs.get(1).getObjectId().getName()).isEqualTo(COMMIT_A);
+        assertThat(refs.get(1).getPeeledObjectId()).isNull();
+    }
+
+    @Test
+    void forEachRef_sorted() throws IOException {
+        // given
+        StringBuilder content = new StringBuilder("# pack-refs with: peeled fully-peeled sorted \n");
+        for (int i = 0; i < 1000; i++) {
+            content.append(COMMIT_A).append(String.format(" refs/tags/archive/%04d\n", i));
+            content.append('^').append(COMMIT_B).append('\n');
+        }
+        content.append(COMMIT_A).append(" refs/tags/v1\n");
+        writePackedRefs(content.toString());
+
+        // when
+        List<String> refNames = new ArrayList<>();
+        PackedRefs.read(tempDir.toFile()).forEachRef("refs/tags/archive/05",
+                (name, objectId, peeledObjectId) -> refNames.add(name + ' ' + peeledObjectId.getName()));
+
+        // then
+        assertThat(refNames).hasSize(100)
+                .first().isEqualTo("refs/tags/archive/0500 " + COMMIT_B);
+        assertThat(refNames).last().isEqualTo("refs/tags/archive/0599 " + COMMIT_B);
+    }
+
+    @Test
+    void forEachRef_unsorted() throws IOException {
+        // given
+        writePackedRefs("# pack-refs with: peeled \n" +
+                COMMIT_A + " refs/tags/v2\n" +
+                COMMIT_A + " refs/heads/main\n" +
+                COMMIT_B + " refs/tags/v1\n");
+
+        // when
+        List<String> refNames = new ArrayList<>();
+        PackedRefs.read(tempDir.toFile()).forEachRef("refs/tags/",
+                (name, objectId, peeledObjectId) -> refNames.add(name));
+
+        // then
+        assertThat(refNames).containsExactly("refs/tags/v2", "refs/tags/v1");
+        assertThat(PackedRefs.read(tempDir.toFile())
+                .refsPointingAt("refs/tags/", ObjectId.fromString(COMMIT_B)).stream()
+                .map(Ref::getName).collect(toList()))
+                .containsExactly("refs/tags/v1");
+    }
+
+    @Test
+    void read_mapped() throws IOException {
+        // given
+        writePackedRefs("# pack-refs with: peeled fully-peeled sorted \n" +
+                TAG_OBJECT + " refs/tags/v1\n" +
+                "^" + COMMIT_A + "\n" +
+                COMMIT_B + " refs/tags/v2\n");
+
+        // when
+        PackedRefs packedRefs = PackedRefs.read(tempDir.toFile(), 0);
+
+        // then
+        List<String> refNames = new ArrayList<>();
+        packedRefs.forEachRef("refs/tags/", (name, objectId, peeledObjectId) -> refNames.add(name));
+        assertThat(refNames).containsExactly("refs/tags/v1", "refs/tags/v2");
+        assertThat(packedRefs.refsPointingAt("refs/tags/", ObjectId.fromString(COMMIT_A)))
+                .extracting(Ref::getName).containsExactly("refs/tags/v1");
+    }
+
+    private void writePackedRefs(String content) throws IOException {
+        Files.write(tempDir.resolve("packed-refs"), content.getBytes(UTF_8));
+    }
+}
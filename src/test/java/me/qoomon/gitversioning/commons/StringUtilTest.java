@@ -4,6 +4,7 @@ import org.junit.jupiter.api.Test;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Supplier;
 import java.util.regex.Pattern;
 
@@ -143,4 +144,35 @@ class StringUtilTest {
         assertThat(valueMap).contains(entry("1", "one"), entry("2", "two three"), entry("3", "three"));
         assertThat(valueMap).contains(entry("first", "one"), entry("second", "two three"), entry("third", "three"));
     }
+
+    @Test
+    void patternGroupNames() {
+
+        // Given
+        Pattern givenRegex = Pattern.compile("(?<first>one) (two) (?<third>three)");
+
+        // When
+        Set<String> groupNames = StringUtil.patternGroupNames(givenRegex);
+
+        // Then
+        assertThat(groupNames).containsExactlyInAnyOrder("first", "third");
+        assertThat(StringUtil.patternGroupNames(Pattern.compile(givenRegex.pattern()))).isSameAs(groupNames);
+    }
+
+    @Test
+    void patternLiteralPrefix() {
+        assertThat(StringUtil.patternLiteralPrefix(Pattern.compile("release/.*"))).isEqualTo("release/");
+        assertThat(StringUtil.patternLiteralPrefix(Pattern.compile("^v\\d+\\..*"))).isEqualTo("v");
+        assertThat(StringUtil.patternLiteralPrefix(Pattern.compile("release\\.(?<version>.*)"))).isEqualTo("release.");
+        assertThat(StringUtil.patternLiteralPrefix(Pattern.compile("main"))).isEqualTo("main");
+        assertThat(StringUtil.patternLiteralPrefix(Pattern.compile("feat?ure/.*"))).isEqualTo("fea");
+        assertThat(StringUtil.patternLiteralPrefix(Pattern.compile("main|master"))).isEqualTo("");
+        assertThat(StringUtil.patternLiteralPrefix(Pattern.compile("release/(1|2)\\..*"))).isEqualTo("release/");
+        assertThat(StringUtil.patternLiteralPrefix(Pattern.compile("(?i)main"))).isEqualTo("");
+        assertThat(StringUtil.patternLiteralPrefix(Pattern.compile("main", Pattern.CASE_INSENSITIVE))).isEqualTo("");
+        assertThat(StringUtil.patternLiteralPrefix(Pattern.compile(".*"))).isEqualTo("");
+        assertThat(StringUtil.patternLiteralPrefix(Pattern.compile("a\\Q(\\E|b"))).isEqualTo("");
+        assertThat(StringUtil.patternLiteralPrefix(Pattern.compile("a\\Q|\\E"))).isEqualTo("a");
+        assertThat(StringUtil.patternLiteralPrefix(Pattern.compile("a\\Q(|b"))).isEqualTo("a");
+    }
 }
@@ -0,0 +1,69 @@
+package me.qoomon.maven.gitversioning;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CanonicalPathResolverTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void canonicalPath_relativeSegments() throws IOException {
+        // Given
+        Path givenDirectory = Files.createDirectories(tempDir.resolve("project/module"));
+        File givenFile = new File(givenDirectory.toFile(), "../module/pom.xml");
+
+        // When
+        Path canonicalPath = new CanonicalPathResolver().canonicalPath(givenFile);
+
+        // Then
+        assertThat(canonicalPath).isEqualTo(givenFile.getCanonicalFile().toPath());
+    }
+
+    @Test
+    void canonicalPath_symbolicLinkDirectory() throws IOException {
+        // Given
+        Path givenDirectory = Files.createDirectories(tempDir.resolve("project"));
+        Path givenLink = Files.createSymbolicLink(tempDir.resolve("link"), givenDirectory);
+        File givenFile = givenLink.resolve("pom.xml").toFile();
+
+        // When
+        Path canonicalPath = new CanonicalPathResolver().canonicalPath(givenFile);
+
+        // Then
+        assertThat(canonicalPath).isEqualTo(givenDirectory.toRealPath().resolve("pom.xml"));
+    }
+
+    @Test
+    void canonicalPath_symbolicLinkFile() throws IOException {
+        // Given
+        Path givenDirectory = Files.createDirectories(tempDir.resolve("project"));
+        Path givenFile = Files.createFile(givenDirectory.resolve("pom.xml"));
+        Path givenLink = Files.createSymbolicLink(givenDirectory.resolve("link.xml"), givenFile);
+
+        // When
+        Path canonicalPath = new CanonicalPathResolver().canonicalPath(givenLink.toFile());
+
+        // Then
+        assertThat(canonicalPath).isEqualTo(givenFile.toRealPath());
+    }
+
+    @Test
+    void isWithin() {
+        // Given
+        Path givenDirectory = tempDir.resolve("project");
+
+        // Then
+        assertThat(CanonicalPathResolver.isWithin(givenDirectory.resolve("pom.xml"), givenDirectory)).isTrue();
+        assertThat(CanonicalPathResolver.isWithin(givenDirectory, givenDirectory)).isFalse();
+        assertThat(CanonicalPathResolver.isWithin(tempDir.resolve("project-other/pom.xml"), givenDirectory)).isFalse();
+    }
+}
@@ -0,0 +1,76 @@
+package me.qoomon.maven.gitversioning;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.time.ZoneOffset.UTC;
+import static java.util.Collections.emptyMap;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CiEnvironmentTest {
+
+    @Test
+    void detect_none() {
+        // When
+        CiEnvironment ciEnvironment = CiEnvironment.detect(emptyMap());
+
+        // Then
+        assertThat(ciEnvironment).isNull();
+    }
+
+    @Test
+    void detect_gitHubActionsTag() {
+        // Given
+        Map<String, String> env = new HashMap<>();
+        env.put("GITHUB_ACTIONS", "true");
+        env.put("GITHUB_SHA", "0123456789012345678901234567890123456789");
+        env.put("GITHUB_REF", "refs/tags/v1.0.0");
+
+        // When
+        CiEnvironment ciEnvironment = CiEnvironment.detect(env);
+
+        // Then
+        assertThat(ciEnvironment.rev).isEqualTo("0123456789012345678901234567890123456789");
+        assertThat(ciEnvironment.branch).isNull();
+        assertThat(ciEnvironment.tag).isEqualTo("refs/tags/v1.0.0");
+        assertThat(ciEnvironment.timestamp).isNull();
+    }
+
+    @Test
+    void detect_gitLabCiMergeRequest() {
+        // Given
+        Map<String, String> env = new HashMap<>();
+        env.put("GITLAB_CI", "true");
+        env.put("CI_COMMIT_SHA", "0123456789012345678901234567890123456789");
+        env.put("CI_MERGE_REQUEST_SOURCE_BRANCH_NAME", "feature/foo");
+        env.put("CI_COMMIT_TIMESTAMP", "2022-01-31T17:47:55+01:00");
+
+        // When
+        CiEnvironment ciEnvironment = CiEnvironment.detect(env);
+
+        // Then
+        assertThat(ciEnvironment.branch).isEqualTo("feature/foo");
+        assertThat(ciEnvironment.tag).isNull();
+        assertThat(ciEnvironment.timestamp).isEqualTo(ZonedDateTime.of(2022, 1, 31, 16, 47, 55, 0, UTC));
+    }
+
+    @Test
+    void detect_jenkinsTag() {
+        // Given
+        Map<String, String> env = new HashMap<>();
+        env.put("JENKINS_HOME", "/var/jenkins");
+        env.put("GIT_COMMIT", "0123456789012345678901234567890123456789");
+        env.put("BRANCH_NAME", "v1.0.0");
+        env.put("TAG_NAME", "v1.0.0");
+
+        // When
+        CiEnvironment ciEnvironment = CiEnvironment.detect(env);
+
+        // Then
+        assertThat(ciEnvironment.branch).isNull();
+        assertThat(ciEnvironment.tag).isEqualTo("v1.0.0");
+    }
+}
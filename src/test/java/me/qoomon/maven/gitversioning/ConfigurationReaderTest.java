@@ -0,0 +1,266 @@
+package me.qoomon.maven.gitversioning;
+
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import me.qoomon.maven.gitversioning.Configuration.FileStoreAttributesMode;
+import me.qoomon.maven.gitversioning.Configuration.PatchDescription;
+import me.qoomon.maven.gitversioning.Configuration.RefPatchDescription;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.xml.XMLConstants;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.SchemaFactory;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.fasterxml.jackson.databind.MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static me.qoomon.gitversioning.commons.GitRefType.BRANCH;
+import static me.qoomon.gitversioning.commons.GitRefType.TAG;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+class ConfigurationReaderTest {
+
+    private static final String CONFIG = "" +
+            "<configuration xmlns=\"https://github.com/qoomon/maven-git-versioning-extension\"\n" +
+            "               xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\">\n" +
+            "    <!-- comment -->\n" +
+            "    <projectVersionPattern>(?&lt;major&gt;\\d+)\n  .*</projectVersionPattern>\n" +
+            "    <describeTagPattern>v(?&lt;version&gt;.*)</describeTagPattern>\n" +
+            "    <describeTagFirstParent>false</describeTagFirstParent>\n" +
+            "    <describeTagPatterns>\n" +
+            "        <release>release/(?&lt;version&gt;.+)</release>\n" +
+            "        <build>build/.+</build>\n" +
+            "    </describeTagPatterns>\n" +
+            "    <describeMaxDepth>1000</describeMaxDepth>\n" +
+            "    <describeTimeout>2000</describeTimeout>\n" +
+            "    <describeFallbackTag>v0.0.0</describeFallbackTag>\n" +
+            "    <updatePom>true</updatePom>\n" +
+            "    <mainBranch>develop</mainBranch>\n" +
+            "    <tagRefPrefixes>\n" +
+            "        <prefix>v</prefix>\n" +
+            "        <prefix>refs/tags/release/</prefix>\n" +
+            "    </tagRefPrefixes>\n" +
+            "    <refs considerTagsOnBranches=\"true\">\n" +
+            "        <ref type=\"tag\">\n" +
+            "            <pattern><![CDATA[v(?<version>.*)]]></pattern>\n" +
+            "            <version>${ref.version}</version>\n" +
+            "            <updatePom>false</updatePom>\n" +
+            "        </ref>\n" +
+            "        <ref type=\"branch\">\n" +
+            "            <pattern>\n" +
+            "                main\n" +
+            "            </pattern>\n" +
+            "            <describeTagPattern>release-.*</describeTagPattern>\n" +
+            "            <describeTagFirstParent>true</describeTagFirstParent>\n" +
+            "            <version>\n" +
+            "                ${describe.tag.version}-${describe.distance}\n" +
+            "            </version>\n" +
+            "            <unchangedModuleVersion>${describe.tag.version}</unchangedModuleVersion>\n" +
+            "            <properties>\n" +
+            "                <foo>${ref}</foo>\n" +
+            "                <foo.bar>bar</foo.bar>\n" +
+            "            </properties>\n" +
+            "        </ref>\n" +
+            "    </refs>\n" +
+            "    <rev>\n" +
+            "        <version>${commit}</version>\n" +
+            "    </rev>\n" +
+            "    <jgit>\n" +
+            "        <hermetic>true</hermetic>\n" +
+            "        <fileStoreAttributes>static</fileStoreAttributes>\n" +
+            "        <timestampResolution>10 milliseconds</timestampResolution>\n" +
+            "        <packedGitMmap>true</packedGitMmap>\n" +
+            "        <packedGitWindowSize>64k</packedGitWindowSize>\n" +
+            "        <packedGitLimit>256m</packedGitLimit>\n" +
+            "        <deltaBaseCacheLimit>32m</deltaBaseCacheLimit>\n" +
+            "        <streamFileThreshold>16m</streamFileThreshold>\n" +
+            "    </jgit>\n" +
+            "    <relatedProjects>\n" +
+            "        <project>\n" +
+            "            <groupId>me.qoomon</groupId>\n" +
+            "            <artifactId>\n" +
+            "                example\n" +
+            "            </artifactId>\n" +
+            "        </project>\n" +
+            "    </relatedProjects>\n" +
+            "</configuration>\n";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void read() throws IOException {
+        // Given
+        File configFile = writeConfigFile(CONFIG);
+
+        // When
+        Configuration config = ConfigurationReader.read(configFile);
+
+        // Then
+        assertThat(config.projectVersionPattern).isEqualTo("(?<major>\\d+).*");
+        assertThat(config.describeTagPatterns)
+                .containsExactly(entry("release", "release/(?<version>.+)"), entry("build", "build/.+"));
+        assertThat(config.describeMaxDepth).isEqualTo(1000);
+        assertThat(config.describeTimeout).isEqualTo(2000L);
+        assertThat(config.describeFallbackTag).isEqualTo("v0.0.0");
+        assertThat(config.mainBranch).isEqualTo("develop");
+        assertThat(config.tagRefPrefixes).containsExactly("v", "refs/tags/release/");
+        assertThat(config.refs.considerTagsOnBranches).isTrue();
+        assertThat(config.refs.list).hasSize(2);
+
+        RefPatchDescription tagConfig = config.refs.list.get(0);
+        assertThat(tagConfig.type).isEqualTo(TAG);
+        assertThat(tagConfig.pattern).isEqualTo("v(?<version>.*)");
+        assertThat(tagConfig.describeTagPattern).isEqualTo("v(?<version>.*)");
+        assertThat(tagConfig.describeTagFirstParent).isFalse();
+        assertThat(tagConfig.updatePom).isFalse();
+
+        RefPatchDescription branchConfig = config.refs.list.get(1);
+        assertThat(branchConfig.type).isEqualTo(BRANCH);
+        assertThat(branchConfig.pattern).isEqualTo("main");
+        assertThat(branchConfig.describeTagPattern).isEqualTo("release-.*");
+        assertThat(branchConfig.describeTagFirstParent).isTrue();
+        assertThat(branchConfig.updatePom).isTrue();
+        assertThat(branchConfig.version).isEqualTo("${describe.tag.version}-${describe.distance}");
+        assertThat(branchConfig.unchangedModuleVersion).isEqualTo("${describe.tag.version}");
+        assertThat(branchConfig.properties)
+                .containsEntry("foo", "${ref}")
+                .containsEntry("foo.bar", "bar");
+
+        assertThat(config.rev.version).isEqualTo("${commit}");
+        assertThat(config.rev.updatePom).isTrue();
+
+        assertThat(config.jgit.hermetic).isTrue();
+        assertThat(config.jgit.fileStoreAttributes).isEqualTo(FileStoreAttributesMode.STATIC);
+        assertThat(config.jgit.timestampResolution).isEqualTo("10 milliseconds");
+        assertThat(config.jgit.packedGitMmap).isTrue();
+        assertThat(config.jgit.packedGitWindowSize).isEqualTo("64k");
+        assertThat(config.jgit.packedGitLimit).isEqualTo("256m");
+        assertThat(config.jgit.deltaBaseCacheLimit).isEqualTo("32m");
+        assertThat(config.jgit.streamFileThreshold).isEqualTo("16m");
+
+        assertThat(config.relatedProjects).hasSize(1);
+        assertThat(config.relatedProjects.get(0).groupId).isEqualTo("me.qoomon");
+        assertThat(config.relatedProjects.get(0).artifactId).isEqualTo("example");
+    }
+
+    @Test
+    void read_unknownElements() throws IOException {
+        // Given
+        File configFile = writeConfigFile("<configuration>\n" +
+                "    <unknown><nested>value</nested></unknown>\n" +
+                "    <refs>\n" +
+                "        <ref type=\"branch\"><unknown>value</unknown><version>${ref}</version></ref>\n" +
+                "    </refs>\n" +
+                "</configuration>\n");
+
+        // When
+        Configuration config = ConfigurationReader.read(configFile);
+
+        // Then
+        assertThat(config.refs.list).hasSize(1);
+        assertThat(config.refs.list.get(0).version).isEqualTo("${ref}");
+    }
+
+    @Test
+    void read_invalidBoolean() throws IOException {
+        // Given
+        File configFile = writeConfigFile("<configuration><disable>yes</disable></configuration>");
+
+        // Then
+        assertThatThrownBy(() -> ConfigurationReader.read(configFile))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("yes");
+    }
+
+    @Test
+    void read_sameAsJackson() throws IOException {
+        // Given
+        List<File> configFiles = new ArrayList<>();
+        configFiles.add(writeConfigFile(CONFIG));
+        configFiles.add(new File("src/test/resources/testProjects/standardProject/.mvn/maven-git-versioning-extension.xml"));
+        configFiles.add(new File("src/test/resources/testProjects/multiModuleProject/.mvn/maven-git-versioning-extension.xml"));
+
+        XmlMapper xmlMapper = XmlMapper.builder().enable(ACCEPT_CASE_INSENSITIVE_ENUMS).build();
+
+        for (File configFile : configFiles) {
+            // When
+            Configuration config = ConfigurationReader.read(configFile);
+
+            // Then
+            Configuration jacksonConfig = xmlMapper.readValue(configFile, Configuration.class);
+            applyGlobalConfig(jacksonConfig);
+            assertThat(xmlMapper.writeValueAsString(config))
+                    .isEqualTo(xmlMapper.writeValueAsString(jacksonConfig));
+        }
+    }
+
+    @Test
+    void configIsValidAgainstSchema() throws Exception {
+        // Given
+        File configFile = writeConfigFile(CONFIG);
+
+        // When
+        SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI)
+                .newSchema(new File("docs/configuration-9.9.0.xsd"))
+                .newValidator()
+                .validate(new StreamSource(configFile));
+
+        // Then
+        assertThat(ConfigurationReader.read(configFile).refs.list).hasSize(2);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark() throws IOException {
+        // Given
+        File configFile = writeConfigFile(CONFIG);
+
+        // When
+        long readerStart = System.nanoTime();
+        Configuration readerConfig = ConfigurationReader.read(configFile);
+        long readerDuration = System.nanoTime() - readerStart;
+
+        long jacksonStart = System.nanoTime();
+        Configuration jacksonConfig = XmlMapper.builder().enable(ACCEPT_CASE_INSENSITIVE_ENUMS).build()
+                .readValue(configFile, Configuration.class);
+        long jacksonDuration = System.nanoTime() - jacksonStart;
+
+        // Then
+        assertThat(readerConfig.refs.list).hasSameSizeAs(jacksonConfig.refs.list);
+        System.out.printf("cold config read - jackson: %d ms, reader: %d ms%n",
+                jacksonDuration / 1_000_000, readerDuration / 1_000_000);
+    }
+
+    private File writeConfigFile(String content) throws IOException {
+        Path configFile = Files.createTempFile(tempDir, "maven-git-versioning-extension", ".xml");
+        Files.write(configFile, content.getBytes(UTF_8));
+        return configFile.toFile();
+    }
+
+    private static void applyGlobalConfig(Configuration config) {
+        List<PatchDescription> patchDescriptions = new ArrayList<>(config.refs.list);
+        if (config.rev != null) {
+            patchDescriptions.add(config.rev);
+        }
+        for (PatchDescription patchDescription : patchDescriptions) {
+            if (patchDescription.describeTagPattern == null) {
+                patchDescription.describeTagPattern = config.describeTagPattern;
+            }
+            if (patchDescription.describeTagFirstParent == null) {
+                patchDescription.describeTagFirstParent = config.describeTagFirstParent;
+            }
+            if (patchDescription.updatePom == null) {
+                patchDescription.updatePom = config.updatePom;
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package me.qoomon.maven.gitversioning;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConfigurationTest {
+
+    @Test
+    void describeTagPatterns_changedSource() {
+        // given
+        Configuration config = new Configuration();
+        config.describeTagPatterns.put("release", "release-.*");
+        Map<String, Pattern> givenPatterns = config.describeTagPatterns();
+
+        // when
+        config.describeTagPatterns.put("hotfix", "hotfix-.*");
+        Map<String, Pattern> patterns = config.describeTagPatterns();
+
+        // then
+        assertThat(config.describeTagPatterns()).isSameAs(patterns);
+        assertThat(patterns).containsOnlyKeys("release", "hotfix");
+        assertThat(patterns.get("release")).isSameAs(givenPatterns.get("release"));
+        assertThat(patterns.get("hotfix").pattern()).isEqualTo("hotfix-.*");
+    }
+}
@@ -327,6 +327,147 @@ class GitVersioningExtensionIT {
         }
     }
 
+    @Test
+    void branchVersioning_ciEnvironment_fastPath() throws Exception {
+        try (Git git = Git.init().setInitialBranch("master").setDirectory(projectDir.toFile()).call()) {
+            // Given
+            RevCommit commit = git.commit().setMessage("initial commit").setAllowEmpty(true).call();
+            git.checkout().setName(commit.getName()).call();
+
+            writeModel(projectDir.resolve("pom.xml").toFile(), pomModel);
+            writeExtensionsFile(projectDir);
+
+            writeExtensionConfigFile(projectDir, new Configuration() {{
+                refs.list.add(createBranchVersionDescription());
+            }});
+
+            // When
+            Verifier verifier = getVerifier(projectDir);
+            verifier.setEnvironmentVariable("GITHUB_ACTIONS", "false");
+            verifier.setEnvironmentVariable("GITLAB_CI", "true");
+            verifier.setEnvironmentVariable("CI_COMMIT_SHA", commit.getName());
+            verifier.setEnvironmentVariable("CI_COMMIT_BRANCH", "feature/ci");
+            verifier.setEnvironmentVariable("CI_COMMIT_TIMESTAMP", "2024-01-02T03:04:05+00:00");
+            verifier.executeGoal("verify");
+
+            // Then
+            verifier.verifyErrorFreeLog();
+            String expectedVersion = "feature-ci-gitVersioning";
+            verifier.verifyTextInLog("Building " + pomModel.getArtifactId() + " " + expectedVersion);
+            verifier.verifyTextInLog("fast path - git repository is opened on demand only");
+            assertThat(projectDir.resolve(verifier.getLogFileName())).content().doesNotContain("regular path - open git repository");
+        }
+    }
+
+    @Test
+    void tagVersioning_ciEnvironment_multipleTags() throws Exception {
+        try (Git git = Git.init().setInitialBranch("master").setDirectory(projectDir.toFile()).call()) {
+            // Given
+            RevCommit commit = git.commit().setMessage("initial commit").setAllowEmpty(true).call();
+            git.tag().setAnnotated(true).setName("v1.0.0").call();
+            git.tag().setAnnotated(true).setName("v2.0.0").call();
+            git.checkout().setName(commit.getName()).call();
+
+            writeModel(projectDir.resolve("pom.xml").toFile(), pomModel);
+            writeExtensionsFile(projectDir);
+
+            writeExtensionConfigFile(projectDir, new Configuration() {{
+                RefPatchDescription tagVersionDescription = createTagVersionDescription();
+                tagVersionDescription.pattern = "v2.*";
+                refs.list.add(tagVersionDescription);
+            }});
+
+            // When
+            // CI environment provides tag v1.0.0 only, fast path is used if commit timestamp is provided
+            Verifier regularPathVerifier = getVerifier(projectDir);
+            regularPathVerifier.setLogFileName("log-regular-path.txt");
+            regularPathVerifier.setEnvironmentVariable("GITHUB_ACTIONS", "false");
+            regularPathVerifier.setEnvironmentVariable("GITLAB_CI", "true");
+            regularPathVerifier.setEnvironmentVariable("CI_COMMIT_SHA", commit.getName());
+            regularPathVerifier.setEnvironmentVariable("CI_COMMIT_TAG", "v1.0.0");
+            regularPathVerifier.executeGoal("verify");
+
+            Verifier fastPathVerifier = getVerifier(projectDir);
+            fastPathVerifier.setLogFileName("log-fast-path.txt");
+            fastPathVerifier.setEnvironmentVariable("GITHUB_ACTIONS", "false");
+            fastPathVerifier.setEnvironmentVariable("GITLAB_CI", "true");
+            fastPathVerifier.setEnvironmentVariable("CI_COMMIT_SHA", commit.getName());
+            fastPathVerifier.setEnvironmentVariable("CI_COMMIT_TAG", "v1.0.0");
+            fastPathVerifier.setEnvironmentVariable("CI_COMMIT_TIMESTAMP", "2024-01-02T03:04:05+00:00");
+            fastPathVerifier.executeGoal("verify");
+
+            // Then
+            String expectedVersion = "v2.0.0-gitVersioning";
+
+            regularPathVerifier.verifyErrorFreeLog();
+            regularPathVerifier.verifyTextInLog("regular path - open git repository");
+            regularPathVerifier.verifyTextInLog("Building " + pomModel.getArtifactId() + " " + expectedVersion);
+
+            fastPathVerifier.verifyErrorFreeLog();
+            fastPathVerifier.verifyTextInLog("fast path - git repository is opened on demand only");
+            fastPathVerifier.verifyTextInLog("Building " + pomModel.getArtifactId() + " " + expectedVersion);
+        }
+    }
+
+    @Test
+    void branchVersioning_ciEnvironment_withoutCommitTimestamp() throws Exception {
+        try (Git git = Git.init().setInitialBranch("master").setDirectory(projectDir.toFile()).call()) {
+            // Given
+            RevCommit commit = git.commit().setMessage("initial commit").setAllowEmpty(true).call();
+            git.checkout().setName(commit.getName()).call();
+
+            writeModel(projectDir.resolve("pom.xml").toFile(), pomModel);
+            writeExtensionsFile(projectDir);
+
+            writeExtensionConfigFile(projectDir, new Configuration() {{
+                refs.list.add(createBranchVersionDescription());
+            }});
+
+            // When
+            Verifier verifier = getVerifier(projectDir);
+            verifier.setEnvironmentVariable("GITHUB_ACTIONS", "true");
+            verifier.setEnvironmentVariable("GITHUB_SHA", commit.getName());
+            verifier.setEnvironmentVariable("GITHUB_REF", "refs/heads/feature/ci");
+            verifier.executeGoal("verify");
+
+            // Then
+            verifier.verifyErrorFreeLog();
+            String expectedVersion = "feature-ci-gitVersioning";
+            verifier.verifyTextInLog("Building " + pomModel.getArtifactId() + " " + expectedVersion);
+            verifier.verifyTextInLog("regular path - open git repository");
+            assertThat(projectDir.resolve(verifier.getLogFileName())).content().doesNotContain("fast path - git repository is opened on demand only");
+        }
+    }
+
+    @Test
+    void branchVersioning_prewarm_relativeFileStoreAttributesCache() throws Exception {
+        try (Git git = Git.init().setInitialBranch("master").setDirectory(projectDir.toFile()).call()) {
+            // Given
+            git.commit().setMessage("initial commit").setAllowEmpty(true).call();
+
+            writeModel(projectDir.resolve("pom.xml").toFile(), pomModel);
+            writeExtensionsFile(projectDir);
+
+            writeExtensionConfigFile(projectDir, new Configuration() {{
+                jgit.fileStoreAttributesCache = "jgit.config";
+                refs.list.add(createBranchVersionDescription());
+            }});
+
+            // When
+            Verifier verifier = getVerifier(projectDir);
+            verifier.addCliArgument("-X");
+            verifier.executeGoal("verify");
+
+            // Then
+            verifier.verifyErrorFreeLog();
+            String expectedVersion = "master-gitVersioning";
+            verifier.verifyTextInLog("Building " + pomModel.getArtifactId() + " " + expectedVersion);
+            verifier.verifyTextInLog("use pre-warmed config from");
+            verifier.verifyTextInLog("jgit file store attributes cache: " + projectDir.resolve(".mvn/jgit.config").toFile());
+            assertThat(projectDir.resolve("jgit.config")).doesNotExist();
+        }
+    }
+
     @Test
     void revVersioning_multiModuleProject() throws Exception {
 
@@ -495,6 +636,111 @@ class GitVersioningExtensionIT {
         }
     }
 
+    @Test
+    void branchVersioning_multiModuleProject_partialBuild() throws Exception {
+
+        try (Git git = Git.init().setInitialBranch("feature/test").setDirectory(projectDir.toFile()).call()) {
+            // Given
+            git.commit().setMessage("initial commit").setAllowEmpty(true).call();
+
+            pomModel.setPackaging("pom");
+            pomModel.addModule("api");
+            pomModel.addModule("logic");
+
+            writeModel(projectDir.resolve("pom.xml").toFile(), pomModel);
+            writeExtensionsFile(projectDir);
+
+            writeExtensionConfigFile(projectDir, new Configuration() {{
+                refs.list.add(createBranchVersionDescription());
+            }});
+
+            Path apiProjectDir = Files.createDirectories(projectDir.resolve("api"));
+            Model apiPomModel = writeModel(apiProjectDir.resolve("pom.xml").toFile(), new Model() {{
+                setModelVersion(pomModel.getModelVersion());
+                setParent(new Parent() {{
+                    setGroupId(pomModel.getGroupId());
+                    setArtifactId(pomModel.getArtifactId());
+                    setVersion(pomModel.getVersion());
+                }});
+                setArtifactId("api");
+            }});
+
+            // unrelated module of partial build, reading its pom file fails
+            Path logicProjectDir = Files.createDirectories(projectDir.resolve("logic"));
+            Files.write(logicProjectDir.resolve("pom.xml"), "<project>unreadable".getBytes());
+
+            // When
+            Verifier verifier = getVerifier(apiProjectDir);
+            verifier.executeGoal("verify");
+
+            // Then
+            verifier.verifyErrorFreeLog();
+            String expectedVersion = "feature-test-gitVersioning";
+            verifier.verifyTextInLog("Building " + apiPomModel.getArtifactId() + " " + expectedVersion);
+
+            Model gitVersionedApiPomModel = readModel(apiProjectDir.resolve(GIT_VERSIONING_POM_NAME).toFile());
+            assertThat(gitVersionedApiPomModel.getParent().getVersion()).isEqualTo(expectedVersion);
+        }
+    }
+
+    @Test
+    void branchVersioning_multiModuleProject_siblingDependencyWithOtherGroupId() throws Exception {
+        try (Git git = Git.init().setInitialBranch("feature/test").setDirectory(projectDir.toFile()).call()) {
+            // Given
+            git.commit().setMessage("initial commit").setAllowEmpty(true).call();
+
+            pomModel.setPackaging("pom");
+            pomModel.addModule("logic");
+            pomModel.addModule("api");
+
+            writeModel(projectDir.resolve("pom.xml").toFile(), pomModel);
+            writeExtensionsFile(projectDir);
+
+            writeExtensionConfigFile(projectDir, new Configuration() {{
+                refs.list.add(createBranchVersionDescription());
+            }});
+
+            Path logicProjectDir = Files.createDirectories(projectDir.resolve("logic"));
+            Model logicPomModel = writeModel(logicProjectDir.resolve("pom.xml").toFile(), new Model() {{
+                setModelVersion(pomModel.getModelVersion());
+                setGroupId("x");
+                setArtifactId("logic");
+                setVersion(pomModel.getVersion());
+                // sibling module with another group id, not resolved yet while processing this module
+                setDependencyManagement(new DependencyManagement() {{
+                    addDependency(new Dependency() {{
+                        setGroupId("y");
+                        setArtifactId("api");
+                        setVersion(pomModel.getVersion());
+                    }});
+                }});
+            }});
+
+            Path apiProjectDir = Files.createDirectories(projectDir.resolve("api"));
+            Model apiPomModel = writeModel(apiProjectDir.resolve("pom.xml").toFile(), new Model() {{
+                setModelVersion(pomModel.getModelVersion());
+                setGroupId("y");
+                setArtifactId("api");
+                setVersion(pomModel.getVersion());
+            }});
+
+            // When
+            Verifier verifier = getVerifier(logicProjectDir);
+            verifier.executeGoal("verify");
+
+            // Then
+            verifier.verifyErrorFreeLog();
+            String expectedVersion = "feature-test-gitVersioning";
+            verifier.verifyTextInLog("Building " + logicPomModel.getArtifactId() + " " + expectedVersion);
+
+            Model gitVersionedLogicPomModel = readModel(logicProjectDir.resolve(GIT_VERSIONING_POM_NAME).toFile());
+            assertThat(gitVersionedLogicPomModel.getDependencyManagement().getDependencies().get(0)).satisfies(dependency -> assertSoftly(softly -> {
+                softly.assertThat(dependency.getArtifactId()).isEqualTo(apiPomModel.getArtifactId());
+                softly.assertThat(dependency.getVersion()).isEqualTo(expectedVersion);
+            }));
+        }
+    }
+
     @Test
     void branchVersioning_multiModuleProject_withExternalParent() throws Exception {
         try (Git git = Git.init().setInitialBranch("feature/test").setDirectory(projectDir.toFile()).call()) {
@@ -668,6 +914,70 @@ class GitVersioningExtensionIT {
         }
     }
 
+    @Test
+    void moduleVersioning_multiModuleProject() throws Exception {
+        try (Git git = Git.init().setInitialBranch(MASTER).setDirectory(projectDir.toFile()).call()) {
+            // Given
+            writeExtensionsFile(projectDir);
+
+            writeExtensionConfigFile(projectDir, new Configuration() {{
+                refs.list.add(createVersionDescription(BRANCH, "${describe.tag.version}-${module.describe.distance}"));
+            }});
+
+            // only api module changed since tag v1.0.0
+            writeApiChangedModuleProject(git);
+
+            // When
+            Verifier verifier = getVerifier(projectDir);
+            verifier.executeGoal("verify");
+
+            // Then
+            verifier.verifyErrorFreeLog();
+            verifier.verifyTextInLog("Building " + pomModel.getArtifactId() + " 1.0.0-1");
+            verifier.verifyTextInLog("Building api 1.0.0-1");
+            verifier.verifyTextInLog("Building logic 1.0.0-0");
+
+            Model gitVersionedLogicPomModel = readModel(projectDir.resolve("logic").resolve(GIT_VERSIONING_POM_NAME).toFile());
+            assertThat(gitVersionedLogicPomModel).satisfies(it -> assertSoftly(softly -> {
+                softly.assertThat(it.getParent().getVersion()).isEqualTo("1.0.0-1");
+                softly.assertThat(it.getDependencies().get(0).getVersion()).isEqualTo("1.0.0-1");
+            }));
+        }
+    }
+
+    @Test
+    void moduleVersioning_unchangedModuleVersion() throws Exception {
+        try (Git git = Git.init().setInitialBranch(MASTER).setDirectory(projectDir.toFile()).call()) {
+            // Given
+            writeExtensionsFile(projectDir);
+
+            writeExtensionConfigFile(projectDir, new Configuration() {{
+                RefPatchDescription versionDescription = createVersionDescription(BRANCH, "${describe.tag.version}-SNAPSHOT");
+                versionDescription.unchangedModuleVersion = "${describe.tag.version}";
+                refs.list.add(versionDescription);
+            }});
+
+            // only api module changed since tag v1.0.0
+            writeApiChangedModuleProject(git);
+
+            // When
+            Verifier verifier = getVerifier(projectDir);
+            verifier.executeGoal("verify");
+
+            // Then
+            verifier.verifyErrorFreeLog();
+            verifier.verifyTextInLog("Building " + pomModel.getArtifactId() + " 1.0.0-SNAPSHOT");
+            verifier.verifyTextInLog("Building api 1.0.0-SNAPSHOT");
+            verifier.verifyTextInLog("Building logic 1.0.0");
+
+            Model gitVersionedLogicPomModel = readModel(projectDir.resolve("logic").resolve(GIT_VERSIONING_POM_NAME).toFile());
+            assertThat(gitVersionedLogicPomModel).satisfies(it -> assertSoftly(softly -> {
+                softly.assertThat(it.getParent().getVersion()).isEqualTo("1.0.0-SNAPSHOT");
+                softly.assertThat(it.getDependencies().get(0).getVersion()).isEqualTo("1.0.0-SNAPSHOT");
+            }));
+        }
+    }
+
     @Test
     void branchVersioning_WithBuildTime() throws Exception {
 
@@ -977,6 +1287,55 @@ class GitVersioningExtensionIT {
         return refVersionDescription;
     }
 
+    /**
+     * Writes multi module project of modules <code>api</code> and <code>logic</code>, that depends on <code>api</code>,
+     * tags it by <code>v1.0.0</code> and changes module <code>api</code> afterwards.
+     */
+    private void writeApiChangedModuleProject(Git git) throws Exception {
+        pomModel.setPackaging("pom");
+        pomModel.addModule("api");
+        pomModel.addModule("logic");
+        writeModel(projectDir.resolve("pom.xml").toFile(), pomModel);
+
+        Path apiProjectDir = Files.createDirectories(projectDir.resolve("api"));
+        writeModel(apiProjectDir.resolve("pom.xml").toFile(), new Model() {{
+            setModelVersion(pomModel.getModelVersion());
+            setParent(new Parent() {{
+                setGroupId(pomModel.getGroupId());
+                setArtifactId(pomModel.getArtifactId());
+                setVersion(pomModel.getVersion());
+            }});
+            setArtifactId("api");
+            // module version, inherited versions are versioned like parent
+            setVersion(pomModel.getVersion());
+        }});
+
+        Path logicProjectDir = Files.createDirectories(projectDir.resolve("logic"));
+        writeModel(logicProjectDir.resolve("pom.xml").toFile(), new Model() {{
+            setModelVersion(pomModel.getModelVersion());
+            setParent(new Parent() {{
+                setGroupId(pomModel.getGroupId());
+                setArtifactId(pomModel.getArtifactId());
+                setVersion(pomModel.getVersion());
+            }});
+            setArtifactId("logic");
+            setVersion(pomModel.getVersion());
+            addDependency(new Dependency() {{
+                setGroupId(pomModel.getGroupId());
+                setArtifactId("api");
+                setVersion(pomModel.getVersion());
+            }});
+        }});
+
+        git.add().addFilepattern(".").call();
+        git.commit().setMessage("initial commit").call();
+        git.tag().setName("v1.0.0").call();
+
+        Files.write(apiProjectDir.resolve("api.txt"), "api".getBytes());
+        git.add().addFilepattern("api/api.txt").call();
+        git.commit().setMessage("api commit").call();
+    }
+
     private File writeExtensionConfigFile(Path projectDir, Configuration config) throws Exception {
         Path mvnDotDir = Files.createDirectories(projectDir.resolve(".mvn"));
         File configFile = mvnDotDir.resolve("maven-git-versioning-extension.xml").toFile();
@@ -0,0 +1,54 @@
+package me.qoomon.maven.gitversioning;
+
+import org.eclipse.jgit.lib.Config;
+import org.eclipse.jgit.storage.file.WindowCacheConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GitVersioningModelProcessorTest {
+
+    @Test
+    void jgitWindowCacheSettings() {
+        // given
+        Configuration.JGitConfig jgitConfig = new Configuration.JGitConfig();
+        jgitConfig.packedGitMmap = true;
+        jgitConfig.packedGitWindowSize = "64k";
+        jgitConfig.packedGitLimit = "256m";
+        jgitConfig.deltaBaseCacheLimit = "32m";
+
+        Map<String, String> commandOptions = new HashMap<>();
+        commandOptions.put("versioning.jgit.packedGitLimit", "512m");
+        commandOptions.put("versioning.jgit.streamFileThreshold", " 16m ");
+
+        // when
+        Config settings = GitVersioningModelProcessor.jgitWindowCacheSettings(jgitConfig, commandOptions::get);
+        WindowCacheConfig windowCacheConfig = new WindowCacheConfig().fromConfig(settings);
+
+        // then
+        assertThat(windowCacheConfig.isPackedGitMMAP()).isTrue();
+        assertThat(windowCacheConfig.getPackedGitWindowSize()).isEqualTo(64 * 1024);
+        assertThat(windowCacheConfig.getPackedGitLimit()).isEqualTo(512L * 1024 * 1024);
+        assertThat(windowCacheConfig.getDeltaBaseCacheLimit()).isEqualTo(32 * 1024 * 1024);
+        assertThat(windowCacheConfig.getStreamFileThreshold()).isEqualTo(16 * 1024 * 1024);
+    }
+
+    @Test
+    void jgitWindowCacheSettings_unset() {
+        // given
+        Configuration.JGitConfig jgitConfig = new Configuration.JGitConfig();
+
+        // when
+        Config settings = GitVersioningModelProcessor.jgitWindowCacheSettings(jgitConfig, name -> null);
+
+        // then
+        assertThat(settings.getSections()).isEmpty();
+        WindowCacheConfig defaultWindowCacheConfig = new WindowCacheConfig();
+        WindowCacheConfig windowCacheConfig = new WindowCacheConfig().fromConfig(settings);
+        assertThat(windowCacheConfig.getPackedGitLimit()).isEqualTo(defaultWindowCacheConfig.getPackedGitLimit());
+        assertThat(windowCacheConfig.getPackedGitWindowSize()).isEqualTo(defaultWindowCacheConfig.getPackedGitWindowSize());
+    }
+}
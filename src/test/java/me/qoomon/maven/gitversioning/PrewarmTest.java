@@ -0,0 +1,59 @@
+package me.qoomon.maven.gitversioning;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PrewarmTest {
+
+    final File configFile = new File(".mvn", "maven-git-versioning-extension.xml");
+
+    @Test
+    void join_sameConfigFile() throws Exception {
+        // given
+        AtomicInteger count = new AtomicInteger();
+        Prewarm<Integer> prewarm = Prewarm.start(configFile, count::incrementAndGet, "test-prewarm");
+
+        // when
+        Integer result = prewarm.join(new File(".mvn", "maven-git-versioning-extension.xml"));
+
+        // then
+        assertThat(result).isEqualTo(1);
+        assertThat(count.get()).isEqualTo(1);
+    }
+
+    @Test
+    void join_otherConfigFile() throws Exception {
+        // given
+        AtomicInteger count = new AtomicInteger();
+        Prewarm<Integer> prewarm = Prewarm.start(configFile, count::incrementAndGet, "test-prewarm");
+
+        // when
+        Integer result = prewarm.join(new File("sub/.mvn", "maven-git-versioning-extension.xml"));
+
+        // then
+        assertThat(result).isNull();
+        // waits for pre-warm anyway, so it does not interfere with regular init
+        assertThat(count.get()).isEqualTo(1);
+    }
+
+    @Test
+    void join_failed() {
+        // given
+        Prewarm<Integer> prewarm = Prewarm.start(configFile, () -> {
+            throw new IOException("unreadable");
+        }, "test-prewarm");
+
+        // when
+        // then
+        assertThatThrownBy(() -> prewarm.join(configFile))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IOException.class);
+    }
+}
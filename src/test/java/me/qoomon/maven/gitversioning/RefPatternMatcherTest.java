@@ -0,0 +1,181 @@
+package me.qoomon.maven.gitversioning;
+
+import me.qoomon.gitversioning.commons.GitRefType;
+import me.qoomon.maven.gitversioning.Configuration.RefPatchDescription;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static me.qoomon.gitversioning.commons.GitRefType.BRANCH;
+import static me.qoomon.gitversioning.commons.GitRefType.TAG;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RefPatternMatcherTest {
+
+    @Test
+    void firstMatch_firstMatchingRefConfigurationWins() {
+        // Given
+        RefPatternMatcher matcher = new RefPatternMatcher(asList(
+                refConfig(BRANCH, "feature/.*"),
+                refConfig(BRANCH, "release/1\\.x"),
+                refConfig(BRANCH, "release/.*"),
+                refConfig(BRANCH, ".*")
+        ));
+
+        // Then
+        assertThat(matcher.firstMatch(BRANCH, "release/1.x")).isEqualTo(1);
+        assertThat(matcher.firstMatch(BRANCH, "release/2.x")).isEqualTo(2);
+        assertThat(matcher.firstMatch(BRANCH, "feature/foo")).isEqualTo(0);
+        assertThat(matcher.firstMatch(BRANCH, "main")).isEqualTo(3);
+        assertThat(matcher.firstMatch(TAG, "main")).isEqualTo(-1);
+    }
+
+    @Test
+    void firstMatch_shorterPrefixWithHigherPriority() {
+        // Given
+        RefPatternMatcher matcher = new RefPatternMatcher(asList(
+                refConfig(BRANCH, "rel.*"),
+                refConfig(BRANCH, "release/.*")
+        ));
+
+        // Then
+        assertThat(matcher.firstMatch(BRANCH, "release/1.x")).isEqualTo(0);
+    }
+
+    @Test
+    void firstMatch_nullPattern() {
+        // Given
+        RefPatternMatcher matcher = new RefPatternMatcher(asList(
+                refConfig(BRANCH, "main"),
+                refConfig(BRANCH, null)
+        ));
+
+        // Then
+        assertThat(matcher.firstMatch(BRANCH, "main")).isEqualTo(0);
+        assertThat(matcher.firstMatch(BRANCH, "develop")).isEqualTo(1);
+    }
+
+    @Test
+    void firstMatch_tags() {
+        // Given
+        RefPatternMatcher matcher = new RefPatternMatcher(asList(
+                refConfig(TAG, "v(?<version>.*)"),
+                refConfig(TAG, ".*")
+        ));
+
+        // When
+        RefPatternMatcher.Match match = matcher.firstMatch(TAG, asList("build-1", "v1.0.0", "v2.0.0"), Integer.MAX_VALUE);
+
+        // Then
+        assertThat(match.index).isEqualTo(0);
+        assertThat(match.refName).isEqualTo("v1.0.0");
+    }
+
+    @Test
+    void firstMatch_tagsWithIndexLimit() {
+        // Given
+        RefPatternMatcher matcher = new RefPatternMatcher(asList(
+                refConfig(BRANCH, "main"),
+                refConfig(TAG, "v.*")
+        ));
+
+        // Then
+        assertThat(matcher.hasRefConfig(TAG, 0)).isFalse();
+        assertThat(matcher.firstMatch(TAG, asList("v1.0.0"), 0)).isNull();
+        assertThat(matcher.firstMatch(TAG, asList("v1.0.0"), Integer.MAX_VALUE).index).isEqualTo(1);
+    }
+
+    @Test
+    void firstMatch_quotedAlternation() {
+        // Given
+        RefPatternMatcher matcher = new RefPatternMatcher(asList(
+                refConfig(BRANCH, "a\\Q(\\E|b"),
+                refConfig(BRANCH, ".*")
+        ));
+
+        // Then
+        assertThat(matcher.firstMatch(BRANCH, "a(")).isEqualTo(0);
+        assertThat(matcher.firstMatch(BRANCH, "b")).isEqualTo(0);
+        assertThat(matcher.firstMatch(BRANCH, "c")).isEqualTo(1);
+    }
+
+    @Test
+    void firstMatch_manyPrefixedPatterns() {
+        // Given
+        List<RefPatchDescription> refConfigs = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            refConfigs.add(refConfig(TAG, "customer-" + i + "/v(?<version>\\d+\\.\\d+\\.\\d+)"));
+        }
+        refConfigs.add(refConfig(TAG, "v(?<version>.*)"));
+        RefPatternMatcher matcher = new RefPatternMatcher(refConfigs);
+
+        // Then
+        for (List<String> tags : asList(
+                asList("nightly-1", "v1.0.0"),
+                asList("customer-42/v1.0.0", "v1.0.0"),
+                asList("customer-4/v1.0.0", "customer-42/v1.0.0"),
+                asList("customer-42/vX", "nightly-1"))) {
+            RefPatternMatcher.Match match = matcher.firstMatch(TAG, tags, Integer.MAX_VALUE);
+            assertThat(match != null ? match.index : -1).as("first match of %s", tags)
+                    .isEqualTo(naiveFirstMatch(refConfigs, tags));
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmark() {
+        // Given
+        List<RefPatchDescription> refConfigs = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            refConfigs.add(refConfig(TAG, "customer-" + i + "/v(?<version>\\d+\\.\\d+\\.\\d+)"));
+        }
+        refConfigs.add(refConfig(TAG, "v(?<version>.*)"));
+        List<String> tags = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            tags.add("nightly-" + i);
+        }
+        tags.add("v1.0.0");
+
+        RefPatternMatcher matcher = new RefPatternMatcher(refConfigs);
+        int iterations = 20;
+
+        // When
+        long naiveStart = System.nanoTime();
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            naiveFirstMatch(refConfigs, tags);
+        }
+        long naiveDuration = System.nanoTime() - naiveStart;
+
+        long matcherStart = System.nanoTime();
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            matcher.firstMatch(TAG, tags, Integer.MAX_VALUE);
+        }
+        long matcherDuration = System.nanoTime() - matcherStart;
+
+        // Then
+        assertThat(matcher.firstMatch(TAG, tags, Integer.MAX_VALUE).index).isEqualTo(naiveFirstMatch(refConfigs, tags));
+        System.out.printf("ref pattern matching of %d patterns and %d tags - naive: %d us, matcher: %d us%n",
+                refConfigs.size(), tags.size(), naiveDuration / iterations / 1_000, matcherDuration / iterations / 1_000);
+    }
+
+    private static int naiveFirstMatch(List<RefPatchDescription> refConfigs, List<String> tags) {
+        for (int index = 0; index < refConfigs.size(); index++) {
+            for (String tag : tags) {
+                if (refConfigs.get(index).pattern().matcher(tag).matches()) {
+                    return index;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static RefPatchDescription refConfig(GitRefType type, String pattern) {
+        RefPatchDescription refConfig = new RefPatchDescription();
+        refConfig.type = type;
+        refConfig.pattern = pattern;
+        return refConfig;
+    }
+}